@@ -0,0 +1,105 @@
+package projects.dao;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import projects.entity.Project;
+
+// Macrobenchmarks for ProjectDao CRUD against the database configured by DbConfig. Rows
+// seeded or inserted here are deleted again in tear-down
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProjectDaoBenchmark {
+  @Param({"10000"})
+  private int seedRows;
+
+  private final ProjectDao projectDao = new ProjectDao();
+  private final List<Integer> seededIds = new ArrayList<>();
+  private final List<Integer> insertedIds = new ArrayList<>();
+  private Project updateTarget;
+
+  @Setup(Level.Trial)
+  public void seed() {
+    List<Project> projects = new ArrayList<>(seedRows);
+
+    for (int i = 0; i < seedRows; i++) {
+      projects.add(newProject(i));
+    }
+
+    projectDao.insertProjects(projects).forEach(project -> seededIds.add(project.getProjectId()));
+    updateTarget = projectDao.fetchProjectById(seededIds.get(0)).orElseThrow();
+  }
+
+  @TearDown(Level.Trial)
+  public void cleanUp() {
+    projectDao.deleteProjects(seededIds);
+    projectDao.deleteProjects(insertedIds);
+    DbConnection.shutdown();
+  }
+
+  @Benchmark
+  public Project insertProject() {
+    Project project = projectDao.insertProject(newProject(0));
+
+    synchronized (insertedIds) {
+      insertedIds.add(project.getProjectId());
+    }
+
+    return project;
+  }
+
+  @Benchmark
+  public Project fetchProjectById() {
+    int index = ThreadLocalRandom.current().nextInt(seededIds.size());
+    return projectDao.fetchProjectById(seededIds.get(index)).orElseThrow();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public int fetchAllProjects() {
+    return projectDao.fetchAllProjects().size();
+  }
+
+  @Benchmark
+  public synchronized UpdateResult updateProject() {
+    updateTarget.setActualHours(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(100), 2));
+    return projectDao.updateProject(updateTarget);
+  }
+
+  @Benchmark
+  public boolean insertThenDeleteProject() {
+    Project project = projectDao.insertProject(newProject(0));
+    return projectDao.deleteProject(project.getProjectId());
+  }
+
+  private static Project newProject(int i) {
+    Project project = new Project();
+
+    project.setProjectName("Benchmark project " + i);
+    project.setEstimatedHours(new BigDecimal("10.00"));
+    project.setActualHours(new BigDecimal("12.50"));
+    project.setDifficulty(i % 5 + 1);
+    project.setNotes("Seeded by ProjectDaoBenchmark");
+
+    return project;
+  }
+}
@@ -0,0 +1,122 @@
+package provided.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+// This is a ResultSet over rows held in memory, so mapping can be measured without a database.
+// Every benchmarked branch pays the same proxy overhead, so results stay comparable
+public class InMemoryResultSet implements InvocationHandler {
+  private final String[] columns;
+  private final Object[][] rows;
+  private final ResultSetMetaData metaData;
+  private int row = -1;
+  private boolean lastWasNull;
+
+  /**
+   * Builds a result set
+   * @param columns Column labels
+   * @param rows Row values, one array per row in column order
+   */
+  public InMemoryResultSet(String[] columns, Object[][] rows) {
+    this.columns = columns;
+    this.rows = rows;
+    this.metaData = (ResultSetMetaData)Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {ResultSetMetaData.class}, this::invokeMetaData);
+  }
+
+  /**
+   * Creates the ResultSet view
+   * @return Result set positioned before the first row
+   */
+  public ResultSet resultSet() {
+    row = -1;
+    return (ResultSet)Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {ResultSet.class}, this);
+  }
+
+  /**
+   * Moves back before the first row so the same data can be mapped again
+   */
+  public void rewind() {
+    row = -1;
+  }
+
+  /**
+   * Creates a PreparedStatement that accepts and discards parameters
+   * @return Prepared statement
+   */
+  public static PreparedStatement discardingStatement() {
+    return (PreparedStatement)Proxy.newProxyInstance(InMemoryResultSet.class.getClassLoader(),
+        new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> null);
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    switch (method.getName()) {
+      case "next":
+        return ++row < rows.length;
+      case "wasNull":
+        return lastWasNull;
+      case "getMetaData":
+        return metaData;
+      case "close":
+        return null;
+      default:
+        break;
+    }
+
+    if (method.getName().startsWith("get") && args != null && args.length == 1
+        && args[0] instanceof Integer) {
+      Object value = rows[row][(Integer)args[0] - 1];
+      lastWasNull = value == null;
+      return convert(value, method.getReturnType());
+    }
+
+    throw new SQLException("Not supported: " + method.getName());
+  }
+
+  private Object invokeMetaData(Object proxy, Method method, Object[] args) throws Throwable {
+    switch (method.getName()) {
+      case "getColumnCount":
+        return columns.length;
+      case "getColumnLabel":
+      case "getColumnName":
+        return columns[(Integer)args[0] - 1];
+      default:
+        throw new SQLException("Not supported: " + method.getName());
+    }
+  }
+
+  private static Object convert(Object value, Class<?> type) {
+    if (type == int.class) {
+      return value == null ? 0 : ((Number)value).intValue();
+    }
+
+    if (type == long.class) {
+      return value == null ? 0L : ((Number)value).longValue();
+    }
+
+    if (type == double.class) {
+      return value == null ? 0.0 : ((Number)value).doubleValue();
+    }
+
+    if (type == boolean.class) {
+      return value != null && (Boolean)value;
+    }
+
+    if (type == BigDecimal.class || type == String.class || type == Timestamp.class
+        || type == Time.class || type == Object.class) {
+      return value;
+    }
+
+    throw new IllegalArgumentException("Unsupported getter type " + type);
+  }
+}
@@ -0,0 +1,100 @@
+package provided.util;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import projects.entity.Project;
+
+// Microbenchmarks for row mapping, parameter binding and column name conversion in DaoBase
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+  private static final String[] COLUMNS = {"project_id", "project_name", "estimated_hours",
+      "actual_hours", "difficulty", "notes", "version"};
+
+  @Param({"1", "1000"})
+  private int rows;
+
+  private BenchDao dao;
+  private InMemoryResultSet data;
+  private ResultSet rs;
+  private PreparedStatement stmt;
+  private Project project;
+
+  @Setup
+  public void setUp() {
+    Object[][] values = new Object[rows][];
+
+    for (int i = 0; i < rows; i++) {
+      values[i] = new Object[] {i + 1, "Project " + i, new BigDecimal("12.50"),
+          i % 3 == 0 ? null : new BigDecimal("14.25"), i % 5 + 1, "Notes for project " + i, 0};
+    }
+
+    dao = new BenchDao();
+    data = new InMemoryResultSet(COLUMNS, values);
+    rs = data.resultSet();
+    stmt = InMemoryResultSet.discardingStatement();
+
+    project = new Project();
+    project.setProjectName("Build a shed");
+    project.setEstimatedHours(new BigDecimal("40.00"));
+    project.setActualHours(null);
+    project.setDifficulty(4);
+    project.setNotes("Needs lumber");
+  }
+
+  @Benchmark
+  public void extractEachRow(Blackhole bh) throws SQLException {
+    data.rewind();
+
+    while (rs.next()) {
+      bh.consume(dao.extract(rs, Project.class));
+    }
+  }
+
+  @Benchmark
+  public void rowMapperAllRows(Blackhole bh) throws SQLException {
+    data.rewind();
+    RowMapper<Project> mapper = dao.rowMapper(rs, Project.class);
+
+    while (rs.next()) {
+      bh.consume(mapper.map(rs));
+    }
+  }
+
+  @Benchmark
+  public void setParameters() throws SQLException {
+    dao.setParameter(stmt, 1, project.getProjectName(), String.class);
+    dao.setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
+    dao.setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+    dao.setParameter(stmt, 4, project.getDifficulty(), Integer.class);
+    dao.setParameter(stmt, 5, project.getNotes(), String.class);
+  }
+
+  @Benchmark
+  public String camelCaseToSnakeCase() {
+    return ClassMapping.camelCaseToSnakeCase("estimatedHours");
+  }
+
+  // DaoBase is abstract; its protected helpers are visible here because this is the same package
+  static class BenchDao extends DaoBase {
+  }
+}
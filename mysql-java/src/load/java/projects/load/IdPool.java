@@ -0,0 +1,93 @@
+package projects.load;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+// This tracks the IDs of projects that should exist so reads, updates and deletes pick real
+// rows. Removal swaps the last ID into the gap, so picks and removes stay constant time
+class IdPool {
+  private final ReentrantLock lock = new ReentrantLock();
+  private final List<Integer> ids = new ArrayList<>();
+
+  /**
+   * Adds IDs
+   * @param projectIds IDs of projects that now exist
+   */
+  void addAll(Collection<Integer> projectIds) {
+    lock.lock();
+    try {
+      ids.addAll(projectIds);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds one ID
+   * @param projectId ID of a project that now exists
+   */
+  void add(Integer projectId) {
+    lock.lock();
+    try {
+      ids.add(projectId);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Picks an ID at random
+   * @param random Caller's random source
+   * @return Project ID, or null if the pool is empty
+   */
+  Integer pick(SplittableRandom random) {
+    lock.lock();
+    try {
+      return ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Picks an ID at random and takes it out of the pool, so no one else picks it
+   * @param random Caller's random source
+   * @return Project ID, or null if the pool is empty
+   */
+  Integer take(SplittableRandom random) {
+    lock.lock();
+    try {
+      if (ids.isEmpty()) {
+        return null;
+      }
+
+      int index = random.nextInt(ids.size());
+      Integer projectId = ids.get(index);
+      Integer last = ids.remove(ids.size() - 1);
+
+      if (index < ids.size()) {
+        ids.set(index, last);
+      }
+
+      return projectId;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Copies the IDs
+   * @return Every ID in the pool
+   */
+  List<Integer> snapshot() {
+    lock.lock();
+    try {
+      return new ArrayList<>(ids);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package projects.load;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+// This holds the settings for one load run, read from "projects.load.*" system properties
+class LoadConfig {
+  enum Mode {
+    // Each thread sends its next request as soon as the last one returns
+    CLOSED,
+    // Requests are sent on a fixed schedule whether or not earlier ones have returned
+    OPEN
+  }
+
+  long seed = 42;
+  int seedProjects = 10_000;
+  int threads = 8;
+  Mode mode = Mode.CLOSED;
+  double targetRate = 1_000;
+  int warmupSeconds = 5;
+  int durationSeconds = 30;
+  int pageSize = 50;
+  boolean cleanUp = true;
+  final Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+
+  LoadConfig() {
+    weights.put(LoadOperation.READ, 70);
+    weights.put(LoadOperation.LIST, 10);
+    weights.put(LoadOperation.INSERT, 8);
+    weights.put(LoadOperation.UPDATE, 10);
+    weights.put(LoadOperation.DELETE, 2);
+  }
+
+  /**
+   * Builds a config from "projects.load.*" system properties, falling back to defaults. Weights
+   * are "projects.load.mix.read", ".list", ".insert", ".update" and ".delete"
+   * @return Load config
+   */
+  static LoadConfig fromSystemProperties() {
+    LoadConfig config = new LoadConfig();
+
+    config.seed = Long.getLong("projects.load.seed", config.seed);
+    config.seedProjects = Integer.getInteger("projects.load.seedProjects", config.seedProjects);
+    config.threads = Integer.getInteger("projects.load.threads", config.threads);
+    config.mode = Mode.valueOf(
+        System.getProperty("projects.load.mode", config.mode.name()).trim().toUpperCase(Locale.ROOT));
+    config.targetRate = Double.parseDouble(
+        System.getProperty("projects.load.rate", String.valueOf(config.targetRate)));
+    config.warmupSeconds = Integer.getInteger("projects.load.warmupSeconds", config.warmupSeconds);
+    config.durationSeconds =
+        Integer.getInteger("projects.load.durationSeconds", config.durationSeconds);
+    config.pageSize = Integer.getInteger("projects.load.pageSize", config.pageSize);
+    config.cleanUp = Boolean.parseBoolean(
+        System.getProperty("projects.load.cleanUp", String.valueOf(config.cleanUp)));
+
+    for (LoadOperation operation : LoadOperation.values()) {
+      config.weights.put(operation, Integer.getInteger("projects.load.mix." + operation.label(),
+          config.weights.get(operation)));
+    }
+
+    config.validate();
+    return config;
+  }
+
+  /**
+   * Checks that the settings make sense together
+   * @throws IllegalArgumentException If a setting is out of range
+   */
+  void validate() {
+    if (threads < 1 || durationSeconds < 1 || warmupSeconds < 0 || pageSize < 1) {
+      throw new IllegalArgumentException(
+          "Load threads, duration and page size must be at least 1 and warm-up can't be negative");
+    }
+
+    if (seedProjects < 0) {
+      throw new IllegalArgumentException("Seed project count can't be negative");
+    }
+
+    if (mode == Mode.OPEN && !(targetRate > 0)) {
+      throw new IllegalArgumentException("An open-loop run needs a rate above 0");
+    }
+
+    if (weights.values().stream().anyMatch(weight -> weight < 0)
+        || weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("Mix weights can't be negative and can't all be 0");
+    }
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted settings
+   */
+  @Override
+  public String toString() {
+    StringBuilder mix = new StringBuilder();
+    weights.forEach((operation, weight) -> mix.append(' ').append(operation.label()).append('=')
+        .append(weight));
+
+    return String.format("mode=%s%s threads=%d seed=%d seedProjects=%d warmup=%ds duration=%ds "
+        + "mix:%s", mode, mode == Mode.OPEN ? " rate=" + targetRate + "/s" : "", threads, seed,
+        seedProjects, warmupSeconds, durationSeconds, mix);
+  }
+}
@@ -0,0 +1,288 @@
+package projects.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import projects.dao.DbConnection;
+import projects.dao.ReadSession;
+import projects.entity.Project;
+import projects.exception.ProjectConflictException;
+import projects.load.LoadResults.OperationResults;
+import projects.load.LoadResults.Outcome;
+import projects.metrics.LatencyHistogram;
+import projects.service.ProjectService;
+
+// This puts mixed, concurrent traffic through ProjectService and reports latency percentiles
+// and throughput for each kind of request. It seeds the database with made-up projects, runs
+// a warm-up and then a measured phase, and deletes what it added afterwards.
+//
+// A closed-loop run has each thread send its next request as soon as the last one returns, which
+// finds the most the database can do. An open-loop run sends requests on a fixed schedule, which
+// shows how latency holds up at a given rate. Either way, latency is corrected for coordinated
+// omission: requests that should have been sent while a thread was stuck waiting are counted as
+// waiting too, instead of silently not happening
+public class LoadGenerator {
+  private static final int SEED_CHUNK = 1_000;
+
+  private final LoadConfig config;
+  private final ProjectService projectService;
+  private final IdPool ids = new IdPool();
+  private final List<LoadOperation> mix = new ArrayList<>();
+
+  /**
+   * Builds a load generator
+   * @param config Run settings
+   * @param projectService Service the requests go through
+   */
+  LoadGenerator(LoadConfig config, ProjectService projectService) {
+    this.config = config;
+    this.projectService = projectService;
+
+    // One entry per unit of weight, so a uniform pick follows the weights
+    config.weights.forEach((operation, weight) -> {
+      for (int i = 0; i < weight; i++) {
+        mix.add(operation);
+      }
+    });
+  }
+
+  /**
+   * Runs a load test against the database configured by DbConfig. Settings come from
+   * "projects.load.*" system properties
+   * @param args Unused
+   */
+  public static void main(String[] args) {
+    LoadConfig config = LoadConfig.fromSystemProperties();
+
+    System.out.println("Load run: " + config);
+
+    try {
+      new LoadGenerator(config, new ProjectService()).run();
+    } finally {
+      DbConnection.shutdown();
+    }
+  }
+
+  /**
+   * Seeds, runs the workload, prints the report and cleans up
+   */
+  @SuppressWarnings("try")
+  void run() {
+    SplittableRandom random = new SplittableRandom(config.seed);
+
+    seed(new ProjectDataGenerator(random.nextLong()));
+
+    try {
+      LoadResults results = new LoadResults();
+      long startNanos = System.nanoTime();
+      long measureStartNanos = startNanos + TimeUnit.SECONDS.toNanos(config.warmupSeconds);
+      long endNanos = measureStartNanos + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+      List<Thread> workers = new ArrayList<>();
+
+      for (int i = 0; i < config.threads; i++) {
+        // Split here, in order, so each thread's sequence depends only on the seed
+        SplittableRandom workerRandom = random.split();
+        int index = i;
+
+        // Each thread stands in for one user, with its own read-your-writes session
+        workers.add(Thread.ofPlatform().name("load-" + i).start(() -> {
+          try (ReadSession.Scope session = ReadSession.start().bind()) {
+            runWorker(index, workerRandom, startNanos, measureStartNanos, endNanos, results);
+          }
+        }));
+      }
+
+      for (Thread worker : workers) {
+        worker.join();
+      }
+
+      report(results, config.durationSeconds);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      if (config.cleanUp) {
+        cleanUp();
+      }
+    }
+  }
+
+  private void seed(ProjectDataGenerator data) {
+    long start = System.nanoTime();
+    int seeded = 0;
+
+    while (seeded < config.seedProjects) {
+      List<Project> chunk = new ArrayList<>(SEED_CHUNK);
+
+      while (chunk.size() < SEED_CHUNK && seeded + chunk.size() < config.seedProjects) {
+        chunk.add(data.next());
+      }
+
+      ids.addAll(projectService.addProjects(chunk).stream().map(Project::getProjectId).toList());
+      seeded += chunk.size();
+    }
+
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("Seeded %d projects in %.1fs (%.0f/s)%n", seeded, seconds,
+        seeded / Math.max(seconds, 1e-9));
+  }
+
+  // An open-loop thread keeps its own schedule at rate / threads, offset so the threads don't
+  // all fire together. A closed-loop thread has no schedule, so it corrects its latencies using
+  // its median service time from the warm-up as the normal gap between requests
+  private void runWorker(int index, SplittableRandom random, long startNanos,
+      long measureStartNanos, long endNanos, LoadResults results) {
+    ProjectDataGenerator data = new ProjectDataGenerator(random.nextLong());
+    boolean open = config.mode == LoadConfig.Mode.OPEN;
+    long intervalNanos = open ? (long)(config.threads * 1e9 / config.targetRate) : 0;
+    long intended = startNanos + intervalNanos * index / config.threads;
+    LatencyHistogram warmup = new LatencyHistogram();
+    long expectedIntervalNanos = 0;
+
+    while (true) {
+      long now = System.nanoTime();
+
+      if (now >= endNanos) {
+        break;
+      }
+
+      if (open) {
+        if (intended >= endNanos) {
+          break;
+        }
+
+        while ((now = System.nanoTime()) < intended) {
+          LockSupport.parkNanos(intended - now);
+        }
+      } else {
+        intended = now;
+      }
+
+      LoadOperation operation = mix.get(random.nextInt(mix.size()));
+      long begin = System.nanoTime();
+      Outcome outcome = execute(operation, random, data, results);
+      long end = System.nanoTime();
+
+      if (intended < measureStartNanos) {
+        warmup.record(end - begin);
+      } else {
+        if (!open && expectedIntervalNanos == 0) {
+          expectedIntervalNanos = warmup.getValueAtPercentile(50);
+        }
+
+        results.record(operation, outcome, end - intended, end - begin, expectedIntervalNanos);
+      }
+
+      intended += intervalNanos;
+    }
+
+    // Requests that were due but never sent still waited until the end of the run
+    for (; open && intended < endNanos; intended += intervalNanos) {
+      if (intended >= measureStartNanos) {
+        results.recordUnsent(mix.get(random.nextInt(mix.size())), endNanos - intended);
+      }
+    }
+  }
+
+  private Outcome execute(LoadOperation operation, SplittableRandom random,
+      ProjectDataGenerator data, LoadResults results) {
+    try {
+      switch (operation) {
+        case READ -> {
+          Integer projectId = ids.pick(random);
+
+          if (projectId == null) {
+            return Outcome.MISS;
+          }
+
+          projectService.fetchProjectById(projectId);
+        }
+        case LIST -> {
+          // Mostly the first page, which is what people look at, otherwise somewhere in the middle
+          Integer after = random.nextInt(5) == 0 ? ids.pick(random) : null;
+          projectService.fetchProjectSummariesPage(after, config.pageSize);
+        }
+        case INSERT -> ids.add(projectService.addProject(data.next()).getProjectId());
+        case UPDATE -> {
+          Integer projectId = ids.pick(random);
+
+          if (projectId == null) {
+            return Outcome.MISS;
+          }
+
+          // The service may hand back its cached instance, which other threads can see
+          Project project = projectService.fetchProjectById(projectId).copy();
+          project.setActualHours(data.actualHours(project));
+          projectService.updateProject(project);
+        }
+        case DELETE -> {
+          Integer projectId = ids.take(random);
+
+          if (projectId == null) {
+            return Outcome.MISS;
+          }
+
+          projectService.deleteProject(projectId);
+        }
+      }
+
+      return Outcome.OK;
+    } catch (NoSuchElementException e) {
+      return Outcome.MISS;
+    } catch (ProjectConflictException e) {
+      return Outcome.CONFLICT;
+    } catch (RuntimeException e) {
+      results.recordError(e);
+      return Outcome.ERROR;
+    }
+  }
+
+  private void report(LoadResults results, int seconds) {
+    long completed = results.completed();
+
+    System.out.printf("Completed %d requests in %ds: %.1f/s, %d errors%n", completed, seconds,
+        completed / (double)seconds, results.errors());
+    System.out.println("Latency is from the intended send time and counts the requests a "
+        + "stalled thread would have sent; service time is from the actual send time");
+
+    for (LoadOperation operation : LoadOperation.values()) {
+      OperationResults stats = results.get(operation);
+
+      if (stats.completed() == 0 && stats.unsent.sum() == 0) {
+        continue;
+      }
+
+      System.out.printf("  %-6s %.1f/s misses=%d conflicts=%d errors=%d unsent=%d%n",
+          operation.label(), stats.completed() / (double)seconds, stats.count(Outcome.MISS),
+          stats.count(Outcome.CONFLICT), stats.count(Outcome.ERROR), stats.unsent.sum());
+      System.out.println("         latency: " + stats.latency.snapshot());
+      System.out.println("         service: " + stats.service.snapshot());
+    }
+
+    if (results.getFirstError() != null) {
+      System.out.println("First error: " + results.getFirstError());
+    }
+
+    System.out.println("Pool: " + DbConnection.getPoolStats());
+    DbConnection.getReadRoutingStats().ifPresent(routing -> {
+      System.out.printf("Reads: replica=%d primary=%d (%.1f%% from replicas)%n",
+          routing.replicaReads(), routing.primaryReads(), routing.replicaReadRate() * 100);
+      routing.replicas().forEach(replica -> System.out.println("  " + replica));
+    });
+    System.out.printf("Cache: hitRate=%.1f%% %s%n", projectService.getCacheStats().hitRate() * 100,
+        projectService.getCacheStats());
+  }
+
+  private void cleanUp() {
+    List<Integer> projectIds = ids.snapshot();
+
+    for (int from = 0; from < projectIds.size(); from += SEED_CHUNK) {
+      projectService.deleteProjects(
+          projectIds.subList(from, Math.min(from + SEED_CHUNK, projectIds.size())));
+    }
+
+    System.out.println("Deleted " + projectIds.size() + " projects added by the run");
+  }
+}
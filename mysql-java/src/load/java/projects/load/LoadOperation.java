@@ -0,0 +1,13 @@
+package projects.load;
+
+import java.util.Locale;
+
+// The ProjectService calls a load run mixes together
+enum LoadOperation {
+  READ, LIST, INSERT, UPDATE, DELETE;
+
+  // Lower-case name, used for the weight properties and the report
+  String label() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,135 @@
+package projects.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import projects.metrics.LatencyHistogram;
+
+// This collects per-operation latencies and outcomes from every load thread. Each operation
+// has two histograms: latency, measured from when the request should have been sent, and
+// service time, measured from when it actually was. When the database stalls, a load thread
+// stops sending, so service time alone hides how long the requests that should have gone out
+// during the stall would have waited. Latency includes that wait
+class LoadResults {
+  enum Outcome {
+    OK,
+    // The project was deleted by another thread first
+    MISS,
+    // The project was updated by another thread first
+    CONFLICT,
+    ERROR
+  }
+
+  private final Map<LoadOperation, OperationResults> operations =
+      new EnumMap<>(LoadOperation.class);
+  private final AtomicReference<RuntimeException> firstError = new AtomicReference<>();
+
+  LoadResults() {
+    for (LoadOperation operation : LoadOperation.values()) {
+      operations.put(operation, new OperationResults());
+    }
+  }
+
+  /**
+   * Records one completed request
+   * @param operation What was done
+   * @param outcome How it ended
+   * @param latencyNanos Time from the intended send time to the response
+   * @param serviceNanos Time from the actual send time to the response
+   * @param expectedIntervalNanos Time the thread normally takes per request, or 0 if latency
+   *        is already measured from a schedule. Used to fill in the requests a closed-loop
+   *        thread would have sent while this one was stalled
+   */
+  void record(LoadOperation operation, Outcome outcome, long latencyNanos, long serviceNanos,
+      long expectedIntervalNanos) {
+    OperationResults results = operations.get(operation);
+
+    results.latency.record(latencyNanos);
+    results.service.record(serviceNanos);
+    results.outcomes.get(outcome).increment();
+
+    if (expectedIntervalNanos > 0) {
+      for (long missed = latencyNanos - expectedIntervalNanos; missed >= expectedIntervalNanos;
+          missed -= expectedIntervalNanos) {
+        results.latency.record(missed);
+      }
+    }
+  }
+
+  /**
+   * Records a request that was due before the run ended but never sent because the thread was
+   * still behind schedule. Its latency is at least how long it had waited
+   * @param operation What would have been done
+   * @param waitedNanos Time from the intended send time to the end of the run
+   */
+  void recordUnsent(LoadOperation operation, long waitedNanos) {
+    OperationResults results = operations.get(operation);
+
+    results.latency.record(waitedNanos);
+    results.unsent.increment();
+  }
+
+  /**
+   * Keeps the first unexpected error for the report
+   * @param e Error
+   */
+  void recordError(RuntimeException e) {
+    firstError.compareAndSet(null, e);
+  }
+
+  /**
+   * Gets the first unexpected error
+   * @return Error, or null if there were none
+   */
+  RuntimeException getFirstError() {
+    return firstError.get();
+  }
+
+  /**
+   * Gets the results for one operation
+   * @param operation Operation
+   * @return Histograms and counts
+   */
+  OperationResults get(LoadOperation operation) {
+    return operations.get(operation);
+  }
+
+  /**
+   * Adds up completed requests over every operation
+   * @return Completed requests
+   */
+  long completed() {
+    return operations.values().stream().mapToLong(OperationResults::completed).sum();
+  }
+
+  /**
+   * Adds up failed requests over every operation
+   * @return Requests that ended in an unexpected error
+   */
+  long errors() {
+    return operations.values().stream().mapToLong(results -> results.count(Outcome.ERROR)).sum();
+  }
+
+  // Histograms and outcome counts for one operation
+  static class OperationResults {
+    final LatencyHistogram latency = new LatencyHistogram();
+    final LatencyHistogram service = new LatencyHistogram();
+    final LongAdder unsent = new LongAdder();
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+
+    OperationResults() {
+      for (Outcome outcome : Outcome.values()) {
+        outcomes.put(outcome, new LongAdder());
+      }
+    }
+
+    long count(Outcome outcome) {
+      return outcomes.get(outcome).sum();
+    }
+
+    long completed() {
+      return service.getCount();
+    }
+  }
+}
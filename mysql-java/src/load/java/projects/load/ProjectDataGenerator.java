@@ -0,0 +1,131 @@
+package projects.load;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import projects.entity.Project;
+
+// This makes made-up projects that look like real ones: short names of a few words, notes
+// that are usually a paragraph but sometimes missing or much longer, mostly middling
+// difficulty, and hours skewed so most projects are small and a few are huge. The same seed
+// always gives the same projects in the same order
+class ProjectDataGenerator {
+  private static final String[] VERBS = {"Build", "Repair", "Replace", "Paint", "Install",
+      "Refinish", "Insulate", "Tile", "Wire", "Landscape", "Restore", "Seal", "Frame", "Level"};
+  private static final String[] THINGS = {"deck", "fence", "shed", "kitchen cabinets",
+      "bathroom floor", "garage door", "porch railing", "garden beds", "basement walls",
+      "attic", "driveway", "bookshelves", "window trim", "patio", "roof flashing", "stairs"};
+  private static final String[] PLACES = {"", "", "", " in the back yard", " upstairs",
+      " at the cabin", " for the rental", " in the guest room", " before winter"};
+  private static final String[] WORDS = {"measure", "cut", "sand", "prime", "two", "coats",
+      "screws", "lumber", "check", "level", "permit", "order", "extra", "boards", "the", "and",
+      "wait", "for", "dry", "weather", "rent", "a", "saw", "from", "hardware", "store", "then",
+      "clean", "up", "old", "nails", "replace", "rotten", "sections", "match", "stain", "color"};
+
+  // Rough share of projects at each difficulty, 1 to 5
+  private static final int[] DIFFICULTY_WEIGHTS = {15, 30, 30, 17, 8};
+  private static final double MAX_HOURS = 99_999.99;
+
+  private final SplittableRandom random;
+  private long sequence;
+
+  /**
+   * Builds a generator
+   * @param seed Seed; the same seed gives the same projects
+   */
+  ProjectDataGenerator(long seed) {
+    this.random = new SplittableRandom(seed);
+  }
+
+  /**
+   * Makes the next project
+   * @return New project without an ID
+   */
+  Project next() {
+    Project project = new Project();
+    BigDecimal estimate = hours(logNormal(3.0, 1.0));
+
+    project.setProjectName(name());
+    project.setDifficulty(difficulty());
+    project.setEstimatedHours(random.nextInt(10) == 0 ? null : estimate);
+    project.setNotes(notes());
+
+    // Finished projects have actual hours, usually a little over the estimate
+    if (project.getEstimatedHours() != null && random.nextInt(3) != 0) {
+      project.setActualHours(hours(estimate.doubleValue() * logNormal(0.1, 0.35)));
+    }
+
+    sequence++;
+    return project;
+  }
+
+  /**
+   * Makes new actual hours for an update
+   * @param project Project being updated
+   * @return Actual hours
+   */
+  BigDecimal actualHours(Project project) {
+    BigDecimal estimate = project.getEstimatedHours();
+    double base = estimate == null ? logNormal(3.0, 1.0) : estimate.doubleValue();
+
+    return hours(base * logNormal(0.1, 0.35));
+  }
+
+  private String name() {
+    return VERBS[random.nextInt(VERBS.length)] + " " + THINGS[random.nextInt(THINGS.length)]
+        + PLACES[random.nextInt(PLACES.length)] + " #" + sequence;
+  }
+
+  private Integer difficulty() {
+    int pick = random.nextInt(100);
+
+    for (int i = 0; i < DIFFICULTY_WEIGHTS.length; i++) {
+      pick -= DIFFICULTY_WEIGHTS[i];
+
+      if (pick < 0) {
+        return i + 1;
+      }
+    }
+
+    return DIFFICULTY_WEIGHTS.length;
+  }
+
+  // About a fifth have no notes; the rest average a couple of hundred characters with a long
+  // tail up to a few thousand
+  private String notes() {
+    if (random.nextInt(5) == 0) {
+      return null;
+    }
+
+    int length = (int)Math.min(logNormal(5.0, 0.9), 4_000);
+    StringBuilder notes = new StringBuilder(length + 16);
+
+    while (notes.length() < length) {
+      if (notes.length() > 0) {
+        notes.append(' ');
+      }
+
+      notes.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+
+    notes.setCharAt(0, Character.toUpperCase(notes.charAt(0)));
+    return notes.append('.').toString();
+  }
+
+  private double logNormal(double mu, double sigma) {
+    return Math.exp(mu + sigma * gaussian());
+  }
+
+  // Box-Muller, so the sequence depends only on the seed
+  private double gaussian() {
+    double u = 1.0 - random.nextDouble();
+    double v = random.nextDouble();
+
+    return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+  }
+
+  private static BigDecimal hours(double value) {
+    return BigDecimal.valueOf(Math.min(Math.max(value, 0.25), MAX_HOURS))
+        .setScale(2, RoundingMode.HALF_UP);
+  }
+}
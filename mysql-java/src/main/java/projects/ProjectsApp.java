@@ -1,19 +1,30 @@
 package projects;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Scanner;
+import projects.dao.ReadSession;
 import projects.entity.Project;
+import projects.entity.ProjectSearchHit;
+import projects.entity.ProjectSummary;
 import projects.exception.DbException;
+import projects.exception.ProjectConflictException;
+import projects.io.ExportResult;
+import projects.io.ImportResult;
+import projects.io.ProjectExporter;
+import projects.io.ProjectImporter;
 import projects.service.ProjectService;
+import projects.service.ProjectValidator;
 
 // ANCHOR This file is where all of the user inputs for CRUD operations in my menu app are handled, with each portion labeled by operation. I've included Javadoc tags in all other code files for documentation purposes
 public class ProjectsApp {
   private Scanner scanner = new Scanner(System.in); // Reads user input
   private ProjectService projectService = new ProjectService(); // Handles project services
   private Project curProject; // Current selected project
+  private static final int PAGE_SIZE = 20; // Projects shown per page
 
   // @formatter:off
   private List<String> operations = List.of(
@@ -21,12 +32,19 @@ public class ProjectsApp {
       "2) List projects",
       "3) Select a project",
       "4) Update project details",
-      "5) Delete a project"
+      "5) Delete a project",
+      "6) Import projects from a CSV or JSONL file",
+      "7) Export projects to a CSV or JSONL file",
+      "8) Show estimate accuracy report",
+      "9) Search projects",
+      "10) Restart project IDs at 1 (only when there are no projects)"
   );
   // @formatter:on
 
   // App entry point
+  // One user, so one read-your-writes session for the whole run
   public static void main(String[] args) {
+    ReadSession.start().bind();
     new ProjectsApp().processUserSelections(); 
   }
 
@@ -59,6 +77,26 @@ public class ProjectsApp {
             deleteProject(); 
             break;
 
+          case 6:
+            importProjects(); 
+            break;
+
+          case 7:
+            exportProjects(); 
+            break;
+
+          case 8:
+            showEstimateReport(); 
+            break;
+
+          case 9:
+            searchProjects(); 
+            break;
+
+          case 10:
+            resetProjectIds(); 
+            break;
+
           default:
             System.out.println("" + selection + " isn't valid. Try again"); 
             break;
@@ -88,7 +126,7 @@ public class ProjectsApp {
     curProject.setProjectName(projectNameOpt.orElse(curProject.getProjectName()));
     curProject.setEstimatedHours(estimatedHoursOpt.orElse(curProject.getEstimatedHours()));
     curProject.setActualHours(actualHoursOpt.orElse(curProject.getActualHours()));
-    Integer difficulty = difficultyInputOpt.filter(d -> d >= 1 && d <= 5).orElseGet(() -> {
+    Integer difficulty = difficultyInputOpt.filter(ProjectValidator::isValidDifficulty).orElseGet(() -> {
       if (difficultyInputOpt.isPresent()) {
         System.out.println("Difficulty must be between 1 and 5. Keeping original value.");
       }
@@ -96,9 +134,13 @@ public class ProjectsApp {
     });
     curProject.setDifficulty(difficulty);
     curProject.setNotes(notesOpt.orElse(curProject.getNotes()));
-    projectService.updateProject(curProject);
+    try {
+      projectService.updateProject(curProject);
+      System.out.println("Project updated successfully");
+    } catch (ProjectConflictException e) {
+      System.out.println(e.getMessage());
+    }
     curProject = projectService.fetchProjectById(curProject.getProjectId());
-    System.out.println("Project updated successfully");
   }
 
   // Delete current project
@@ -123,11 +165,92 @@ public class ProjectsApp {
     curProject = projectService.fetchProjectById(projectId);
   }
 
-  // List all projects
+  // List projects one page at a time
   private void listProjects() {
-    List<Project> projects = projectService.fetchAllProjects(); 
-    System.out.println("Projects:"); 
-    projects.forEach(project -> System.out.println("   " + project.getProjectId() + ": " + project.getProjectName())); 
+    List<ProjectSummary> page = projectService.fetchProjectSummariesPage(null, PAGE_SIZE);
+
+    if (page.isEmpty()) {
+      System.out.println("No projects");
+      return;
+    }
+
+    while (true) {
+      System.out.println("Projects:"); 
+      page.forEach(summary -> System.out.println("   " + summary)); 
+
+      String input = getStringInput("Enter n for next page, p for previous page, or press Enter to finish").orElse("");
+      List<ProjectSummary> nextPage;
+
+      if (input.equalsIgnoreCase("n")) {
+        nextPage = projectService.fetchProjectSummariesPage(page.get(page.size() - 1).getProjectId(), PAGE_SIZE);
+        if (nextPage.isEmpty()) {
+          System.out.println("This is the last page");
+          continue;
+        }
+      } else if (input.equalsIgnoreCase("p")) {
+        nextPage = projectService.fetchProjectSummariesPageBefore(page.get(0).getProjectId(), PAGE_SIZE);
+        if (nextPage.isEmpty()) {
+          System.out.println("This is the first page");
+          continue;
+        }
+      } else {
+        return;
+      }
+
+      page = nextPage;
+    }
+  }
+
+  // Import projects from a file
+  private void importProjects() {
+    Optional<String> pathOpt = getStringInput("Enter path to a .csv or .jsonl file (optionally .gz)");
+    if (pathOpt.isEmpty()) {
+      return;
+    }
+    ImportResult result = new ProjectImporter(projectService).importFile(Path.of(pathOpt.get()));
+    System.out.println(result);
+  }
+
+  // Export all projects to a file, or to numbered part files
+  private void exportProjects() {
+    Optional<String> pathOpt = getStringInput("Enter path for the .csv or .jsonl file (add .gz to compress)");
+    if (pathOpt.isEmpty()) {
+      return;
+    }
+    Optional<String> splitOpt = getStringInput("Keep numbered part files instead of one file? (y/N)");
+    ProjectExporter exporter = new ProjectExporter(projectService);
+    exporter.setMerge(!splitOpt.map(answer -> answer.equalsIgnoreCase("y")).orElse(false));
+    ExportResult result = exporter.exportTo(Path.of(pathOpt.get()));
+    System.out.println(result);
+  }
+
+  // Show estimated vs actual hours by difficulty
+  private void showEstimateReport() {
+    System.out.println(projectService.fetchEstimateReport());
+  }
+
+  // Maintenance: restart ID numbering once every project has been deleted
+  private void resetProjectIds() {
+    if (projectService.resetProjectIdsIfEmpty()) {
+      curProject = null;
+      System.out.println("Project IDs will start again at 1");
+    } else {
+      System.out.println("There are still projects, so IDs were left as they are");
+    }
+  }
+
+  // Search project names and notes
+  private void searchProjects() {
+    Optional<String> queryOpt = getStringInput("Enter search words (use +word, -word, \"phrase\" or word* for boolean search)");
+    if (queryOpt.isEmpty()) {
+      return;
+    }
+    List<ProjectSearchHit> hits = projectService.searchProjects(queryOpt.get(), PAGE_SIZE);
+    if (hits.isEmpty()) {
+      System.out.println("No projects match.");
+      return;
+    }
+    hits.forEach(hit -> System.out.println("   " + hit));
   }
 
   // Create new project
@@ -138,7 +261,7 @@ public class ProjectsApp {
     Integer difficulty = null;
     while (difficulty == null) {
       Integer input = getIntInput("Enter difficulty (1-5)");
-      if (input != null && (input < 1 || input > 5)) {
+      if (input != null && !ProjectValidator.isValidDifficulty(input)) {
         System.out.println("Difficulty must be between 1 and 5. Try again.");
       } else {
         difficulty = input;
@@ -146,13 +269,16 @@ public class ProjectsApp {
     }
     Optional<String> notesOpt = getStringInput("Enter notes");
 
-    if (projectNameOpt.isEmpty()) {
-      System.out.println("Project name is required.");
+    String projectName;
+    try {
+      projectName = ProjectValidator.requireName(projectNameOpt.orElse(null));
+    } catch (DbException e) {
+      System.out.println(e.getMessage());
       return;
     }
 
     Project project = new Project();
-    project.setProjectName(projectNameOpt.get());
+    project.setProjectName(projectName);
     project.setEstimatedHours(estimatedHours);
     project.setActualHours(actualHours);
     project.setDifficulty(difficulty);
@@ -166,12 +292,7 @@ public class ProjectsApp {
   private BigDecimal getDecimalInput(String prompt) {
     Optional<String> optInput = getStringInput(prompt);
     if (optInput.isEmpty()) return null;
-    String input = optInput.get();
-    try {
-      return new BigDecimal(input).setScale(2);
-    } catch (NumberFormatException e) {
-      throw new DbException(input + " invalid number");
-    }
+    return ProjectValidator.parseHours(optInput.get());
   }
 
   // Get user menu choice
@@ -179,10 +300,10 @@ public class ProjectsApp {
     while (true) {
       printOperations(); 
       Integer input = getIntInput("Enter selection"); 
-      if (input != null && input >= 1 && input <= 5) {
+      if (input != null && input >= 1 && input <= operations.size()) {
         return input;
       } else {
-        System.out.println("Invalid selection. Enter a number between 1 and 5.");
+        System.out.println("Invalid selection. Enter a number between 1 and " + operations.size() + ".");
       }
     }
   }
@@ -0,0 +1,52 @@
+package projects.dao;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+
+/**
+ * Position in the project change feed: every change up to and including the one to projectId
+ * at changedAt has been read. Save toString() to resume later with {@link #parse(String)}
+ * @param changedAt Time of the last change read
+ * @param projectId Project ID of the last change read, breaking ties between equal times
+ */
+public record ChangeCursor(LocalDateTime changedAt, int projectId) {
+
+  /**
+   * Starts the feed from the first change
+   */
+  public static final ChangeCursor START = new ChangeCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+  /**
+   * Checks the time is set
+   */
+  public ChangeCursor {
+    Objects.requireNonNull(changedAt, "changedAt");
+  }
+
+  /**
+   * Reads a cursor saved with toString()
+   * @param text Text like "2024-05-01T12:30:00.123456/42"
+   * @return Cursor
+   * @throws IllegalArgumentException If the text isn't a saved cursor
+   */
+  public static ChangeCursor parse(String text) {
+    int slash = text.lastIndexOf('/');
+
+    try {
+      return new ChangeCursor(LocalDateTime.parse(text.substring(0, Math.max(slash, 0))),
+          Integer.parseInt(text.substring(slash + 1)));
+    } catch (DateTimeParseException | NumberFormatException e) {
+      throw new IllegalArgumentException("Not a change cursor: " + text, e);
+    }
+  }
+
+  /**
+   * Builds the saved form of the cursor
+   * @return Time and project ID separated by '/'
+   */
+  @Override
+  public String toString() {
+    return changedAt + "/" + projectId;
+  }
+}
@@ -0,0 +1,13 @@
+package projects.dao;
+
+import java.util.List;
+import projects.entity.ProjectChange;
+
+/**
+ * One call's worth of the project change feed
+ * @param changes Changes in time order, ties broken by project ID
+ * @param next Cursor to pass to the next call; the one passed in if there were no changes
+ * @param hasMore True if more changes were ready than the limit allowed
+ */
+public record ChangePage(List<ProjectChange> changes, ChangeCursor next, boolean hasMore) {
+}
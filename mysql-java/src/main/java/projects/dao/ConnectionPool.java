@@ -0,0 +1,440 @@
+package projects.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import projects.exception.ConnectionTimeoutException;
+import projects.exception.DbException;
+import projects.metrics.DaoMetrics;
+
+// This is a bounded JDBC connection pool. Borrowed connections are proxies whose close() hands
+// the physical connection back to the pool, so DAO code keeps using try-with-resources as before.
+// Each connection also keeps its prepared statements open between borrows in a StatementCache
+public class ConnectionPool implements AutoCloseable {
+  private final String url;
+  private final PoolConfig config;
+
+  // Idle connections, most recently returned first so hot connections get reused
+  private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+  private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+
+  // One permit per connection that may be handed out at the same time
+  private final Semaphore permits;
+  private final AtomicInteger totalConnections = new AtomicInteger();
+  private final ScheduledExecutorService housekeeper;
+  private volatile boolean closed;
+
+  private final LongAdder borrowCount = new LongAdder();
+  private final LongAdder waitNanosTotal = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+  private final LongAdder timeoutCount = new LongAdder();
+  private final LongAdder createdCount = new LongAdder();
+  private final LongAdder evictedCount = new LongAdder();
+  private final LongAdder validationFailureCount = new LongAdder();
+  private final LongAdder leakCount = new LongAdder();
+  private final LongAdder statementHits = new LongAdder();
+  private final LongAdder statementMisses = new LongAdder();
+  private final LongAdder statementEvictions = new LongAdder();
+
+  /**
+   * Builds a pool and opens its minimum number of connections
+   * @param url JDBC URL for new physical connections
+   * @param config Pool settings
+   */
+  public ConnectionPool(String url, PoolConfig config) {
+    config.validate();
+
+    this.url = url;
+    this.config = config;
+    this.permits = new Semaphore(config.getMaxSize(), true);
+
+    this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    fillToMinimum();
+    housekeeper.scheduleWithFixedDelay(this::housekeep, config.getHousekeepingMillis(),
+        config.getHousekeepingMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Borrows a connection, waiting up to the acquire timeout for one to free up
+   * @return Pooled connection; closing it returns it to the pool
+   * @throws ConnectionTimeoutException If no connection frees up within the acquire timeout
+   * @throws DbException If the pool is closed or a connection can't be opened
+   */
+  public Connection getConnection() {
+    return getConnection(null);
+  }
+
+  /**
+   * Borrows a connection like getConnection(), and runs a callback once it has been returned
+   * @param onRelease Runs after the connection is back in the pool, or null for nothing
+   * @return Pooled connection; closing it returns it to the pool
+   */
+  Connection getConnection(Runnable onRelease) {
+    if (closed) {
+      throw new DbException("Connection pool is closed");
+    }
+
+    long start = System.nanoTime();
+
+    try {
+      if (!permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+        timeoutCount.increment();
+        throw new ConnectionTimeoutException("Timed out after " + config.getAcquireTimeoutMillis()
+            + "ms waiting for a connection (" + borrowed.size() + " in use)");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DbException("Interrupted while waiting for a connection", e);
+    }
+
+    return borrow(start, onRelease);
+  }
+
+  /**
+   * Borrows a connection only if one is free right now, for callers that have somewhere else
+   * to go when this pool is busy
+   * @return Pooled connection, or null if every connection is in use
+   * @throws DbException If the pool is closed or a connection can't be opened
+   */
+  Connection tryGetConnection() {
+    if (closed) {
+      throw new DbException("Connection pool is closed");
+    }
+
+    long start = System.nanoTime();
+    return permits.tryAcquire() ? borrow(start, null) : null;
+  }
+
+  // Called holding a permit, which goes back if no connection can be handed out
+  private Connection borrow(long start, Runnable onRelease) {
+    try {
+      PooledConnection pooled = takeIdle();
+
+      if (pooled == null) {
+        pooled = openConnection();
+      }
+
+      pooled.markBorrowed(config.getLeakDetectionMillis() > 0, onRelease);
+      borrowed.add(pooled);
+      recordWait(System.nanoTime() - start);
+
+      return pooled.proxy;
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e instanceof DbException ? (DbException)e
+          : new DbException("Unable to get connection", e);
+    }
+  }
+
+  /**
+   * Takes a statistics snapshot, including how long callers waited for connections
+   * @return Pool statistics
+   */
+  public PoolStats getStats() {
+    long borrows = borrowCount.sum();
+
+    return new PoolStats(totalConnections.get(), idle.size(), borrowed.size(),
+        permits.getQueueLength(), borrows, timeoutCount.sum(),
+        borrows == 0 ? 0 : waitNanosTotal.sum() / borrows, maxWaitNanos.get(),
+        createdCount.sum(), evictedCount.sum(), validationFailureCount.sum(), leakCount.sum(),
+        statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+  }
+
+  /**
+   * Gets the pool settings
+   * @return Pool config
+   */
+  public PoolConfig getConfig() {
+    return config;
+  }
+
+  // Cheaper than getStats() for callers that only need the load
+  int inUse() {
+    return borrowed.size();
+  }
+
+  /**
+   * Closes idle connections and stops housekeeping; borrowed connections close when returned
+   */
+  @Override
+  public void close() {
+    closed = true;
+    housekeeper.shutdownNow();
+
+    PooledConnection pooled;
+
+    while ((pooled = idle.pollFirst()) != null) {
+      destroy(pooled);
+    }
+  }
+
+  private PooledConnection takeIdle() {
+    PooledConnection pooled;
+
+    while ((pooled = idle.pollFirst()) != null) {
+      if (isUsable(pooled)) {
+        return pooled;
+      }
+
+      validationFailureCount.increment();
+      destroy(pooled);
+    }
+
+    return null;
+  }
+
+  private boolean isUsable(PooledConnection pooled) {
+    long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.lastUsedNanos);
+
+    if (idleMillis < config.getValidateAfterIdleMillis()) {
+      return true;
+    }
+
+    try {
+      return pooled.physical.isValid(config.getValidationTimeoutSeconds());
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private PooledConnection openConnection() throws SQLException {
+    Connection physical = DriverManager.getConnection(url);
+    totalConnections.incrementAndGet();
+    createdCount.increment();
+    return new PooledConnection(physical);
+  }
+
+  private void release(PooledConnection pooled) {
+    borrowed.remove(pooled);
+
+    try {
+      if (closed || pooled.physical.isClosed()) {
+        destroy(pooled);
+      } else {
+        resetState(pooled.physical);
+        pooled.lastUsedNanos = System.nanoTime();
+        idle.offerFirst(pooled);
+      }
+    } catch (SQLException e) {
+      destroy(pooled);
+    } finally {
+      permits.release();
+    }
+  }
+
+  // Leaves the connection the way DriverManager would have handed it out
+  private void resetState(Connection physical) throws SQLException {
+    if (!physical.getAutoCommit()) {
+      physical.rollback();
+      physical.setAutoCommit(true);
+    }
+
+    physical.clearWarnings();
+  }
+
+  private void destroy(PooledConnection pooled) {
+    totalConnections.decrementAndGet();
+
+    try {
+      pooled.physical.close();
+    } catch (SQLException e) {
+      // Already broken; nothing else to release
+    }
+  }
+
+  private void recordWait(long waitNanos) {
+    borrowCount.increment();
+    waitNanosTotal.add(waitNanos);
+    maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    DaoMetrics.recordConnectionAcquire(waitNanos);
+  }
+
+  private void housekeep() {
+    try {
+      evictIdle();
+      fillToMinimum();
+      detectLeaks();
+    } catch (RuntimeException e) {
+      System.err.println("Connection pool housekeeping failed: " + e);
+    }
+  }
+
+  private void evictIdle() {
+    long now = System.nanoTime();
+    Iterator<PooledConnection> iter = idle.descendingIterator();
+
+    while (iter.hasNext() && totalConnections.get() > config.getMinSize()) {
+      PooledConnection pooled = iter.next();
+      long idleMillis = TimeUnit.NANOSECONDS.toMillis(now - pooled.lastUsedNanos);
+
+      if (idleMillis >= config.getIdleTimeoutMillis() && idle.remove(pooled)) {
+        evictedCount.increment();
+        destroy(pooled);
+      }
+    }
+  }
+
+  // New idle connections are opened under a permit so the pool never exceeds maxSize
+  private void fillToMinimum() {
+    while (!closed && totalConnections.get() < config.getMinSize() && permits.tryAcquire()) {
+      try {
+        PooledConnection pooled = openConnection();
+        pooled.lastUsedNanos = System.nanoTime();
+        idle.offerLast(pooled);
+      } catch (SQLException e) {
+        throw new DbException("Unable to open pooled connection", e);
+      } finally {
+        permits.release();
+      }
+    }
+  }
+
+  private void detectLeaks() {
+    long threshold = config.getLeakDetectionMillis();
+
+    if (threshold <= 0) {
+      return;
+    }
+
+    long now = System.nanoTime();
+
+    for (PooledConnection pooled : borrowed) {
+      long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - pooled.borrowedNanos);
+
+      if (heldMillis >= threshold && !pooled.leakReported) {
+        pooled.leakReported = true;
+        leakCount.increment();
+
+        System.err.println("Possible connection leak: connection held for " + heldMillis
+            + "ms. Borrowed at:");
+
+        if (pooled.borrowSite != null) {
+          pooled.borrowSite.printStackTrace();
+        }
+      }
+    }
+  }
+
+  // Pairs a physical connection with the proxy callers see
+  private class PooledConnection implements InvocationHandler {
+    private final Connection physical;
+    private final Connection proxy;
+    private final StatementCache statements;
+    private volatile long lastUsedNanos;
+    private volatile long borrowedNanos;
+    private volatile Throwable borrowSite;
+    private volatile boolean leakReported;
+    private volatile boolean logicallyClosed = true;
+    private volatile Runnable onRelease;
+    private long transactionStartNanos;
+
+    PooledConnection(Connection physical) {
+      this.physical = physical;
+      this.proxy = (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(),
+          new Class<?>[] {Connection.class}, this);
+      this.statements = config.getStatementCacheSize() == 0 ? null
+          : new StatementCache(physical, proxy, config.getStatementCacheSize(), statementHits,
+              statementMisses, statementEvictions);
+    }
+
+    void markBorrowed(boolean captureSite, Runnable onRelease) {
+      borrowedNanos = System.nanoTime();
+      borrowSite = captureSite ? new Throwable("Connection borrowed here") : null;
+      leakReported = false;
+      logicallyClosed = false;
+      transactionStartNanos = 0;
+      this.onRelease = onRelease;
+    }
+
+    // Times transactions from setAutoCommit(false) to commit or rollback
+    private void trackTransaction(String methodName, Object[] args) {
+      boolean noArgs = args == null || args.length == 0;
+
+      if (methodName.equals("setAutoCommit")) {
+        transactionStartNanos = Boolean.FALSE.equals(args[0]) ? System.nanoTime() : 0;
+      } else if (noArgs && transactionStartNanos != 0
+          && (methodName.equals("commit") || methodName.equals("rollback"))) {
+        long now = System.nanoTime();
+        DaoMetrics.recordTransaction(now - transactionStartNanos);
+        transactionStartNanos = now;
+      }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!logicallyClosed) {
+            logicallyClosed = true;
+            Runnable released = onRelease;
+            onRelease = null;
+
+            try {
+              if (statements != null) {
+                statements.closeInUse();
+              }
+
+              release(this);
+            } finally {
+              if (released != null) {
+                released.run();
+              }
+            }
+          }
+          return null;
+
+        case "isClosed":
+          return logicallyClosed || physical.isClosed();
+
+        case "equals":
+          return proxy == args[0];
+
+        case "hashCode":
+          return System.identityHashCode(proxy);
+
+        case "toString":
+          return "Pooled" + physical;
+
+        default:
+          break;
+      }
+
+      if (logicallyClosed) {
+        throw new SQLException("Connection has been returned to the pool");
+      }
+
+      if (statements != null && method.getName().equals("prepareStatement")
+          && StatementCache.isCacheable(args)) {
+        return statements.prepare(method, args);
+      }
+
+      try {
+        Object result = method.invoke(physical, args);
+        trackTransaction(method.getName(), args);
+        return result;
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
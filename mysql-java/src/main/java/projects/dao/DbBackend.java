@@ -0,0 +1,60 @@
+package projects.dao;
+
+// These are the databases the DAOs can run against. The SQL is written for MySQL; the embedded
+// backend is H2 in MySQL compatibility mode, which covers it apart from the features flagged here
+public enum DbBackend {
+  MYSQL(Integer.MIN_VALUE, true, true),
+  H2(1000, false, false);
+
+  private final int streamingFetchSize;
+  private final boolean fullTextSearch;
+  private final boolean openTransactionTimes;
+
+  DbBackend(int streamingFetchSize, boolean fullTextSearch, boolean openTransactionTimes) {
+    this.streamingFetchSize = streamingFetchSize;
+    this.fullTextSearch = fullTextSearch;
+    this.openTransactionTimes = openTransactionTimes;
+  }
+
+  /**
+   * Gets the fetch size that keeps a large result from being buffered in memory all at once.
+   * Connector/J streams one row at a time when the fetch size is Integer.MIN_VALUE; H2 rejects
+   * negative sizes and buffers results itself, spilling big ones to disk
+   * @return Fetch size for streaming queries
+   */
+  public int getStreamingFetchSize() {
+    return streamingFetchSize;
+  }
+
+  /**
+   * Checks for FULLTEXT indexes and MATCH ... AGAINST
+   * @return True if full-text search is available
+   */
+  public boolean supportsFullTextSearch() {
+    return fullTextSearch;
+  }
+
+  /**
+   * Checks for information_schema.INNODB_TRX, which tells when each open transaction started
+   * @return True if open transactions' start times can be read
+   */
+  public boolean reportsOpenTransactionTimes() {
+    return openTransactionTimes;
+  }
+
+  /**
+   * Picks a backend by name, ignoring case
+   * @param name "mysql" or "h2"
+   * @return Matching backend
+   * @throws IllegalArgumentException If the name isn't recognised
+   */
+  public static DbBackend fromName(String name) {
+    for (DbBackend backend : values()) {
+      if (backend.name().equalsIgnoreCase(name.strip())) {
+        return backend;
+      }
+    }
+
+    throw new IllegalArgumentException("Unknown database backend '" + name + "'; use mysql or h2");
+  }
+}
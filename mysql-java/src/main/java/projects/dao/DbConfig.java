@@ -0,0 +1,242 @@
+package projects.dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import projects.exception.DbException;
+
+// This holds the database connection settings. Each "projects.db.*" setting is read from a system
+// property first, then from a projects.properties file: the one named by the "projects.config"
+// property, else one in the working directory, else one on the classpath
+public class DbConfig {
+  private static final String CONFIG_FILE = "projects.properties";
+
+  private DbBackend backend = DbBackend.MYSQL;
+  private String host = "localhost";
+  private int port = 3306;
+  private String schema = "projects";
+  private String user = "projects";
+  private String password = "projects";
+  private boolean serverPrepStmts = true;
+  private String h2Path;
+  private String url;
+  private final List<String> replicas = new ArrayList<>();
+  private ReplicaBalancing replicaBalancing = ReplicaBalancing.ROUND_ROBIN;
+  private long replicaMaxLagSeconds = 5;
+  private long replicaCheckMillis = 1_000;
+  private boolean readYourWrites = true;
+
+  /**
+   * Builds a config from system properties and the config file, falling back to defaults
+   * @return Database config
+   * @throws DbException If the config file can't be read
+   */
+  public static DbConfig load() {
+    Properties file = readConfigFile();
+    DbConfig config = new DbConfig();
+
+    config.backend = DbBackend.fromName(setting(file, "projects.db.backend", config.backend.name()));
+    config.host = setting(file, "projects.db.host", config.host);
+    config.port = Integer.parseInt(setting(file, "projects.db.port", String.valueOf(config.port)));
+    config.schema = setting(file, "projects.db.schema", config.schema);
+    config.user = setting(file, "projects.db.user", config.user);
+    config.password = setting(file, "projects.db.password", config.password);
+    config.serverPrepStmts = Boolean.parseBoolean(
+        setting(file, "projects.db.serverPrepStmts", String.valueOf(config.serverPrepStmts)));
+    config.h2Path = setting(file, "projects.db.h2.path", null);
+    config.url = setting(file, "projects.db.url", null);
+
+    for (String replica : setting(file, "projects.db.replicas", "").split(",")) {
+      if (!replica.isBlank()) {
+        config.replicas.add(replica.strip());
+      }
+    }
+
+    config.replicaBalancing = ReplicaBalancing.fromName(setting(file,
+        "projects.db.replicaBalancing", config.replicaBalancing.name()));
+    config.replicaMaxLagSeconds = Long.parseLong(setting(file, "projects.db.replicaMaxLagSeconds",
+        String.valueOf(config.replicaMaxLagSeconds)));
+    config.replicaCheckMillis = Long.parseLong(setting(file, "projects.db.replicaCheckMillis",
+        String.valueOf(config.replicaCheckMillis)));
+    config.readYourWrites = Boolean.parseBoolean(
+        setting(file, "projects.db.readYourWrites", String.valueOf(config.readYourWrites)));
+
+    return config;
+  }
+
+  /**
+   * Gets the database the DAOs run against
+   * @return Backend
+   */
+  public DbBackend getBackend() {
+    return backend;
+  }
+
+  /**
+   * Gets the schema name; for H2 this names the in-memory database
+   * @return Schema
+   */
+  public String getSchema() {
+    return schema;
+  }
+
+  /**
+   * Builds the JDBC URL, unless "projects.db.url" overrides it. H2 runs in memory unless
+   * "projects.db.h2.path" names a database file
+   * @return JDBC URL
+   */
+  public String getJdbcUrl() {
+    if (url != null) {
+      return url;
+    }
+
+    if (backend == DbBackend.H2) {
+      String location = h2Path == null ? "mem:" + schema + ";DB_CLOSE_DELAY=-1" : "file:" + h2Path;
+      return "jdbc:h2:" + location + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+    }
+
+    return mysqlUrl(host, port);
+  }
+
+  /**
+   * Builds a JDBC URL for each read replica in "projects.db.replicas". Each entry is either a
+   * full JDBC URL or a MySQL "host:port" that shares the primary's schema, user and password
+   * @return Replica JDBC URLs; empty when every read goes to the primary
+   */
+  public List<String> getReplicaJdbcUrls() {
+    List<String> urls = new ArrayList<>(replicas.size());
+
+    for (String replica : replicas) {
+      if (replica.startsWith("jdbc:")) {
+        urls.add(replica);
+        continue;
+      }
+
+      int colon = replica.lastIndexOf(':');
+
+      try {
+        urls.add(colon < 0 ? mysqlUrl(replica, port) : mysqlUrl(replica.substring(0, colon),
+            Integer.parseInt(replica.substring(colon + 1))));
+      } catch (NumberFormatException e) {
+        throw new DbException("Replica '" + replica + "' should be host:port or a JDBC URL");
+      }
+    }
+
+    return urls;
+  }
+
+  /**
+   * Checks whether any read replicas are configured
+   * @return True if "projects.db.replicas" names at least one
+   */
+  public boolean hasReplicas() {
+    return !replicas.isEmpty();
+  }
+
+  /**
+   * Describes each read replica, without passwords
+   * @return Replica locations, in the same order as getReplicaJdbcUrls()
+   */
+  public List<String> getReplicaNames() {
+    return replicas.stream().map(DbConfig::maskPassword).toList();
+  }
+
+  /**
+   * Gets how reads are spread over the replicas
+   * @return Balancing mode
+   */
+  public ReplicaBalancing getReplicaBalancing() {
+    return replicaBalancing;
+  }
+
+  /**
+   * Gets the most a replica may be behind the primary and still get reads
+   * @return Lag limit in seconds
+   */
+  public long getReplicaMaxLagSeconds() {
+    return replicaMaxLagSeconds;
+  }
+
+  /**
+   * Gets the time between replica health and lag checks
+   * @return Check interval in milliseconds
+   */
+  public long getReplicaCheckMillis() {
+    return replicaCheckMillis;
+  }
+
+  /**
+   * Checks whether a thread that has used the primary keeps reading from it until the replicas
+   * have had time to catch up with its writes
+   * @return True for read-your-writes
+   */
+  public boolean isReadYourWrites() {
+    return readYourWrites;
+  }
+
+  /**
+   * Describes where the config points, without the password
+   * @return Backend and location
+   */
+  @Override
+  public String toString() {
+    if (url != null) {
+      return backend.name().toLowerCase(Locale.ROOT) + " at " + maskPassword(url);
+    }
+
+    if (backend == DbBackend.H2) {
+      return "embedded h2 " + (h2Path == null ? "in-memory database '" + schema + "'" : "database " + h2Path);
+    }
+
+    return "mysql schema '" + schema + "' at " + host + ":" + port;
+  }
+
+  // rewriteBatchedStatements lets the driver send a batch of inserts as multi-row statements.
+  // useServerPrepStmts has the server parse each statement once; the pool's statement cache
+  // keeps them open, so the driver's own cache (cachePrepStmts) stays off
+  private String mysqlUrl(String mysqlHost, int mysqlPort) {
+    return String.format(
+        "jdbc:mysql://%s:%d/%s?user=%s&password=%s&rewriteBatchedStatements=true"
+            + "&useServerPrepStmts=%b", mysqlHost, mysqlPort, schema, user, password,
+        serverPrepStmts);
+  }
+
+  private static String maskPassword(String jdbcUrl) {
+    return jdbcUrl.replaceAll("(?i)password=[^&;]*", "password=***");
+  }
+
+  private static String setting(Properties file, String key, String defaultValue) {
+    return System.getProperty(key, file.getProperty(key, defaultValue));
+  }
+
+  private static Properties readConfigFile() {
+    Properties properties = new Properties();
+    String configured = System.getProperty("projects.config");
+    Path path = Path.of(configured == null ? CONFIG_FILE : configured);
+
+    try {
+      if (Files.exists(path)) {
+        try (InputStream in = Files.newInputStream(path)) {
+          properties.load(in);
+        }
+      } else if (configured != null) {
+        throw new DbException("Config file " + path + " does not exist");
+      } else {
+        try (InputStream in = DbConfig.class.getResourceAsStream("/" + CONFIG_FILE)) {
+          if (in != null) {
+            properties.load(in);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new DbException("Unable to read config file " + path, e);
+    }
+
+    return properties;
+  }
+}
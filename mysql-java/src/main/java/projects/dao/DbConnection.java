@@ -1,29 +1,192 @@
 package projects.dao;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Optional;
 import projects.exception.DbException;
 
 public class DbConnection {
-  private static String HOST = "localhost";
-  private static String PASSWORD = "projects";
-  private static int PORT = 3306;
-  private static String SCHEMA = "projects";
-  private static String USER = "projects";
+  private static final DbConfig CONFIG = DbConfig.load();
 
-  // This is a database connection utility
+  private static volatile ConnectionPool pool;
+  private static volatile ReplicaRouter router;
+
+  // This is a database connection utility. Connections come from a shared pool, and closing
+  // one hands it back to the pool instead of ending the session. With a ReadSession bound, the
+  // connection counts as a write in that session until it is closed
   public static Connection getConnection() {
-    String uri = String.format("jdbc:mysql://%s:%d/%s?user=%s&password=%s", HOST, PORT, SCHEMA,
-        USER, PASSWORD);
+    ReadSession session = currentSession();
+
+    if (session == null) {
+      return getPool().getConnection();
+    }
+
+    session.writeStarted();
 
     try {
-      Connection conn = DriverManager.getConnection(uri);
-      System.out.println("Connection to schema '" + SCHEMA + "' is successful.");
-      return conn;
-    } catch (SQLException e) {
-      System.out.println("Unable to get connection at " + uri);
-      throw new DbException("Unable to get connection at \" + uri");
+      return getPool().getConnection(session::writeFinished);
+    } catch (RuntimeException e) {
+      session.writeFinished();
+      throw e;
+    }
+  }
+
+  /**
+   * Borrows a primary connection for reads that must see the latest commit. Unlike
+   * getConnection(), it doesn't count as a write in the bound ReadSession
+   * @return Pooled connection; closing it returns it to the pool
+   */
+  public static Connection getPrimaryReadConnection() {
+    return getPool().getConnection();
+  }
+
+  /**
+   * Borrows a connection for read-only queries. With "projects.db.replicas" set, it comes from
+   * a replica that is up and within the lag limit, falling back to the primary when there is
+   * none. With read-your-writes on and a ReadSession bound, reads stay on the primary while a
+   * write in that session is running, and after that only go to replicas that have had time to
+   * catch up with it. Without replicas this is the same as getConnection()
+   * @return Pooled connection; closing it returns it to its pool
+   */
+  public static Connection getReadConnection() {
+    ReplicaRouter current = getRouter();
+
+    if (current == null) {
+      return getPool().getConnection();
+    }
+
+    ReadSession session = currentSession();
+    long maxStalenessNanos = session == null ? Long.MAX_VALUE : session.maxStalenessNanos();
+    Connection conn = current.getConnection(maxStalenessNanos);
+    return conn != null ? conn : getPool().getConnection();
+  }
+
+  /**
+   * Gets the database selected by "projects.db.backend"
+   * @return Backend
+   */
+  public static DbBackend getBackend() {
+    return CONFIG.getBackend();
+  }
+
+  /**
+   * Gets the fetch size that makes the driver stream rows instead of buffering the whole result
+   * @return Fetch size for streaming queries on the configured backend
+   */
+  public static int getStreamingFetchSize() {
+    return CONFIG.getBackend().getStreamingFetchSize();
+  }
+
+  /**
+   * Gets pool statistics, including connection wait times
+   * @return Pool statistics
+   */
+  public static PoolStats getPoolStats() {
+    return getPool().getStats();
+  }
+
+  /**
+   * Gets where reads went and the state of each read replica
+   * @return Routing statistics, or empty if no replicas are configured
+   */
+  public static Optional<ReadRoutingStats> getReadRoutingStats() {
+    ReplicaRouter current = getRouter();
+    return current == null ? Optional.empty() : Optional.of(current.getStats());
+  }
+
+  /**
+   * Gets the pool settings, without opening the pool if it hasn't started yet
+   * @return Pool config
+   */
+  public static PoolConfig getPoolConfig() {
+    ConnectionPool current = pool;
+    return current == null ? PoolConfig.fromSystemProperties() : current.getConfig();
+  }
+
+  /**
+   * Closes the shared pool; the next getConnection() starts a new one
+   */
+  public static synchronized void shutdown() {
+    if (router != null) {
+      router.close();
+      router = null;
+    }
+
+    if (pool != null) {
+      pool.close();
+      pool = null;
     }
   }
+
+  private static ConnectionPool getPool() {
+    ConnectionPool current = pool;
+
+    if (current == null) {
+      synchronized (DbConnection.class) {
+        current = pool;
+
+        if (current == null) {
+          current = createPool();
+          pool = current;
+        }
+      }
+    }
+
+    return current;
+  }
+
+  // The primary is opened first so an embedded database has its tables before anything reads
+  private static ReplicaRouter getRouter() {
+    if (!CONFIG.hasReplicas()) {
+      return null;
+    }
+
+    ReplicaRouter current = router;
+
+    if (current == null) {
+      getPool();
+
+      synchronized (DbConnection.class) {
+        current = router;
+
+        if (current == null) {
+          current = new ReplicaRouter(CONFIG.getReplicaJdbcUrls(), CONFIG.getReplicaNames(),
+              CONFIG.getBackend(), CONFIG.getReplicaBalancing(), CONFIG.getReplicaMaxLagSeconds(),
+              CONFIG.getReplicaCheckMillis());
+          router = current;
+        }
+      }
+    }
+
+    return current;
+  }
+
+  // Sessions only matter when reads can go somewhere other than where the writes went
+  private static ReadSession currentSession() {
+    return CONFIG.isReadYourWrites() && CONFIG.hasReplicas() ? ReadSession.current() : null;
+  }
+
+  private static ConnectionPool createPool() {
+    ConnectionPool newPool;
+
+    try {
+      newPool = new ConnectionPool(CONFIG.getJdbcUrl(), PoolConfig.fromSystemProperties());
+    } catch (DbException e) {
+      throw new DbException("Unable to get connection to " + CONFIG, e);
+    }
+
+    if (CONFIG.getBackend() == DbBackend.H2) {
+      try (Connection conn = newPool.getConnection()) {
+        if (SchemaLoader.createIfMissing(conn)) {
+          System.out.println("Created tables from projects-schema.sql.");
+        }
+      } catch (SQLException | DbException e) {
+        newPool.close();
+        throw new DbException("Unable to set up " + CONFIG, e);
+      }
+    }
+
+    System.out.println("Connection pool to " + CONFIG + " is ready.");
+    return newPool;
+  }
 }
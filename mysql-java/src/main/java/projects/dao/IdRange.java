@@ -0,0 +1,32 @@
+package projects.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An inclusive range of project IDs
+ * @param first Lowest ID
+ * @param last Highest ID
+ */
+public record IdRange(int first, int last) {
+
+  /**
+   * Splits the range into contiguous pieces of about equal width
+   * @param parts Most pieces wanted
+   * @return Pieces in ID order, covering the whole range
+   */
+  public List<IdRange> split(int parts) {
+    long width = (long)last - first + 1;
+    long pieces = Math.max(1, Math.min(parts, width));
+    List<IdRange> ranges = new ArrayList<>((int)pieces);
+    long start = first;
+
+    for (long i = 0; i < pieces; i++) {
+      long end = first + width * (i + 1) / pieces - 1;
+      ranges.add(new IdRange((int)start, (int)end));
+      start = end + 1;
+    }
+
+    return ranges;
+  }
+}
@@ -0,0 +1,201 @@
+package projects.dao;
+
+// This holds the sizing and timeout settings for the connection pool
+public class PoolConfig {
+  private int minSize = 1;
+  private int maxSize = 10;
+  private long acquireTimeoutMillis = 30_000;
+  private long idleTimeoutMillis = 600_000;
+  private long validateAfterIdleMillis = 500;
+  private int validationTimeoutSeconds = 2;
+  private long leakDetectionMillis = 60_000;
+  private long housekeepingMillis = 5_000;
+  private int statementCacheSize = 64;
+
+  /**
+   * Builds a config from "projects.pool.*" system properties, falling back to defaults
+   * @return Pool config
+   */
+  public static PoolConfig fromSystemProperties() {
+    PoolConfig config = new PoolConfig();
+
+    config.setMinSize(Integer.getInteger("projects.pool.minSize", config.minSize));
+    config.setMaxSize(Integer.getInteger("projects.pool.maxSize", config.maxSize));
+    config.setAcquireTimeoutMillis(
+        Long.getLong("projects.pool.acquireTimeoutMillis", config.acquireTimeoutMillis));
+    config.setIdleTimeoutMillis(
+        Long.getLong("projects.pool.idleTimeoutMillis", config.idleTimeoutMillis));
+    config.setValidateAfterIdleMillis(
+        Long.getLong("projects.pool.validateAfterIdleMillis", config.validateAfterIdleMillis));
+    config.setValidationTimeoutSeconds(
+        Integer.getInteger("projects.pool.validationTimeoutSeconds", config.validationTimeoutSeconds));
+    config.setLeakDetectionMillis(
+        Long.getLong("projects.pool.leakDetectionMillis", config.leakDetectionMillis));
+    config.setStatementCacheSize(
+        Integer.getInteger("projects.pool.statementCacheSize", config.statementCacheSize));
+
+    return config;
+  }
+
+  /**
+   * Checks that the settings make sense together
+   * @throws IllegalArgumentException If a setting is out of range
+   */
+  public void validate() {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Pool maxSize must be at least 1");
+    }
+
+    if (minSize < 0 || minSize > maxSize) {
+      throw new IllegalArgumentException("Pool minSize must be between 0 and maxSize");
+    }
+
+    if (statementCacheSize < 0) {
+      throw new IllegalArgumentException("Pool statementCacheSize must not be negative");
+    }
+  }
+
+  /**
+   * Gets the number of connections kept open when idle
+   * @return Minimum pool size
+   */
+  public int getMinSize() {
+    return minSize;
+  }
+
+  /**
+   * Sets the number of connections kept open when idle
+   * @param minSize Minimum pool size
+   */
+  public void setMinSize(int minSize) {
+    this.minSize = minSize;
+  }
+
+  /**
+   * Gets the most connections the pool will open
+   * @return Maximum pool size
+   */
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Sets the most connections the pool will open
+   * @param maxSize Maximum pool size
+   */
+  public void setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Gets how long a caller waits for a free connection
+   * @return Acquire timeout in milliseconds
+   */
+  public long getAcquireTimeoutMillis() {
+    return acquireTimeoutMillis;
+  }
+
+  /**
+   * Sets how long a caller waits for a free connection
+   * @param acquireTimeoutMillis Acquire timeout in milliseconds
+   */
+  public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+  }
+
+  /**
+   * Gets how long an idle connection above minSize is kept
+   * @return Idle timeout in milliseconds
+   */
+  public long getIdleTimeoutMillis() {
+    return idleTimeoutMillis;
+  }
+
+  /**
+   * Sets how long an idle connection above minSize is kept
+   * @param idleTimeoutMillis Idle timeout in milliseconds
+   */
+  public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  /**
+   * Gets how long a connection may sit idle before it is validated on borrow
+   * @return Idle time in milliseconds
+   */
+  public long getValidateAfterIdleMillis() {
+    return validateAfterIdleMillis;
+  }
+
+  /**
+   * Sets how long a connection may sit idle before it is validated on borrow (0 = always)
+   * @param validateAfterIdleMillis Idle time in milliseconds
+   */
+  public void setValidateAfterIdleMillis(long validateAfterIdleMillis) {
+    this.validateAfterIdleMillis = validateAfterIdleMillis;
+  }
+
+  /**
+   * Gets the timeout passed to Connection.isValid
+   * @return Validation timeout in seconds
+   */
+  public int getValidationTimeoutSeconds() {
+    return validationTimeoutSeconds;
+  }
+
+  /**
+   * Sets the timeout passed to Connection.isValid
+   * @param validationTimeoutSeconds Validation timeout in seconds
+   */
+  public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+    this.validationTimeoutSeconds = validationTimeoutSeconds;
+  }
+
+  /**
+   * Gets how long a connection may be borrowed before it is reported as a leak
+   * @return Leak threshold in milliseconds, 0 when disabled
+   */
+  public long getLeakDetectionMillis() {
+    return leakDetectionMillis;
+  }
+
+  /**
+   * Sets how long a connection may be borrowed before it is reported as a leak
+   * @param leakDetectionMillis Leak threshold in milliseconds, 0 to disable
+   */
+  public void setLeakDetectionMillis(long leakDetectionMillis) {
+    this.leakDetectionMillis = leakDetectionMillis;
+  }
+
+  /**
+   * Gets how often idle eviction and leak checks run
+   * @return Housekeeping period in milliseconds
+   */
+  public long getHousekeepingMillis() {
+    return housekeepingMillis;
+  }
+
+  /**
+   * Sets how often idle eviction and leak checks run
+   * @param housekeepingMillis Housekeeping period in milliseconds
+   */
+  public void setHousekeepingMillis(long housekeepingMillis) {
+    this.housekeepingMillis = housekeepingMillis;
+  }
+
+  /**
+   * Gets how many idle prepared statements each connection keeps open
+   * @return Statements per connection, 0 when caching is off
+   */
+  public int getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  /**
+   * Sets how many idle prepared statements each connection keeps open
+   * @param statementCacheSize Statements per connection, 0 to turn caching off
+   */
+  public void setStatementCacheSize(int statementCacheSize) {
+    this.statementCacheSize = statementCacheSize;
+  }
+}
@@ -0,0 +1,55 @@
+package projects.dao;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-time view of the connection pool, used to size it
+ * @param total Open physical connections
+ * @param idle Connections waiting in the pool
+ * @param inUse Connections currently borrowed
+ * @param waitingThreads Callers queued for a connection
+ * @param borrows Successful borrows so far
+ * @param timeouts Borrows that gave up waiting
+ * @param avgWaitNanos Average time spent waiting to borrow
+ * @param maxWaitNanos Longest time spent waiting to borrow
+ * @param created Physical connections opened
+ * @param evicted Idle connections closed by eviction
+ * @param validationFailures Idle connections that failed validation on borrow
+ * @param leaks Borrowed connections reported as possible leaks
+ * @param statementHits Prepared statements reused from a connection's cache
+ * @param statementMisses Prepared statements prepared anew
+ * @param statementEvictions Cached statements closed to stay within the cache size
+ */
+public record PoolStats(int total, int idle, int inUse, int waitingThreads, long borrows,
+    long timeouts, long avgWaitNanos, long maxWaitNanos, long created, long evicted,
+    long validationFailures, long leaks, long statementHits, long statementMisses,
+    long statementEvictions) {
+
+  /**
+   * Works out how often a prepared statement came from the cache
+   * @return Hits as a fraction of all cacheable prepares, or 0 if there were none
+   */
+  public double statementHitRate() {
+    long lookups = statementHits + statementMisses;
+    return lookups == 0 ? 0 : (double)statementHits / lookups;
+  }
+
+  /**
+   * Builds a one-line summary of the pool
+   * @return Formatted statistics
+   */
+  @Override
+  public String toString() {
+    return String.format(
+        "total=%d idle=%d inUse=%d waiting=%d borrows=%d timeouts=%d avgWait=%.3fms "
+            + "maxWait=%.3fms created=%d evicted=%d validationFailures=%d leaks=%d "
+            + "statementHits=%d statementMisses=%d statementEvictions=%d statementHitRate=%.1f%%",
+        total, idle, inUse, waitingThreads, borrows, timeouts, toMillis(avgWaitNanos),
+        toMillis(maxWaitNanos), created, evicted, validationFailures, leaks, statementHits,
+        statementMisses, statementEvictions, statementHitRate() * 100);
+  }
+
+  private static double toMillis(long nanos) {
+    return nanos / (double)TimeUnit.MILLISECONDS.toNanos(1);
+  }
+}
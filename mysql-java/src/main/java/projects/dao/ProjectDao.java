@@ -5,17 +5,212 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import projects.entity.Project;
+import projects.entity.ProjectChange;
+import projects.entity.ProjectSearchHit;
+import projects.entity.ProjectSummary;
 import projects.exception.DbException;
+import projects.metrics.DaoMetrics;
+import projects.metrics.OperationTimer;
+import projects.report.DifficultySummary;
+import projects.report.EstimateReport;
+import projects.report.OverrunBucket;
 import provided.util.DaoBase;
+import provided.util.RowMapper;
 
 // This handles project CRUD operations with JDBC
 
 public class ProjectDao extends DaoBase {
   private static final String PROJECT_TABLE = "project";
+  private static final String TOMBSTONE_TABLE = "project_tombstone";
+  private static final int DEFAULT_INSERT_CHUNK_SIZE = 1000;
+  private static final int DELETE_CHUNK_SIZE = 500;
+
+  // A change is stamped when its statement runs but only becomes visible when its transaction
+  // commits, so the feed stops short of the oldest transaction still writing, and of anything
+  // newer than this; a feed reader that had already moved past them would otherwise never see
+  // them. The margin also covers the gap between a statement's time and its transaction's start
+  private static final long CHANGE_SETTLE_MILLIS =
+      Long.getLong("projects.changes.settleMillis", 1000);
+
+  // Cleared if the feed's user can't read INNODB_TRX, which needs the PROCESS privilege
+  private volatile boolean openWritesVisible = true;
+
+  // Set once the driver has answered an update batch with SUCCESS_NO_INFO, which says the batch
+  // ran but not which rows matched their version. Group updates are run one at a time from then
+  // on, since a single statement always reports its count
+  private volatile boolean batchUpdateCountsMissing;
+
+  // Upper bounds of the overrun ratio buckets; the last bucket has no upper bound
+  private static final BigDecimal[] OVERRUN_BUCKET_BOUNDS = {
+      new BigDecimal("0.50"), new BigDecimal("0.80"), new BigDecimal("0.95"),
+      new BigDecimal("1.05"), new BigDecimal("1.25"), new BigDecimal("1.50"),
+      new BigDecimal("2.00"), new BigDecimal("3.00")};
+
+  // Columns are listed rather than selected with *, so a list view can leave out notes and a
+  // column added later isn't read by queries that don't use it
+  private static final String PROJECT_COLUMNS = "project_id, project_name, estimated_hours, "
+      + "actual_hours, difficulty, notes, version, created_at, updated_at";
+  private static final String SUMMARY_COLUMNS = "project_id, project_name, difficulty";
+  private static final String SNAPSHOT_COLUMNS = "project_id, project_name, estimated_hours, "
+      + "actual_hours, difficulty";
+
+  // @formatter:off
+  private static final String INSERT_SQL = ""
+      + "INSERT INTO " + PROJECT_TABLE + " "
+      + "(project_name, estimated_hours, actual_hours, difficulty, notes) "
+      + "VALUES "
+      + "(?, ?, ?, ?, ?)";
+
+  private static final String FETCH_ALL_SQL = ""
+      + "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE + " "
+      + "ORDER BY project_id";
+
+  private static final String FETCH_ALL_FOR_SNAPSHOT_SQL = ""
+      + "SELECT " + SNAPSHOT_COLUMNS + " FROM " + PROJECT_TABLE + " "
+      + "ORDER BY project_id";
+
+  private static final String FETCH_BY_ID_SQL = ""
+      + "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE + " "
+      + "WHERE project_id = ?";
+
+  private static final String FETCH_ID_RANGE_SQL = ""
+      + "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE + " "
+      + "WHERE project_id BETWEEN ? AND ? "
+      + "ORDER BY project_id";
+
+  private static final String ID_BOUNDS_SQL = ""
+      + "SELECT MIN(project_id), MAX(project_id) FROM " + PROJECT_TABLE;
+
+  private static final String PAGE_AFTER_SQL = ""
+      + "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE + " "
+      + "WHERE project_id > ? "
+      + "ORDER BY project_id LIMIT ?";
+
+  private static final String PAGE_BEFORE_SQL = ""
+      + "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE + " "
+      + "WHERE project_id < ? "
+      + "ORDER BY project_id DESC LIMIT ?";
+
+  private static final String SUMMARY_PAGE_AFTER_SQL = ""
+      + "SELECT " + SUMMARY_COLUMNS + " FROM " + PROJECT_TABLE + " "
+      + "WHERE project_id > ? "
+      + "ORDER BY project_id LIMIT ?";
+
+  private static final String SUMMARY_PAGE_BEFORE_SQL = ""
+      + "SELECT " + SUMMARY_COLUMNS + " FROM " + PROJECT_TABLE + " "
+      + "WHERE project_id < ? "
+      + "ORDER BY project_id DESC LIMIT ?";
+
+  private static final String UPDATE_SQL = ""
+      + "UPDATE " + PROJECT_TABLE + " SET "
+      + "project_name = ?, estimated_hours = ?, actual_hours = ?, difficulty = ?, notes = ?, "
+      + "version = version + 1 "
+      + "WHERE project_id = ? AND version = ?";
+
+  private static final String EXISTS_SQL = ""
+      + "SELECT 1 FROM " + PROJECT_TABLE + " "
+      + "WHERE project_id = ?";
+
+  private static final String DELETE_SQL = ""
+      + "DELETE FROM " + PROJECT_TABLE + " "
+      + "WHERE project_id = ?";
+
+  private static final String ANY_ROW_SQL = ""
+      + "SELECT 1 FROM " + PROJECT_TABLE + " LIMIT 1";
+
+  // Every chunk but the last is full size, so its statement is built once
+  private static final String DELETE_CHUNK_SQL = deleteInSql(DELETE_CHUNK_SIZE);
+
+  private static final String TOMBSTONE_SQL = tombstoneInSql(1);
+  private static final String TOMBSTONE_CHUNK_SQL = tombstoneInSql(DELETE_CHUNK_SIZE);
+
+  private static final String PURGE_TOMBSTONES_SQL = ""
+      + "DELETE FROM " + TOMBSTONE_TABLE + " "
+      + "WHERE deleted_at < ?";
+
+  private static final String DB_TIME_SQL = "SELECT CURRENT_TIMESTAMP(6)";
+
+  // Transactions that have changed or locked rows; trx_started is in the session time zone, like
+  // the change times, and whole seconds, rounded down
+  private static final String OLDEST_OPEN_WRITE_SQL = ""
+      + "SELECT MIN(trx_started) FROM information_schema.INNODB_TRX "
+      + "WHERE trx_rows_modified > 0 OR trx_rows_locked > 0";
+
+  // Keyset conditions on (time, project_id), written so the time column can range scan
+  private static final String CHANGED_SINCE_SQL = ""
+      + "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE + " "
+      + "WHERE updated_at >= ? AND (updated_at > ? OR project_id > ?) AND updated_at < ? "
+      + "ORDER BY updated_at, project_id LIMIT ?";
+
+  private static final String DELETED_SINCE_SQL = ""
+      + "SELECT project_id, deleted_at FROM " + TOMBSTONE_TABLE + " "
+      + "WHERE deleted_at >= ? AND (deleted_at > ? OR project_id > ?) AND deleted_at < ? "
+      + "ORDER BY deleted_at, project_id LIMIT ?";
+
+  private static final String RESET_AUTO_INCREMENT_SQL = ""
+      + "ALTER TABLE " + PROJECT_TABLE + " AUTO_INCREMENT = 1";
+
+  // A project is compared when it has a positive estimate and an actual value
+  private static final String COMPARED = "estimated_hours > 0 AND actual_hours IS NOT NULL";
+
+  private static final String DIFFICULTY_SUMMARY_SQL = ""
+      + "SELECT difficulty, "
+      + "COUNT(*) AS projects, "
+      + "COUNT(estimated_hours) AS estimated_count, "
+      + "SUM(estimated_hours) AS estimated_hours, "
+      + "COUNT(actual_hours) AS actual_count, "
+      + "SUM(actual_hours) AS actual_hours, "
+      + "COUNT(CASE WHEN " + COMPARED + " THEN 1 END) AS compared_count, "
+      + "SUM(CASE WHEN " + COMPARED + " THEN estimated_hours END) AS compared_estimated_hours, "
+      + "SUM(CASE WHEN " + COMPARED + " THEN actual_hours END) AS compared_actual_hours, "
+      + "SUM(CASE WHEN " + COMPARED + " THEN actual_hours / estimated_hours END) AS overrun_ratio_sum, "
+      + "COUNT(CASE WHEN " + COMPARED + " AND actual_hours > estimated_hours THEN 1 END) AS overrun_count "
+      + "FROM " + PROJECT_TABLE + " "
+      + "GROUP BY difficulty "
+      + "ORDER BY difficulty";
+
+  private static final Pattern H2_PLAN_ACCESS = Pattern.compile("/\\* (\\S+?)(?:: [^*]*)? \\*/");
+
+  // Only a window of the notes around the first search word leaves the server
+  private static final int SNIPPET_LENGTH = 160;
+  private static final String SEARCH_NATURAL_SQL = searchSql(
+      "MATCH (project_name, notes) AGAINST (? IN NATURAL LANGUAGE MODE)",
+      "MATCH (project_name, notes) AGAINST (? IN NATURAL LANGUAGE MODE)");
+  private static final String SEARCH_BOOLEAN_SQL = searchSql(
+      "MATCH (project_name, notes) AGAINST (? IN BOOLEAN MODE)",
+      "MATCH (project_name, notes) AGAINST (? IN BOOLEAN MODE)");
+
+  private static final String OVERRUN_BUCKETS_SQL = ""
+      + "SELECT difficulty, bucket, COUNT(*) AS projects "
+      + "FROM (SELECT difficulty, " + overrunBucketCase() + " AS bucket "
+      + "FROM " + PROJECT_TABLE + " "
+      + "WHERE " + COMPARED + ") buckets "
+      + "GROUP BY difficulty, bucket";
+  // @formatter:on
 
   /**
    * Inserts a new project
@@ -23,31 +218,626 @@ public class ProjectDao extends DaoBase {
    * @return Project with assigned ID
    */
   public Project insertProject(Project project) {
-    // @formatter:off
-    String sql = ""
-        + "INSERT INTO " + PROJECT_TABLE + " "
-        + "(project_name, estimated_hours, actual_hours, difficulty, notes) "
-        + "VALUES "
-        + "(?, ?, ?, ?, ?)";
-    // @formatter:on
+    try(OperationTimer timer = DaoMetrics.start("insertProject");
+        Connection conn = DbConnection.getConnection()) {
+      startTransaction(conn);
+
+      try(PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+        bindProject(stmt, project);
+        stmt.executeUpdate();
+
+        Integer projectId = getGeneratedKeys(stmt, 1).get(0);
+        commitTransaction(conn);
+
+        project.setProjectId(projectId);
+        project.setVersion(0);
+        timer.succeeded(1);
+        return project;
+      }
+      catch(Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    }
+    catch(SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  /**
+   * Inserts projects with JDBC batching, committing every DEFAULT_INSERT_CHUNK_SIZE rows
+   * @param projects Projects to save
+   * @return The same projects with assigned IDs
+   */
+  public List<Project> insertProjects(Collection<Project> projects) {
+    return insertProjects(projects, DEFAULT_INSERT_CHUNK_SIZE);
+  }
+
+  /**
+   * Inserts projects with JDBC batching. Each chunk is its own transaction, so if a chunk fails
+   * it is rolled back and the chunks before it stay committed
+   * @param projects Projects to save
+   * @param chunkSize Rows per batch and commit
+   * @return The same projects with assigned IDs
+   */
+  public List<Project> insertProjects(Collection<Project> projects, int chunkSize) {
+    if(chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be at least 1");
+    }
+
+    List<Project> saved = new ArrayList<>(projects);
+
+    try(OperationTimer timer = DaoMetrics.start("insertProjects");
+        Connection conn = DbConnection.getConnection()) {
+      startTransaction(conn);
+
+      try(PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+        for(int from = 0; from < saved.size(); from += chunkSize) {
+          List<Project> chunk = saved.subList(from, Math.min(from + chunkSize, saved.size()));
+
+          for(Project project : chunk) {
+            bindProject(stmt, project);
+            stmt.addBatch();
+          }
+
+          stmt.executeBatch();
+          List<Integer> projectIds = getGeneratedKeys(stmt, chunk.size());
+          commitTransaction(conn);
+
+          for(int i = 0; i < chunk.size(); i++) {
+            chunk.get(i).setProjectId(projectIds.get(i));
+            chunk.get(i).setVersion(0);
+          }
+        }
+
+        timer.succeeded(saved.size());
+        return saved;
+      }
+      catch(Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    }
+    catch(SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  private void bindProject(PreparedStatement stmt, Project project) throws SQLException {
+    setParameter(stmt, 1, project.getProjectName(), String.class);
+    setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
+    setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+    setParameter(stmt, 4, project.getDifficulty(), Integer.class);
+    setParameter(stmt, 5, project.getNotes(), String.class);
+  }
+
+  /**
+   * Fetches all projects, sorted by ID
+   * @return List of projects
+   */
+  public List<Project> fetchAllProjects() {
+    try(OperationTimer timer = DaoMetrics.start("fetchAllProjects");
+        Connection conn = DbConnection.getReadConnection()) {
+      startTransaction(conn);
+
+      try(PreparedStatement stmt = conn.prepareStatement(FETCH_ALL_SQL)) {
+        List<Project> projects = new LinkedList<>();
+
+        try(ResultSet rs = stmt.executeQuery()) {
+          RowMapper<Project> mapper = rowMapper(rs, Project.class);
+
+          while(rs.next()) {
+            projects.add(mapper.map(rs));
+          }
+        }
+
+        commitTransaction(conn);
+
+        timer.succeeded(projects.size());
+        return projects;
+      }
+      catch(Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    }
+    catch(SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  /**
+   * Streams all projects, sorted by ID, without holding them all in memory. The driver is asked
+   * to stream rows, and the connection stays open until the stream is closed
+   * @return Lazily populated stream of projects; close it with try-with-resources
+   */
+  public Stream<Project> streamAllProjects() {
+    return streamProjects("streamAllProjects", FETCH_ALL_SQL);
+  }
+
+  /**
+   * Streams every project's ID, name, difficulty and hours, sorted by ID. Notes, version and
+   * times are left unread, which is most of a row, since a ProjectSnapshot doesn't keep them
+   * @return Lazily populated stream of partly filled projects; close it with try-with-resources
+   */
+  public Stream<Project> streamProjectsForSnapshot() {
+    return streamProjects("streamProjectsForSnapshot", FETCH_ALL_FOR_SNAPSHOT_SQL);
+  }
+
+  /**
+   * Streams the projects in an ID range, sorted by ID. Ranges can be read in parallel on
+   * separate connections
+   * @param range IDs to read, inclusive
+   * @return Lazily populated stream of projects; close it with try-with-resources
+   */
+  public Stream<Project> streamProjectsInRange(IdRange range) {
+    return streamProjects("streamProjectsInRange", FETCH_ID_RANGE_SQL, range.first(), range.last());
+  }
+
+  /**
+   * Finds the lowest and highest project IDs from the primary key index
+   * @return ID range, or empty if there are no projects
+   */
+  public Optional<IdRange> fetchProjectIdRange() {
+    try(OperationTimer timer = DaoMetrics.start("fetchProjectIdRange");
+        Connection conn = DbConnection.getReadConnection();
+        PreparedStatement stmt = conn.prepareStatement(ID_BOUNDS_SQL);
+        ResultSet rs = stmt.executeQuery()) {
+      IdRange range = null;
+
+      if(rs.next()) {
+        int first = rs.getInt(1);
+
+        if(!rs.wasNull()) {
+          range = new IdRange(first, rs.getInt(2));
+        }
+      }
+
+      timer.succeeded(1);
+      return Optional.ofNullable(range);
+    }
+    catch(SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  private Stream<Project> streamProjects(String operation, String sql, Integer... params) {
+    OperationTimer timer = DaoMetrics.start(operation);
+    boolean streaming = false;
+
+    try {
+      Connection conn = DbConnection.getReadConnection();
+
+      try {
+        startTransaction(conn);
+
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+            ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(DbConnection.getStreamingFetchSize());
+
+        for(int i = 0; i < params.length; i++) {
+          setParameter(stmt, i + 1, params[i], Integer.class);
+        }
+
+        // The call is timed from open to close, so it includes the caller's per-row work
+        AtomicLong rows = new AtomicLong();
+
+        Stream<Project> projects = streamResults(conn, stmt, Project.class)
+            .peek(project -> rows.incrementAndGet())
+            .onClose(() -> {
+              timer.succeeded(rows.get());
+              timer.close();
+            });
+
+        streaming = true;
+        return projects;
+      }
+      catch(SQLException | RuntimeException e) {
+        // Closing the connection again after streamResults closed it does nothing
+        try {
+          conn.close();
+        }
+        catch(SQLException closeError) {
+          e.addSuppressed(closeError);
+        }
+
+        throw e instanceof RuntimeException runtime ? runtime : new DbException(e);
+      }
+    }
+    finally {
+      // Once the stream is handed out, closing it closes the timer
+      if(!streaming) {
+        timer.close();
+      }
+    }
+  }
+
+  /**
+   * Passes each project to a callback as it is read, sorted by ID
+   * @param action Callback for each project
+   */
+  public void forEachProject(Consumer<Project> action) {
+    try(Stream<Project> projects = streamAllProjects()) {
+      projects.forEach(action);
+    }
+  }
+
+  /**
+   * Fetches the page of projects after a given ID, using the primary key instead of OFFSET so
+   * every page costs the same no matter how deep it is
+   * @param afterProjectId Last ID of the previous page, or null for the first page
+   * @param limit Maximum projects to return
+   * @return Projects sorted by ID
+   */
+  public List<Project> fetchProjectsPage(Integer afterProjectId, int limit) {
+    return fetchPage("fetchProjectsPage", Project.class, PAGE_AFTER_SQL, limit, false,
+        Objects.isNull(afterProjectId) ? 0 : afterProjectId, limit);
+  }
+
+  /**
+   * Fetches the page of projects before a given ID, for paging backwards
+   * @param beforeProjectId First ID of the next page, or null for the last page
+   * @param limit Maximum projects to return
+   * @return Projects sorted by ID
+   */
+  public List<Project> fetchProjectsPageBefore(Integer beforeProjectId, int limit) {
+    return fetchPage("fetchProjectsPageBefore", Project.class, PAGE_BEFORE_SQL, limit, true,
+        Objects.isNull(beforeProjectId) ? Integer.MAX_VALUE : beforeProjectId, limit);
+  }
+
+  /**
+   * Fetches the page of project summaries after a given ID. Only the ID, name and difficulty are
+   * read, so a list view doesn't pull every project's notes off the server
+   * @param afterProjectId Last ID of the previous page, or null for the first page
+   * @param limit Maximum summaries to return
+   * @return Summaries sorted by ID
+   */
+  public List<ProjectSummary> fetchProjectSummariesPage(Integer afterProjectId, int limit) {
+    return fetchPage("fetchProjectSummariesPage", ProjectSummary.class, SUMMARY_PAGE_AFTER_SQL,
+        limit, false, Objects.isNull(afterProjectId) ? 0 : afterProjectId, limit);
+  }
+
+  /**
+   * Fetches the page of project summaries before a given ID, for paging backwards
+   * @param beforeProjectId First ID of the next page, or null for the last page
+   * @param limit Maximum summaries to return
+   * @return Summaries sorted by ID
+   */
+  public List<ProjectSummary> fetchProjectSummariesPageBefore(Integer beforeProjectId, int limit) {
+    return fetchPage("fetchProjectSummariesPageBefore", ProjectSummary.class,
+        SUMMARY_PAGE_BEFORE_SQL, limit, true,
+        Objects.isNull(beforeProjectId) ? Integer.MAX_VALUE : beforeProjectId, limit);
+  }
+
+  /**
+   * Fetches a page of projects matching a filter, sorted by ID. The SQL is built from only the
+   * criteria that are set. Difficulty uses the (difficulty, project_id) index, the name prefix
+   * uses (project_name), hour ranges use (estimated_hours) or (actual_hours) and over budget uses
+   * the generated overrun_hours column's index. Check a shape with {@link #explainProjectsPage}
+   * @param filter Criteria to match
+   * @param afterProjectId Last ID of the previous page, or null for the first page
+   * @param limit Maximum projects to return
+   * @return Matching projects sorted by ID
+   */
+  public List<Project> fetchProjectsPage(ProjectFilter filter, Integer afterProjectId, int limit) {
+    List<Object> params = new ArrayList<>();
+    String sql = filterSql("SELECT " + PROJECT_COLUMNS + " ", filter, afterProjectId, limit, params);
+
+    return fetchPage("fetchFilteredProjectsPage", Project.class, sql, limit, false,
+        params.toArray());
+  }
+
+  /**
+   * Runs EXPLAIN on the query {@link #fetchProjectsPage(ProjectFilter, Integer, int)} would run,
+   * to confirm a filter shape uses an index rather than scanning the table
+   * @param filter Criteria to match
+   * @param afterProjectId Last ID of the previous page, or null for the first page
+   * @param limit Maximum projects to return
+   * @return Query plan, one row per table read
+   */
+  public List<QueryPlanRow> explainProjectsPage(ProjectFilter filter, Integer afterProjectId,
+      int limit) {
+    List<Object> params = new ArrayList<>();
+    String sql = filterSql("EXPLAIN SELECT " + PROJECT_COLUMNS + " ", filter, afterProjectId, limit, params);
+
+    try(OperationTimer timer = DaoMetrics.start("explainProjectsPage");
+        Connection conn = DbConnection.getReadConnection();
+        PreparedStatement stmt = conn.prepareStatement(sql)) {
+      bindAll(stmt, params.toArray());
+
+      List<QueryPlanRow> plan = new ArrayList<>();
+
+      try(ResultSet rs = stmt.executeQuery()) {
+        if(DbConnection.getBackend() == DbBackend.H2) {
+          while(rs.next()) {
+            plan.add(toQueryPlanRow(rs.getString(1)));
+          }
+
+          timer.succeeded(plan.size());
+          return plan;
+        }
+
+        while(rs.next()) {
+          plan.add(new QueryPlanRow(rs.getString("table"), rs.getString("type"),
+              rs.getString("possible_keys"), rs.getString("key"), rs.getLong("rows"),
+              rs.getString("Extra")));
+        }
+      }
 
-    try(Connection conn = DbConnection.getConnection()) {
+      timer.succeeded(plan.size());
+      return plan;
+    }
+    catch(SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  // H2 explains a query as one block of SQL with the index it reads in a comment, such as
+  // "/* public.idx_project_name: ... */" or "/* public.project.tableScan */"
+  private static QueryPlanRow toQueryPlanRow(String plan) {
+    Matcher matcher = H2_PLAN_ACCESS.matcher(plan);
+    String access = matcher.find() ? matcher.group(1) : "";
+    boolean tableScan = access.endsWith(".tableScan");
+    String key = tableScan || access.isEmpty() ? null : access.substring(access.lastIndexOf('.') + 1);
+
+    return new QueryPlanRow(PROJECT_TABLE, tableScan ? "ALL" : "index", null, key, 0, plan);
+  }
+
+  // Each condition is written the way its index expects, so the optimizer can match it
+  private static String filterSql(String select, ProjectFilter filter, Integer afterProjectId,
+      int limit, List<Object> params) {
+    List<String> conditions = new ArrayList<>();
+
+    if(!filter.difficulties().isEmpty()) {
+      conditions.add("difficulty IN (" + placeholders(filter.difficulties().size()) + ")");
+      params.addAll(new TreeSet<>(filter.difficulties()));
+    }
+
+    addCondition(conditions, params, "estimated_hours >= ?", filter.minEstimatedHours());
+    addCondition(conditions, params, "estimated_hours <= ?", filter.maxEstimatedHours());
+    addCondition(conditions, params, "actual_hours >= ?", filter.minActualHours());
+    addCondition(conditions, params, "actual_hours <= ?", filter.maxActualHours());
+
+    if(filter.overBudgetOnly()) {
+      conditions.add("overrun_hours > 0");
+    }
+
+    if(Objects.nonNull(filter.namePrefix())) {
+      conditions.add("project_name LIKE ?");
+      params.add(escapeLike(filter.namePrefix()) + "%");
+    }
+
+    addCondition(conditions, params, "project_id > ?", afterProjectId);
+    params.add(limit);
+
+    return select + "FROM " + PROJECT_TABLE
+        + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+        + " ORDER BY project_id LIMIT ?";
+  }
+
+  private static void addCondition(List<String> conditions, List<Object> params, String condition,
+      Object value) {
+    if(Objects.nonNull(value)) {
+      conditions.add(condition);
+      params.add(value);
+    }
+  }
+
+  private static String escapeLike(String text) {
+    return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  private void bindAll(PreparedStatement stmt, Object... params) throws SQLException {
+    for(int i = 0; i < params.length; i++) {
+      setParameter(stmt, i + 1, params[i], params[i].getClass());
+    }
+  }
+
+  private <T> List<T> fetchPage(String operation, Class<T> type, String sql, int limit,
+      boolean descending, Object... params) {
+    if(limit < 1) {
+      throw new IllegalArgumentException("Page limit must be at least 1");
+    }
+
+    try(OperationTimer timer = DaoMetrics.start(operation);
+        Connection conn = DbConnection.getReadConnection()) {
       startTransaction(conn);
 
       try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-        setParameter(stmt, 1, project.getProjectName(), String.class);
-        setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-        setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
-        setParameter(stmt, 4, project.getDifficulty(), Integer.class);
-        setParameter(stmt, 5, project.getNotes(), String.class);
+        bindAll(stmt, params);
 
-        stmt.executeUpdate();
+        List<T> rows = new ArrayList<>(limit);
+
+        try(ResultSet rs = stmt.executeQuery()) {
+          RowMapper<T> mapper = rowMapper(rs, type);
+
+          while(rs.next()) {
+            rows.add(mapper.map(rs));
+          }
+        }
+
+        commitTransaction(conn);
+
+        if(descending) {
+          Collections.reverse(rows);
+        }
+
+        timer.succeeded(rows.size());
+        return rows;
+      }
+      catch(Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    }
+    catch(SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  /**
+   * Searches project names and notes through the FULLTEXT index, best matches first. Natural
+   * language mode ranks by relevance; boolean mode also takes operators such as +must, -not,
+   * "exact phrase" and prefix*. Words shorter than the server's minimum token size, and
+   * stopwords, are ignored by MySQL. Backends without full-text search fall back to matching
+   * each word with LIKE, which scans the table
+   * @param query Search text
+   * @param limit Maximum matches to return
+   * @param booleanMode True to read the query as a boolean search
+   * @return Matches with a short snippet of the notes rather than the whole row
+   */
+  public List<ProjectSearchHit> searchProjects(String query, int limit, boolean booleanMode) {
+    String anchor = snippetAnchor(query);
+    List<Object> params = new ArrayList<>(List.of(anchor, anchor));
+    String sql;
+
+    if(DbConnection.getBackend().supportsFullTextSearch()) {
+      sql = booleanMode ? SEARCH_BOOLEAN_SQL : SEARCH_NATURAL_SQL;
+      params.add(query);
+      params.add(query);
+    }
+    else {
+      sql = likeSearchSql(query, params);
+    }
+
+    params.add(limit);
+
+    try(OperationTimer timer = DaoMetrics.start("searchProjects");
+        Connection conn = DbConnection.getReadConnection();
+        PreparedStatement stmt = conn.prepareStatement(sql)) {
+      bindAll(stmt, params.toArray());
+
+      List<ProjectSearchHit> hits = new ArrayList<>();
+
+      try(ResultSet rs = stmt.executeQuery()) {
+        while(rs.next()) {
+          hits.add(new ProjectSearchHit(rs.getInt("project_id"), rs.getString("project_name"),
+              trimSnippet(rs.getString("snippet"), rs.getInt("snippet_start"),
+                  rs.getInt("notes_length")),
+              rs.getDouble("score")));
+        }
+      }
+
+      timer.succeeded(hits.size());
+      return hits;
+    }
+    catch(SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  // Without a FULLTEXT index every word has to appear in the name or notes and a -word must not;
+  // projects with a word in the name rank higher. Other boolean operators are ignored
+  private static String likeSearchSql(String query, List<Object> params) {
+    List<String> scores = new ArrayList<>();
+    List<Object> scoreParams = new ArrayList<>();
+    List<String> conditions = new ArrayList<>();
+    List<Object> conditionParams = new ArrayList<>();
+
+    for(String token : query.strip().split("\\s+")) {
+      String word = token.replaceAll("[-+<>()~*\"]", "").toLowerCase(Locale.ROOT);
+
+      if(word.isEmpty()) {
+        continue;
+      }
+
+      String pattern = "%" + escapeLike(word) + "%";
+      String matches = "(LOWER(project_name) LIKE ? OR LOWER(COALESCE(notes, '')) LIKE ?)";
+
+      if(token.startsWith("-")) {
+        conditions.add("NOT " + matches);
+      }
+      else {
+        conditions.add(matches);
+        scores.add("CASE WHEN LOWER(project_name) LIKE ? THEN 2 ELSE 1 END");
+        scoreParams.add(pattern);
+      }
+
+      conditionParams.add(pattern);
+      conditionParams.add(pattern);
+    }
+
+    params.addAll(scoreParams);
+    params.addAll(conditionParams);
+
+    return searchSql(scores.isEmpty() ? "0" : String.join(" + ", scores),
+        conditions.isEmpty() ? "1 = 1" : String.join(" AND ", conditions));
+  }
+
+  // The first plain word of the query, which the snippet is centred on
+  private static String snippetAnchor(String query) {
+    for (String word : query.split("[^\\p{L}\\p{N}_]+")) {
+      if (!word.isEmpty()) {
+        return word;
+      }
+    }
+
+    return query;
+  }
+
+  // Cuts the snippet back to whole words and marks where the notes were cut
+  private static String trimSnippet(String snippet, int start, int notesLength) {
+    if (snippet == null || snippet.isBlank()) {
+      return null;
+    }
+
+    String text = snippet.replaceAll("\\s+", " ").strip();
+    boolean cutStart = start > 1;
+    boolean cutEnd = start - 1 + snippet.length() < notesLength;
+
+    if (cutStart && text.indexOf(' ') > 0) {
+      text = text.substring(text.indexOf(' ') + 1);
+    }
+
+    if (cutEnd && text.lastIndexOf(' ') > 0) {
+      text = text.substring(0, text.lastIndexOf(' '));
+    }
+
+    return (cutStart ? "..." : "") + text + (cutEnd ? "..." : "");
+  }
+
+  /**
+   * Fetches project by ID
+   * @param projectId Project ID
+   * @return Optional project
+   */
+  public Optional<Project> fetchProjectById(Integer projectId) {
+    return fetchProjectById("fetchProjectById", DbConnection::getReadConnection, projectId);
+  }
+
+  /**
+   * Fetches project by ID from the primary, never a read replica, so the row is the latest
+   * committed version
+   * @param projectId Project ID
+   * @return Optional project
+   */
+  public Optional<Project> fetchProjectByIdFromPrimary(Integer projectId) {
+    return fetchProjectById("fetchProjectByIdFromPrimary", DbConnection::getPrimaryReadConnection,
+        projectId);
+  }
+
+  private Optional<Project> fetchProjectById(String operation, Supplier<Connection> connections,
+      Integer projectId) {
+    try(OperationTimer timer = DaoMetrics.start(operation);
+        Connection conn = connections.get()) {
+      startTransaction(conn);
+
+      try {
+        Project project = null;
+
+        try(PreparedStatement stmt = conn.prepareStatement(FETCH_BY_ID_SQL)) {
+          setParameter(stmt, 1, projectId, Integer.class);
+
+          try(ResultSet rs = stmt.executeQuery()) {
+            if(rs.next()) {
+              project = extract(rs, Project.class);
+            }
+          }
+        }
 
-        Integer projectId = getLastInsertId(conn, PROJECT_TABLE);
         commitTransaction(conn);
-
-        project.setProjectId(projectId);
-        return project;
+        timer.succeeded(project == null ? 0 : 1);
+        return Optional.ofNullable(project);
       }
       catch(Exception e) {
         rollbackTransaction(conn);
@@ -60,25 +850,50 @@ public class ProjectDao extends DaoBase {
   }
 
   /**
-   * Fetches all projects, sorted by ID
-   * @return List of projects
+   * Reports estimate accuracy by difficulty. The database does the grouping in two aggregate
+   * queries read in one transaction, so only a few summary rows come back however many
+   * projects there are; the overall total is combined from those rows
+   * @return Estimate report
    */
-  public List<Project> fetchAllProjects() {
-    String sql = "SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_id";
-
-    try(Connection conn = DbConnection.getConnection()) {
+  public EstimateReport fetchEstimateReport() {
+    try(OperationTimer timer = DaoMetrics.start("fetchEstimateReport");
+        Connection conn = DbConnection.getReadConnection()) {
       startTransaction(conn);
 
-      try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-        try(ResultSet rs = stmt.executeQuery()) {
-          List<Project> projects = new LinkedList<>();
+      try {
+        Map<Integer, long[]> bucketCounts = new HashMap<>();
 
+        try(PreparedStatement stmt = conn.prepareStatement(OVERRUN_BUCKETS_SQL);
+            ResultSet rs = stmt.executeQuery()) {
           while(rs.next()) {
-            projects.add(extract(rs, Project.class));
+            Integer difficulty = getNullableInt(rs, "difficulty");
+            bucketCounts.computeIfAbsent(difficulty, key -> new long[OVERRUN_BUCKET_BOUNDS.length + 1])
+                [rs.getInt("bucket")] = rs.getLong("projects");
           }
+        }
+
+        List<DifficultySummary> byDifficulty = new ArrayList<>();
+
+        try(PreparedStatement stmt = conn.prepareStatement(DIFFICULTY_SUMMARY_SQL);
+            ResultSet rs = stmt.executeQuery()) {
+          while(rs.next()) {
+            Integer difficulty = getNullableInt(rs, "difficulty");
 
-          return projects;
+            byDifficulty.add(new DifficultySummary(difficulty, rs.getLong("projects"),
+                rs.getLong("estimated_count"), zeroIfNull(rs.getBigDecimal("estimated_hours")),
+                rs.getLong("actual_count"), zeroIfNull(rs.getBigDecimal("actual_hours")),
+                rs.getLong("compared_count"),
+                zeroIfNull(rs.getBigDecimal("compared_estimated_hours")),
+                zeroIfNull(rs.getBigDecimal("compared_actual_hours")),
+                rs.getDouble("overrun_ratio_sum"), rs.getLong("overrun_count"),
+                toBuckets(bucketCounts.getOrDefault(difficulty,
+                    new long[OVERRUN_BUCKET_BOUNDS.length + 1]))));
+          }
         }
+
+        commitTransaction(conn);
+        timer.succeeded(byDifficulty.size());
+        return new EstimateReport(byDifficulty, combine(byDifficulty));
       }
       catch(Exception e) {
         rollbackTransaction(conn);
@@ -90,65 +905,199 @@ public class ProjectDao extends DaoBase {
     }
   }
 
+  // Sums and counts add up exactly, so the overall row needs no third pass over the table
+  private static DifficultySummary combine(List<DifficultySummary> summaries) {
+    long projects = 0, estimatedCount = 0, actualCount = 0, comparedCount = 0, overrunCount = 0;
+    BigDecimal estimatedHours = BigDecimal.ZERO, actualHours = BigDecimal.ZERO;
+    BigDecimal comparedEstimatedHours = BigDecimal.ZERO, comparedActualHours = BigDecimal.ZERO;
+    double overrunRatioSum = 0;
+    long[] bucketCounts = new long[OVERRUN_BUCKET_BOUNDS.length + 1];
+
+    for (DifficultySummary summary : summaries) {
+      projects += summary.projects();
+      estimatedCount += summary.estimatedCount();
+      estimatedHours = estimatedHours.add(summary.estimatedHours());
+      actualCount += summary.actualCount();
+      actualHours = actualHours.add(summary.actualHours());
+      comparedCount += summary.comparedCount();
+      comparedEstimatedHours = comparedEstimatedHours.add(summary.comparedEstimatedHours());
+      comparedActualHours = comparedActualHours.add(summary.comparedActualHours());
+      overrunRatioSum += summary.overrunRatioSum();
+      overrunCount += summary.overrunCount();
+
+      for (int i = 0; i < bucketCounts.length; i++) {
+        bucketCounts[i] += summary.buckets().get(i).projects();
+      }
+    }
+
+    return new DifficultySummary(null, projects, estimatedCount, estimatedHours, actualCount,
+        actualHours, comparedCount, comparedEstimatedHours, comparedActualHours, overrunRatioSum,
+        overrunCount, toBuckets(bucketCounts));
+  }
+
+  private static List<OverrunBucket> toBuckets(long[] counts) {
+    List<OverrunBucket> buckets = new ArrayList<>(counts.length);
+
+    for (int i = 0; i < counts.length; i++) {
+      BigDecimal lower = i == 0 ? null : OVERRUN_BUCKET_BOUNDS[i - 1];
+      BigDecimal upper = i == OVERRUN_BUCKET_BOUNDS.length ? null : OVERRUN_BUCKET_BOUNDS[i];
+      buckets.add(new OverrunBucket(lower, upper, counts[i]));
+    }
+
+    return buckets;
+  }
+
+  // Buckets are numbered by comparing actual_hours with multiples of estimated_hours, which
+  // avoids a division per row
+  private static String overrunBucketCase() {
+    StringBuilder sql = new StringBuilder("CASE");
+
+    for (int i = 0; i < OVERRUN_BUCKET_BOUNDS.length; i++) {
+      sql.append(" WHEN actual_hours < estimated_hours * ")
+          .append(OVERRUN_BUCKET_BOUNDS[i].toPlainString()).append(" THEN ").append(i);
+    }
+
+    return sql.append(" ELSE ").append(OVERRUN_BUCKET_BOUNDS.length).append(" END").toString();
+  }
+
+  private static String searchSql(String score, String condition) {
+    String start = "GREATEST(LOCATE(?, notes) - " + SNIPPET_LENGTH / 4 + ", 1)";
+
+    // @formatter:off
+    return ""
+        + "SELECT project_id, project_name, "
+        + "SUBSTRING(notes, " + start + ", " + SNIPPET_LENGTH + ") AS snippet, "
+        + start + " AS snippet_start, "
+        + "CHAR_LENGTH(notes) AS notes_length, "
+        + score + " AS score "
+        + "FROM " + PROJECT_TABLE + " "
+        + "WHERE " + condition + " "
+        + "ORDER BY score DESC, project_id "
+        + "LIMIT ?";
+    // @formatter:on
+  }
+
+  private static Integer getNullableInt(ResultSet rs, String column) throws SQLException {
+    int value = rs.getInt(column);
+    return rs.wasNull() ? null : value;
+  }
+
+  private static BigDecimal zeroIfNull(BigDecimal value) {
+    return value == null ? BigDecimal.ZERO : value;
+  }
+
   /**
-   * Fetches project by ID
-   * @param projectId Project ID
-   * @return Optional project
+   * Updates project details if nobody has changed the row since it was read. The version check
+   * and the write happen in one statement, and a successful update bumps the version
+   * @param project Project with updates and the version it was read at
+   * @return UPDATED, NOT_FOUND or CONFLICT
    */
-  public Optional<Project> fetchProjectById(Integer projectId) {
-    String sql = "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+  public UpdateResult updateProject(Project project) {
+    if (Objects.isNull(project.getVersion())) {
+      throw new DbException("Project version is required for an update");
+    }
 
-    try(Connection conn = DbConnection.getConnection()) {
+    try (OperationTimer timer = DaoMetrics.start("updateProject");
+         Connection conn = DbConnection.getConnection()) {
       startTransaction(conn);
 
-      try {
-        Project project = null;
+      try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+        bindProject(stmt, project);
+        setParameter(stmt, 6, project.getProjectId(), Integer.class);
+        setParameter(stmt, 7, project.getVersion(), Integer.class);
 
-        try(PreparedStatement stmt = conn.prepareStatement(sql)) {
-          setParameter(stmt, 1, projectId, Integer.class);
+        UpdateResult result;
 
-          try(ResultSet rs = stmt.executeQuery()) {
-            if(rs.next()) {
-              project = extract(rs, Project.class);
-            }
-          }
+        if (stmt.executeUpdate() > 0) {
+          result = UpdateResult.UPDATED;
+        } else {
+          // Only the failure path pays for a second query to tell the two cases apart
+          result = projectExists(conn, project.getProjectId()) ? UpdateResult.CONFLICT
+              : UpdateResult.NOT_FOUND;
         }
 
         commitTransaction(conn);
-        return Optional.ofNullable(project);
-      }
-      catch(Exception e) {
+
+        if (result == UpdateResult.UPDATED) {
+          project.setVersion(project.getVersion() + 1);
+        }
+
+        timer.succeeded(result == UpdateResult.UPDATED ? 1 : 0);
+        return result;
+      } catch (Exception e) {
         rollbackTransaction(conn);
         throw new DbException(e);
       }
-    }
-    catch(SQLException e) {
+    } catch (SQLException e) {
       throw new DbException(e);
     }
   }
 
   /**
-   * Updates project details
-   * @param project Project with updates
-   * @return True if update worked
+   * Inserts and updates projects in one transaction, so the whole group costs one commit. The
+   * inserts and the updates each go in one JDBC batch, except that updates run one at a time
+   * once the driver has shown it doesn't report a count for each. Updates are version checked:
+   * a conflict or a missing project is reported in the results and doesn't stop the others. IDs
+   * and versions are only set on the projects once the transaction has committed
+   * @param inserts Projects to add
+   * @param updates Projects with updates and the version they were read at. Updates to the same
+   *        project run in list order, each checked against the version the one before left
+   * @return UPDATED, NOT_FOUND or CONFLICT for each update, in order
    */
-  public boolean updateProject(Project project) {
-    String sql = "UPDATE " + PROJECT_TABLE + " SET project_name = ?, estimated_hours = ?, actual_hours = ?, difficulty = ?, notes = ? WHERE project_id = ?";
+  public List<UpdateResult> writeProjects(List<Project> inserts, List<Project> updates) {
+    for (Project project : updates) {
+      if (Objects.isNull(project.getVersion())) {
+        throw new DbException("Project version is required for an update");
+      }
+    }
 
-    try (Connection conn = DbConnection.getConnection()) {
+    try (OperationTimer timer = DaoMetrics.start("writeProjects");
+         Connection conn = DbConnection.getConnection()) {
       startTransaction(conn);
 
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        setParameter(stmt, 1, project.getProjectName(), String.class);
-        setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-        setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
-        setParameter(stmt, 4, project.getDifficulty(), Integer.class);
-        setParameter(stmt, 5, project.getNotes(), String.class);
-        setParameter(stmt, 6, project.getProjectId(), Integer.class);
+      try {
+        List<Integer> projectIds = insertBatch(conn, inserts);
+        int[] counts = batchUpdateCountsMissing ? updateEach(conn, updates)
+            : updateBatch(conn, updates);
+
+        // Without a count per row a conflict can't be told from a success, so the group is
+        // redone with exact counts
+        if (Arrays.stream(counts).anyMatch(count -> count == Statement.SUCCESS_NO_INFO)) {
+          batchUpdateCountsMissing = true;
+          rollbackTransaction(conn);
+          projectIds = insertBatch(conn, inserts);
+          counts = updateEach(conn, updates);
+        }
+
+        List<UpdateResult> results = new ArrayList<>(updates.size());
+
+        for (int i = 0; i < counts.length; i++) {
+          if (counts[i] > 0) {
+            results.add(UpdateResult.UPDATED);
+          } else {
+            results.add(projectExists(conn, updates.get(i).getProjectId())
+                ? UpdateResult.CONFLICT : UpdateResult.NOT_FOUND);
+          }
+        }
 
-        boolean updated = stmt.executeUpdate() > 0;
         commitTransaction(conn);
-        return updated;
+
+        for (int i = 0; i < inserts.size(); i++) {
+          inserts.get(i).setProjectId(projectIds.get(i));
+          inserts.get(i).setVersion(0);
+        }
+
+        int updated = 0;
+
+        for (int i = 0; i < updates.size(); i++) {
+          if (results.get(i) == UpdateResult.UPDATED) {
+            updates.get(i).setVersion(updates.get(i).getVersion() + 1);
+            updated++;
+          }
+        }
+
+        timer.succeeded(inserts.size() + updated);
+        return results;
       } catch (Exception e) {
         rollbackTransaction(conn);
         throw new DbException(e);
@@ -158,35 +1107,165 @@ public class ProjectDao extends DaoBase {
     }
   }
 
+  private List<Integer> insertBatch(Connection conn, List<Project> inserts) throws SQLException {
+    if (inserts.isEmpty()) {
+      return List.of();
+    }
+
+    try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL,
+        Statement.RETURN_GENERATED_KEYS)) {
+      for (Project project : inserts) {
+        bindProject(stmt, project);
+        stmt.addBatch();
+      }
+
+      stmt.executeBatch();
+      return getGeneratedKeys(stmt, inserts.size());
+    }
+  }
+
+  private int[] updateBatch(Connection conn, List<Project> updates) throws SQLException {
+    if (updates.isEmpty()) {
+      return new int[0];
+    }
+
+    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+      for (Project project : updates) {
+        bindUpdate(stmt, project);
+        stmt.addBatch();
+      }
+
+      return stmt.executeBatch();
+    }
+  }
+
+  private int[] updateEach(Connection conn, List<Project> updates) throws SQLException {
+    int[] counts = new int[updates.size()];
+
+    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+      for (int i = 0; i < counts.length; i++) {
+        bindUpdate(stmt, updates.get(i));
+        counts[i] = stmt.executeUpdate();
+      }
+    }
+
+    return counts;
+  }
+
+  private void bindUpdate(PreparedStatement stmt, Project project) throws SQLException {
+    bindProject(stmt, project);
+    setParameter(stmt, 6, project.getProjectId(), Integer.class);
+    setParameter(stmt, 7, project.getVersion(), Integer.class);
+  }
+
+  private boolean projectExists(Connection conn, Integer projectId) throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement(EXISTS_SQL)) {
+      setParameter(stmt, 1, projectId, Integer.class);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next();
+      }
+    }
+  }
+
   /**
    * Deletes project
    * @param projectId Project ID
    * @return True if deletion worked
    */
   public boolean deleteProject(Integer projectId) {
-    try (Connection conn = DbConnection.getConnection()) {
+    try (OperationTimer timer = DaoMetrics.start("deleteProject");
+         Connection conn = DbConnection.getConnection()) {
       startTransaction(conn);
 
       try {
-        String sql = "DELETE FROM " + PROJECT_TABLE + " WHERE project_id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (PreparedStatement tombstone = conn.prepareStatement(TOMBSTONE_SQL);
+             PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+          setParameter(tombstone, 1, projectId, Integer.class);
+          tombstone.executeUpdate();
+
           setParameter(stmt, 1, projectId, Integer.class);
           boolean deleted = stmt.executeUpdate() > 0;
           commitTransaction(conn);
+          timer.succeeded(deleted ? 1 : 0);
+          return deleted;
+        }
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException e) {
+      throw new DbException(e);
+    }
+  }
 
-          String countSql = "SELECT COUNT(*) FROM " + PROJECT_TABLE;
-          try (PreparedStatement countStmt = conn.prepareStatement(countSql);
-               ResultSet rs = countStmt.executeQuery()) {
-            if (rs.next() && rs.getInt(1) == 0) {
-              String resetSql = "ALTER TABLE " + PROJECT_TABLE + " AUTO_INCREMENT = 1";
-              try (PreparedStatement resetStmt = conn.prepareStatement(resetSql)) {
-                resetStmt.executeUpdate();
-              }
-            }
+  /**
+   * Deletes projects by ID in chunked IN (...) statements, all in one transaction
+   * @param projectIds Project IDs
+   * @return Number of projects deleted
+   */
+  public int deleteProjects(Collection<Integer> projectIds) {
+    if (projectIds.isEmpty()) {
+      return 0;
+    }
+
+    try (OperationTimer timer = DaoMetrics.start("deleteProjects");
+         Connection conn = DbConnection.getConnection()) {
+      startTransaction(conn);
+
+      try {
+        int deleted = deleteByIds(conn, new ArrayList<>(projectIds));
+        commitTransaction(conn);
+        timer.succeeded(deleted);
+        return deleted;
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  /**
+   * Deletes every project with one of the given difficulties. Matching rows are locked and
+   * collected first, then removed in chunked IN (...) statements in the same transaction
+   * @param difficulties Difficulty levels to delete
+   * @return IDs of the deleted projects
+   */
+  public List<Integer> deleteProjectsByDifficulty(Collection<Integer> difficulties) {
+    if (difficulties.isEmpty()) {
+      return List.of();
+    }
+
+    String sql = "SELECT project_id FROM " + PROJECT_TABLE + " WHERE difficulty IN ("
+        + placeholders(difficulties.size()) + ") FOR UPDATE";
+
+    try (OperationTimer timer = DaoMetrics.start("deleteProjectsByDifficulty");
+         Connection conn = DbConnection.getConnection()) {
+      startTransaction(conn);
+
+      try {
+        List<Integer> projectIds = new ArrayList<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+          int index = 1;
+
+          for (Integer difficulty : difficulties) {
+            setParameter(stmt, index++, difficulty, Integer.class);
           }
 
-          return deleted;
+          try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+              projectIds.add(rs.getInt(1));
+            }
+          }
         }
+
+        deleteByIds(conn, projectIds);
+        commitTransaction(conn);
+        timer.succeeded(projectIds.size());
+        return projectIds;
       } catch (Exception e) {
         rollbackTransaction(conn);
         throw new DbException(e);
@@ -195,4 +1274,226 @@ public class ProjectDao extends DaoBase {
       throw new DbException(e);
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Reads the projects saved and deleted after a cursor, oldest first, so a cache, export or
+   * replica can catch up in time proportional to the changes rather than the table. Saved
+   * projects come from the (updated_at, project_id) index and deletes from the tombstone table,
+   * both read in one transaction and merged. On MySQL the page stops before the start of the
+   * oldest transaction that is still writing, so a slow transaction that commits after a read
+   * can't be skipped. Changes from the last "projects.changes.settleMillis" (default 1000) by
+   * the database clock are held back as well, which is the only protection on H2 or when the
+   * user lacks the PROCESS privilege; there a transaction open longer than that can be skipped.
+   * This reads from the primary, since a lagging replica would let the window pass before its
+   * rows arrive
+   * @param since Cursor from the previous page, or {@link ChangeCursor#START}
+   * @param limit Maximum changes to return
+   * @return Changes and the cursor to continue from
+   */
+  public ChangePage fetchChangedSince(ChangeCursor since, int limit) {
+    if(limit < 1) {
+      throw new IllegalArgumentException("Page limit must be at least 1");
+    }
+
+    try(OperationTimer timer = DaoMetrics.start("fetchChangedSince");
+        Connection conn = DbConnection.getPrimaryReadConnection()) {
+      startTransaction(conn);
+
+      try {
+        LocalDateTime settled;
+
+        try(PreparedStatement stmt = conn.prepareStatement(DB_TIME_SQL);
+            ResultSet rs = stmt.executeQuery()) {
+          rs.next();
+          settled = rs.getTimestamp(1).toLocalDateTime();
+        }
+
+        LocalDateTime oldestOpenWrite = fetchOldestOpenWrite(conn);
+
+        if(Objects.nonNull(oldestOpenWrite) && oldestOpenWrite.isBefore(settled)) {
+          settled = oldestOpenWrite;
+        }
+
+        settled = settled.minus(Duration.ofMillis(CHANGE_SETTLE_MILLIS));
+
+        // One more than the limit from each side tells whether anything is left over
+        Object[] params = {since.changedAt(), since.changedAt(), since.projectId(), settled,
+            limit + 1};
+        List<ProjectChange> saved = new ArrayList<>();
+        List<ProjectChange> deleted = new ArrayList<>();
+
+        try(PreparedStatement stmt = conn.prepareStatement(CHANGED_SINCE_SQL)) {
+          bindAll(stmt, params);
+
+          try(ResultSet rs = stmt.executeQuery()) {
+            RowMapper<Project> mapper = rowMapper(rs, Project.class);
+
+            while(rs.next()) {
+              Project project = mapper.map(rs);
+              saved.add(new ProjectChange(ProjectChange.Type.SAVED, project.getProjectId(),
+                  project.getUpdatedAt(), project));
+            }
+          }
+        }
+
+        try(PreparedStatement stmt = conn.prepareStatement(DELETED_SINCE_SQL)) {
+          bindAll(stmt, params);
+
+          try(ResultSet rs = stmt.executeQuery()) {
+            while(rs.next()) {
+              deleted.add(new ProjectChange(ProjectChange.Type.DELETED, rs.getInt(1),
+                  rs.getTimestamp(2).toLocalDateTime(), null));
+            }
+          }
+        }
+
+        commitTransaction(conn);
+
+        List<ProjectChange> changes = mergeChanges(saved, deleted, limit);
+        boolean hasMore = saved.size() + deleted.size() > changes.size();
+        ChangeCursor next = since;
+
+        if(!changes.isEmpty()) {
+          ProjectChange last = changes.get(changes.size() - 1);
+          next = new ChangeCursor(last.changedAt(), last.projectId());
+        }
+
+        timer.succeeded(changes.size());
+        return new ChangePage(changes, next, hasMore);
+      }
+      catch(Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    }
+    catch(SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  // Start of the oldest transaction with uncommitted changes, or null if there is none or the
+  // backend can't tell
+  private LocalDateTime fetchOldestOpenWrite(Connection conn) {
+    if(!openWritesVisible || !DbConnection.getBackend().reportsOpenTransactionTimes()) {
+      return null;
+    }
+
+    try(PreparedStatement stmt = conn.prepareStatement(OLDEST_OPEN_WRITE_SQL);
+        ResultSet rs = stmt.executeQuery()) {
+      Timestamp started = rs.next() ? rs.getTimestamp(1) : null;
+      return Objects.isNull(started) ? null : started.toLocalDateTime();
+    }
+    catch(SQLException e) {
+      openWritesVisible = false;
+      System.err.println("Change feed can't see open transactions, so it relies on the "
+          + CHANGE_SETTLE_MILLIS + "ms settle window alone: " + e);
+      return null;
+    }
+  }
+
+  // Merges two lists already in (time, project ID) order, keeping the first limit entries
+  private static List<ProjectChange> mergeChanges(List<ProjectChange> saved,
+      List<ProjectChange> deleted, int limit) {
+    Comparator<ProjectChange> order = Comparator.comparing(ProjectChange::changedAt)
+        .thenComparingInt(ProjectChange::projectId);
+    List<ProjectChange> merged = new ArrayList<>(Math.min(limit, saved.size() + deleted.size()));
+    int s = 0;
+    int d = 0;
+
+    while(merged.size() < limit && (s < saved.size() || d < deleted.size())) {
+      if(d == deleted.size()
+          || (s < saved.size() && order.compare(saved.get(s), deleted.get(d)) <= 0)) {
+        merged.add(saved.get(s++));
+      } else {
+        merged.add(deleted.get(d++));
+      }
+    }
+
+    return merged;
+  }
+
+  /**
+   * Maintenance: drops tombstones older than a cutoff. Feed readers whose cursor is older than
+   * the cutoff miss those deletes and should start again from a full read
+   * @param before Tombstones of deletes before this time are dropped
+   * @return Number of tombstones dropped
+   */
+  public int purgeTombstones(LocalDateTime before) {
+    try(OperationTimer timer = DaoMetrics.start("purgeTombstones");
+        Connection conn = DbConnection.getConnection();
+        PreparedStatement stmt = conn.prepareStatement(PURGE_TOMBSTONES_SQL)) {
+      setParameter(stmt, 1, before, LocalDateTime.class);
+
+      int purged = stmt.executeUpdate();
+      timer.succeeded(purged);
+      return purged;
+    }
+    catch(SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  /**
+   * Maintenance: restarts ID numbering at 1 if the table is empty. This is DDL and takes a
+   * metadata lock, so run it deliberately rather than after every delete
+   * @return True if the counter was reset
+   */
+  public boolean resetAutoIncrementIfEmpty() {
+    try (OperationTimer timer = DaoMetrics.start("resetAutoIncrementIfEmpty");
+         Connection conn = DbConnection.getConnection()) {
+      try (PreparedStatement stmt = conn.prepareStatement(ANY_ROW_SQL);
+           ResultSet rs = stmt.executeQuery()) {
+        if (rs.next()) {
+          timer.succeeded(0);
+          return false;
+        }
+      }
+
+      try (PreparedStatement stmt = conn.prepareStatement(RESET_AUTO_INCREMENT_SQL)) {
+        stmt.executeUpdate();
+        timer.succeeded(0);
+        return true;
+      }
+    } catch (SQLException e) {
+      throw new DbException(e);
+    }
+  }
+
+  private int deleteByIds(Connection conn, List<Integer> projectIds) throws SQLException {
+    int deleted = 0;
+
+    for (int from = 0; from < projectIds.size(); from += DELETE_CHUNK_SIZE) {
+      List<Integer> chunk = projectIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, projectIds.size()));
+      boolean full = chunk.size() == DELETE_CHUNK_SIZE;
+      String tombstoneSql = full ? TOMBSTONE_CHUNK_SQL : tombstoneInSql(chunk.size());
+      String sql = full ? DELETE_CHUNK_SQL : deleteInSql(chunk.size());
+
+      try (PreparedStatement tombstone = conn.prepareStatement(tombstoneSql);
+           PreparedStatement stmt = conn.prepareStatement(sql)) {
+        for (int i = 0; i < chunk.size(); i++) {
+          setParameter(tombstone, i + 1, chunk.get(i), Integer.class);
+          setParameter(stmt, i + 1, chunk.get(i), Integer.class);
+        }
+
+        tombstone.executeUpdate();
+        deleted += stmt.executeUpdate();
+      }
+    }
+
+    return deleted;
+  }
+
+  private static String deleteInSql(int count) {
+    return "DELETE FROM " + PROJECT_TABLE + " WHERE project_id IN (" + placeholders(count) + ")";
+  }
+
+  // Records a tombstone for each of the IDs that still exists, before the rows are deleted
+  private static String tombstoneInSql(int count) {
+    return "INSERT INTO " + TOMBSTONE_TABLE + " (project_id) SELECT project_id FROM "
+        + PROJECT_TABLE + " WHERE project_id IN (" + placeholders(count) + ")";
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+}
@@ -0,0 +1,84 @@
+package projects.dao;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Criteria for filtered project queries. Every criterion is optional and they combine with AND;
+ * start from {@link #ALL} and add criteria with the with... methods
+ * @param difficulties Difficulty levels to match, or empty for any
+ * @param minEstimatedHours Lowest estimated hours, inclusive, or null
+ * @param maxEstimatedHours Highest estimated hours, inclusive, or null
+ * @param minActualHours Lowest actual hours, inclusive, or null
+ * @param maxActualHours Highest actual hours, inclusive, or null
+ * @param overBudgetOnly True to match only projects whose actual hours exceed the estimate
+ * @param namePrefix Start of the project name, or null
+ */
+public record ProjectFilter(Set<Integer> difficulties, BigDecimal minEstimatedHours,
+    BigDecimal maxEstimatedHours, BigDecimal minActualHours, BigDecimal maxActualHours,
+    boolean overBudgetOnly, String namePrefix) {
+
+  /**
+   * Matches every project
+   */
+  public static final ProjectFilter ALL = new ProjectFilter(Set.of(), null, null, null, null, false, null);
+
+  /**
+   * Copies the difficulty set so the filter can't change after it is built
+   */
+  public ProjectFilter {
+    difficulties = difficulties == null ? Set.of() : Set.copyOf(difficulties);
+  }
+
+  /**
+   * Matches projects with one of the given difficulties
+   * @param levels Difficulty levels
+   * @return New filter
+   */
+  public ProjectFilter withDifficulties(Integer... levels) {
+    return new ProjectFilter(Set.copyOf(Arrays.asList(levels)), minEstimatedHours,
+        maxEstimatedHours, minActualHours, maxActualHours, overBudgetOnly, namePrefix);
+  }
+
+  /**
+   * Matches projects with estimated hours in a range
+   * @param min Lowest hours, inclusive, or null for no lower limit
+   * @param max Highest hours, inclusive, or null for no upper limit
+   * @return New filter
+   */
+  public ProjectFilter withEstimatedHours(BigDecimal min, BigDecimal max) {
+    return new ProjectFilter(difficulties, min, max, minActualHours, maxActualHours,
+        overBudgetOnly, namePrefix);
+  }
+
+  /**
+   * Matches projects with actual hours in a range
+   * @param min Lowest hours, inclusive, or null for no lower limit
+   * @param max Highest hours, inclusive, or null for no upper limit
+   * @return New filter
+   */
+  public ProjectFilter withActualHours(BigDecimal min, BigDecimal max) {
+    return new ProjectFilter(difficulties, minEstimatedHours, maxEstimatedHours, min, max,
+        overBudgetOnly, namePrefix);
+  }
+
+  /**
+   * Matches only projects that took longer than estimated
+   * @return New filter
+   */
+  public ProjectFilter withOverBudgetOnly() {
+    return new ProjectFilter(difficulties, minEstimatedHours, maxEstimatedHours, minActualHours,
+        maxActualHours, true, namePrefix);
+  }
+
+  /**
+   * Matches projects whose name starts with the given text
+   * @param prefix Start of the name; case follows the column collation
+   * @return New filter
+   */
+  public ProjectFilter withNamePrefix(String prefix) {
+    return new ProjectFilter(difficulties, minEstimatedHours, maxEstimatedHours, minActualHours,
+        maxActualHours, overBudgetOnly, prefix == null || prefix.isEmpty() ? null : prefix);
+  }
+}
@@ -0,0 +1,31 @@
+package projects.dao;
+
+/**
+ * One row of MySQL EXPLAIN output
+ * @param table Table the row reads
+ * @param accessType Join type, such as ref, range, index or ALL
+ * @param possibleKeys Indexes the optimizer considered, or null
+ * @param key Index chosen, or null for none
+ * @param rows Estimated rows examined
+ * @param extra Extra notes such as "Using where" or "Using filesort", or null
+ */
+public record QueryPlanRow(String table, String accessType, String possibleKeys, String key,
+    long rows, String extra) {
+
+  /**
+   * Checks for a full table scan
+   * @return True if every row of the table is read
+   */
+  public boolean isFullScan() {
+    return "ALL".equalsIgnoreCase(accessType);
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted plan row
+   */
+  @Override
+  public String toString() {
+    return String.format("%s: type=%s key=%s rows=%d extra=%s", table, accessType, key, rows, extra);
+  }
+}
@@ -0,0 +1,22 @@
+package projects.dao;
+
+import java.util.List;
+
+/**
+ * Point-in-time view of where reads went
+ * @param replicaReads Reads served by a replica
+ * @param primaryReads Reads sent to the primary because no replica was available and caught up,
+ *        or to keep a session reading its own writes
+ * @param replicas Each replica's state
+ */
+public record ReadRoutingStats(long replicaReads, long primaryReads, List<ReplicaStats> replicas) {
+
+  /**
+   * Works out the share of reads a replica served
+   * @return Replica reads as a fraction of all routed reads, or 0 if there were none
+   */
+  public double replicaReadRate() {
+    long reads = replicaReads + primaryReads;
+    return reads == 0 ? 0 : (double)replicaReads / reads;
+  }
+}
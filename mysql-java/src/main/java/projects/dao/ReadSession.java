@@ -0,0 +1,129 @@
+package projects.dao;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// This is what a caller needs to read its own writes when reads go to replicas. A caller starts a
+// session and binds it around the work that belongs to it. Writes made while it is bound are
+// recorded in it, and reads made under it stay off replicas that may not have those writes yet.
+// token() carries the session over to a later request, which picks it up with resume(). Work with
+// no session bound reads from any replica within the lag limit
+public final class ReadSession {
+  private static final ThreadLocal<ReadSession> CURRENT = new ThreadLocal<>();
+
+  private final AtomicInteger pendingWrites = new AtomicInteger();
+  private final AtomicLong lastWriteMillis;
+
+  private ReadSession(long lastWriteMillis) {
+    this.lastWriteMillis = new AtomicLong(lastWriteMillis);
+  }
+
+  /**
+   * Starts a session with no writes yet
+   * @return New session
+   */
+  public static ReadSession start() {
+    return new ReadSession(0);
+  }
+
+  /**
+   * Picks up a session from a token handed out by token()
+   * @param token Token from an earlier session, or null or blank for a new session
+   * @return Session that reads the earlier session's writes
+   * @throws IllegalArgumentException If the token isn't one token() hands out
+   */
+  public static ReadSession resume(String token) {
+    if (token == null || token.isBlank()) {
+      return start();
+    }
+
+    try {
+      long millis = Long.parseLong(token.strip());
+
+      if (millis > 0) {
+        return new ReadSession(millis);
+      }
+    } catch (NumberFormatException e) {
+      // Reported below
+    }
+
+    throw new IllegalArgumentException("Invalid session token '" + token + "'");
+  }
+
+  /**
+   * Gets the session bound to the calling thread
+   * @return Session, or null if none is bound
+   */
+  public static ReadSession current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Gets a token that carries this session's writes over to a later request
+   * @return Token, or null if the session hasn't written anything
+   */
+  public String token() {
+    long millis = lastWriteMillis.get();
+    return millis == 0 ? null : Long.toString(millis);
+  }
+
+  /**
+   * Makes this the calling thread's session until the returned scope is closed
+   * @return Scope that puts back the thread's previous session when closed
+   */
+  public Scope bind() {
+    Scope scope = new Scope(CURRENT.get());
+    CURRENT.set(this);
+    return scope;
+  }
+
+  /**
+   * Records a write that has been started, possibly on another thread. Until it finishes,
+   * reads in this session go to the primary
+   */
+  public void writeStarted() {
+    pendingWrites.incrementAndGet();
+  }
+
+  /**
+   * Records that a write from writeStarted() has committed or failed
+   */
+  public void writeFinished() {
+    lastWriteMillis.accumulateAndGet(System.currentTimeMillis(), Math::max);
+    pendingWrites.decrementAndGet();
+  }
+
+  // Replica lag only counts from when the last write finished, so the replica must be at least
+  // that close to the primary
+  long maxStalenessNanos() {
+    if (pendingWrites.get() > 0) {
+      return 0;
+    }
+
+    long millis = lastWriteMillis.get();
+
+    return millis == 0 ? Long.MAX_VALUE
+        : TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - millis));
+  }
+
+  /**
+   * Keeps a session bound to a thread; closing it restores the thread's previous session
+   */
+  public static final class Scope implements AutoCloseable {
+    private final ReadSession previous;
+
+    private Scope(ReadSession previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package projects.dao;
+
+// These are the ways reads are spread over the replicas that are up and caught up
+public enum ReplicaBalancing {
+  // Each read goes to the next replica in turn
+  ROUND_ROBIN,
+  // Each read goes to the replica with the fewest connections in use
+  LEAST_LOADED;
+
+  /**
+   * Picks a balancing mode by name, ignoring case
+   * @param name "round_robin" or "least_loaded"
+   * @return Matching mode
+   * @throws IllegalArgumentException If the name isn't recognised
+   */
+  public static ReplicaBalancing fromName(String name) {
+    for (ReplicaBalancing balancing : values()) {
+      if (balancing.name().equalsIgnoreCase(name.strip().replace('-', '_'))) {
+        return balancing;
+      }
+    }
+
+    throw new IllegalArgumentException(
+        "Unknown replica balancing '" + name + "'; use round_robin or least_loaded");
+  }
+}
@@ -0,0 +1,226 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import projects.exception.DbException;
+
+// This spreads reads over read replicas, each with its own connection pool. A background check
+// measures every replica's replication lag; one that is down or further behind than the lag
+// limit gets no reads until a later check finds it caught up. A read never waits for a busy
+// replica; it moves on to the next one. Only a replica whose connections can't be opened or
+// fail validation is marked down. When no replica has a free connection the caller reads from
+// the primary instead
+class ReplicaRouter implements AutoCloseable {
+  private final List<Replica> replicas = new ArrayList<>();
+  private final DbBackend backend;
+  private final ReplicaBalancing balancing;
+  private final long maxLagSeconds;
+  private final ScheduledExecutorService checker;
+  private final AtomicInteger next = new AtomicInteger();
+  private final LongAdder replicaReads = new LongAdder();
+  private final LongAdder primaryReads = new LongAdder();
+
+  /**
+   * Builds a router, checks every replica once and starts checking them in the background
+   * @param urls JDBC URL of each replica
+   * @param names Where each replica is, without the password
+   * @param backend Database the replicas run
+   * @param balancing How reads are spread over the replicas
+   * @param maxLagSeconds Most a replica may be behind the primary and still get reads
+   * @param checkMillis Time between checks
+   */
+  ReplicaRouter(List<String> urls, List<String> names, DbBackend backend,
+      ReplicaBalancing balancing, long maxLagSeconds, long checkMillis) {
+    for (int i = 0; i < urls.size(); i++) {
+      replicas.add(new Replica(urls.get(i), names.get(i)));
+    }
+
+    this.backend = backend;
+    this.balancing = balancing;
+    this.maxLagSeconds = maxLagSeconds;
+    this.checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "replica-check");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    checkAll();
+    checker.scheduleWithFixedDelay(this::checkAll, checkMillis, checkMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Borrows a connection from a replica that is available and no staler than allowed
+   * @param maxStalenessNanos How far behind the primary the read may be, on top of the lag
+   *        limit, or Long.MAX_VALUE for no extra limit
+   * @return Replica connection, or null if no replica qualifies or has a connection free
+   */
+  Connection getConnection(long maxStalenessNanos) {
+    List<Replica> candidates = new ArrayList<>(replicas.size());
+
+    for (Replica replica : replicas) {
+      if (replica.canServe(maxStalenessNanos)) {
+        candidates.add(replica);
+      }
+    }
+
+    // Turns are taken among the replicas that can serve, so a down one doesn't hand its share
+    // to whichever replica follows it
+    if (!candidates.isEmpty()) {
+      Collections.rotate(candidates, -Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    // The sort is stable, so replicas tied on load still take turns
+    if (balancing == ReplicaBalancing.LEAST_LOADED) {
+      candidates.sort(Comparator.comparingInt(Replica::inUse));
+    }
+
+    for (Replica replica : candidates) {
+      try {
+        Connection conn = replica.pool.tryGetConnection();
+
+        if (conn != null) {
+          replica.reads.increment();
+          replicaReads.increment();
+          return conn;
+        }
+      } catch (DbException e) {
+        replica.markDown();
+      }
+    }
+
+    primaryReads.increment();
+    return null;
+  }
+
+  /**
+   * Takes a snapshot of where reads went and what state each replica is in
+   * @return Routing statistics
+   */
+  ReadRoutingStats getStats() {
+    List<ReplicaStats> stats = new ArrayList<>(replicas.size());
+
+    for (Replica replica : replicas) {
+      ConnectionPool pool = replica.pool;
+
+      stats.add(new ReplicaStats(replica.name, replica.available, replica.lagSeconds,
+          replica.reads.sum(), replica.failures.sum(), pool == null ? null : pool.getStats()));
+    }
+
+    return new ReadRoutingStats(replicaReads.sum(), primaryReads.sum(), stats);
+  }
+
+  /**
+   * Stops the checks and closes every replica pool
+   */
+  @Override
+  public void close() {
+    checker.shutdownNow();
+
+    for (Replica replica : replicas) {
+      replica.available = false;
+
+      if (replica.pool != null) {
+        replica.pool.close();
+      }
+    }
+  }
+
+  private void checkAll() {
+    for (Replica replica : replicas) {
+      try {
+        check(replica);
+      } catch (RuntimeException e) {
+        replica.markDown();
+        System.err.println("Replica check of " + replica.name + " failed: " + e);
+      }
+    }
+  }
+
+  // Only the checker opens pools, so a replica that was down at startup is picked up later. A
+  // replica whose connections are all in use is busy serving reads, not down, so its check is
+  // skipped rather than waiting for a connection and holding up the other replicas' checks
+  private void check(Replica replica) {
+    try {
+      if (replica.pool == null) {
+        replica.pool = new ConnectionPool(replica.url, PoolConfig.fromSystemProperties());
+      }
+
+      Connection borrowed = replica.pool.tryGetConnection();
+
+      if (borrowed == null) {
+        return;
+      }
+
+      try (Connection conn = borrowed) {
+        long lag = measureLag(conn);
+
+        replica.lagSeconds = lag;
+        replica.available = lag >= 0 && lag <= maxLagSeconds;
+      }
+    } catch (SQLException | DbException e) {
+      replica.markDown();
+    }
+  }
+
+  // MySQL reports NULL while replication is stopped, which counts as unknown. A server that
+  // isn't replicating at all reports no rows and is treated as current. H2 doesn't replicate
+  private long measureLag(Connection conn) throws SQLException {
+    if (backend == DbBackend.H2) {
+      return 0;
+    }
+
+    try (Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SHOW REPLICA STATUS")) {
+      if (!rs.next()) {
+        return 0;
+      }
+
+      long lag = rs.getLong("Seconds_Behind_Source");
+      return rs.wasNull() ? -1 : lag;
+    }
+  }
+
+  // One replica and what the last check or read found out about it
+  private static class Replica {
+    private final String url;
+    private final String name;
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile ConnectionPool pool;
+    private volatile boolean available;
+    private volatile long lagSeconds = -1;
+
+    Replica(String url, String name) {
+      this.url = url;
+      this.name = name;
+    }
+
+    // Lag is reported in whole seconds, so a replica reporting n may be up to n + 1 behind
+    boolean canServe(long maxStalenessNanos) {
+      return available && pool != null
+          && TimeUnit.SECONDS.toNanos(lagSeconds + 1) <= maxStalenessNanos;
+    }
+
+    int inUse() {
+      ConnectionPool current = pool;
+      return current == null ? Integer.MAX_VALUE : current.inUse();
+    }
+
+    void markDown() {
+      available = false;
+      failures.increment();
+    }
+  }
+}
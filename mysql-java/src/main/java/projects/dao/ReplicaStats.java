@@ -0,0 +1,25 @@
+package projects.dao;
+
+/**
+ * Point-in-time view of one read replica
+ * @param name Where the replica is, without the password
+ * @param available True if the last check reached it and it was caught up enough to read from
+ * @param lagSeconds How far it was behind the primary at the last check, or -1 if unknown
+ * @param reads Connections handed out for reads
+ * @param failures Times it couldn't be reached, by a read or a check
+ * @param pool Its connection pool, or null if it has never been reached
+ */
+public record ReplicaStats(String name, boolean available, long lagSeconds, long reads,
+    long failures, PoolStats pool) {
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted statistics
+   */
+  @Override
+  public String toString() {
+    return String.format("%s: %s lag=%s reads=%d failures=%d inUse=%d", name,
+        available ? "available" : "unavailable", lagSeconds < 0 ? "?" : lagSeconds + "s", reads,
+        failures, pool == null ? 0 : pool.inUse());
+  }
+}
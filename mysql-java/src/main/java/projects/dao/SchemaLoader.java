@@ -0,0 +1,96 @@
+package projects.dao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import projects.exception.DbException;
+
+// This creates the tables from projects-schema.sql in an embedded database. Statements marked
+// with a "-- mysql-only" line, such as the FULLTEXT index, are skipped
+class SchemaLoader {
+  private static final String SCHEMA_RESOURCE = "/projects-schema.sql";
+  private static final String MYSQL_ONLY = "-- mysql-only";
+
+  private SchemaLoader() {
+  }
+
+  /**
+   * Runs the schema script unless the project table already exists, so a database file keeps
+   * its data between runs
+   * @param conn Connection to the embedded database
+   * @return True if the schema was created
+   * @throws DbException If the script can't be read or run
+   */
+  static boolean createIfMissing(Connection conn) {
+    try {
+      try (ResultSet rs = conn.getMetaData().getTables(null, null, "project", new String[] {"TABLE"})) {
+        if (rs.next()) {
+          return false;
+        }
+      }
+
+      try (Statement stmt = conn.createStatement()) {
+        for (String sql : readStatements()) {
+          stmt.execute(sql);
+        }
+      }
+
+      return true;
+    } catch (SQLException | IOException e) {
+      throw new DbException("Unable to create schema from " + SCHEMA_RESOURCE, e);
+    }
+  }
+
+  // Statements end with ';' at the end of a line; comment lines are dropped
+  private static List<String> readStatements() throws IOException {
+    List<String> statements = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean skip = false;
+
+    try (InputStream in = SchemaLoader.class.getResourceAsStream(SCHEMA_RESOURCE)) {
+      if (in == null) {
+        throw new IOException(SCHEMA_RESOURCE + " is not on the classpath");
+      }
+
+      BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+      String line;
+
+      while ((line = reader.readLine()) != null) {
+        String trimmed = line.strip();
+
+        if (trimmed.startsWith("--")) {
+          skip |= trimmed.equalsIgnoreCase(MYSQL_ONLY);
+          continue;
+        }
+
+        current.append(line).append('\n');
+
+        if (trimmed.endsWith(";")) {
+          String sql = current.toString().strip();
+
+          if (!skip) {
+            statements.add(sql.substring(0, sql.length() - 1));
+          }
+
+          current.setLength(0);
+          skip = false;
+        }
+      }
+    }
+
+    // The last statement may not end with ';'
+    if (!current.toString().isBlank() && !skip) {
+      statements.add(current.toString().strip());
+    }
+
+    return statements;
+  }
+}
@@ -0,0 +1,250 @@
+package projects.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+// This keeps the prepared statements of one pooled connection open between borrows. Closing a
+// statement returns it here instead of closing it on the server; the least recently used ones
+// are closed once there are more than the limit. A connection is only used by one thread at a
+// time, so none of this is synchronized
+class StatementCache {
+  // Changing any of these leaves state behind that the next user wouldn't expect, so a
+  // statement that had them called is closed for real instead of cached
+  private static final Set<String> UNCACHEABLE_CALLS = Set.of("setFetchSize", "setFetchDirection",
+      "setMaxRows", "setLargeMaxRows", "setMaxFieldSize", "setQueryTimeout", "setEscapeProcessing",
+      "setCursorName", "setPoolable", "closeOnCompletion");
+
+  private final Connection physical;
+  private final Connection owner;
+  private final int maxSize;
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final LongAdder evictions;
+
+  private final LinkedHashMap<StatementKey, PreparedStatement> idle =
+      new LinkedHashMap<>(16, 0.75f, true);
+  private final Set<CachedStatement> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * Builds an empty cache
+   * @param physical Connection the statements are prepared on
+   * @param owner Pooled connection proxy, returned by Statement.getConnection()
+   * @param maxSize Most idle statements kept
+   * @param hits Counter for statements reused from the cache
+   * @param misses Counter for statements prepared anew
+   * @param evictions Counter for statements closed to stay within maxSize
+   */
+  StatementCache(Connection physical, Connection owner, int maxSize, LongAdder hits,
+      LongAdder misses, LongAdder evictions) {
+    this.physical = physical;
+    this.owner = owner;
+    this.maxSize = maxSize;
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+  }
+
+  /**
+   * Checks whether a prepareStatement call can be cached. The variants taking column indexes
+   * or names for generated keys are passed straight through
+   * @param args Arguments of the prepareStatement call
+   * @return True if the statement can be cached
+   */
+  static boolean isCacheable(Object[] args) {
+    if (args == null || args.length == 0 || !(args[0] instanceof String)) {
+      return false;
+    }
+
+    for (int i = 1; i < args.length; i++) {
+      if (!(args[i] instanceof Integer)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Gets an idle statement for the same SQL and options, or prepares a new one
+   * @param method prepareStatement method being called
+   * @param args Arguments of the call
+   * @return Statement proxy whose close() returns it to the cache
+   * @throws SQLException If a new statement can't be prepared
+   */
+  PreparedStatement prepare(Method method, Object[] args) throws SQLException {
+    StatementKey key = new StatementKey((String)args[0],
+        List.of(Arrays.copyOfRange(args, 1, args.length)));
+    PreparedStatement statement = idle.remove(key);
+
+    if (statement != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+      statement = (PreparedStatement)invoke(method, physical, args);
+    }
+
+    CachedStatement cached = new CachedStatement(key, statement);
+    inUse.add(cached);
+    return cached.proxy;
+  }
+
+  /**
+   * Closes statements the borrower never closed, as closing a plain connection would
+   */
+  void closeInUse() {
+    for (CachedStatement cached : new ArrayList<>(inUse)) {
+      cached.closed = true;
+      closeQuietly(cached.statement);
+    }
+
+    inUse.clear();
+  }
+
+  private void checkIn(CachedStatement cached) {
+    inUse.remove(cached);
+
+    if (!cached.reusable || !reset(cached.statement)) {
+      closeQuietly(cached.statement);
+      return;
+    }
+
+    // The same SQL may have been prepared twice while both were open; keep one
+    PreparedStatement existing = idle.putIfAbsent(cached.key, cached.statement);
+
+    if (existing != null) {
+      closeQuietly(cached.statement);
+      return;
+    }
+
+    Iterator<PreparedStatement> eldest = idle.values().iterator();
+
+    while (idle.size() > maxSize && eldest.hasNext()) {
+      closeQuietly(eldest.next());
+      eldest.remove();
+      evictions.increment();
+    }
+  }
+
+  // Leaves the statement the way prepareStatement would have returned it
+  private static boolean reset(PreparedStatement statement) {
+    try {
+      if (statement.isClosed()) {
+        return false;
+      }
+
+      ResultSet open = statement.getResultSet();
+
+      if (open != null) {
+        open.close();
+      }
+
+      statement.clearParameters();
+      statement.clearBatch();
+      statement.clearWarnings();
+      return true;
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  private static void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // Closing is best effort; the connection cleans up when it closes
+    }
+  }
+
+  private static Object invoke(Method method, Object target, Object[] args) throws SQLException {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof SQLException sqlException) {
+        throw sqlException;
+      }
+
+      throw new SQLException(e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new SQLException(e);
+    }
+  }
+
+  // SQL text plus the result set type, concurrency or generated-keys flag it was prepared with
+  private record StatementKey(String sql, List<Object> options) {
+  }
+
+  // The proxy a caller holds while a statement is checked out
+  private class CachedStatement implements InvocationHandler {
+    private final StatementKey key;
+    private final PreparedStatement statement;
+    private final PreparedStatement proxy;
+    private boolean closed;
+    private boolean reusable = true;
+
+    CachedStatement(StatementKey key, PreparedStatement statement) {
+      this.key = key;
+      this.statement = statement;
+      this.proxy = (PreparedStatement)Proxy.newProxyInstance(
+          PreparedStatement.class.getClassLoader(), new Class<?>[] {PreparedStatement.class}, this);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          if (!closed) {
+            closed = true;
+            checkIn(this);
+          }
+          return null;
+
+        case "isClosed":
+          return closed || statement.isClosed();
+
+        case "getConnection":
+          return owner;
+
+        case "equals":
+          return proxy == args[0];
+
+        case "hashCode":
+          return System.identityHashCode(proxy);
+
+        case "toString":
+          return "Cached" + statement;
+
+        default:
+          break;
+      }
+
+      if (closed) {
+        throw new SQLException("Statement is closed");
+      }
+
+      if (UNCACHEABLE_CALLS.contains(method.getName())) {
+        reusable = false;
+      }
+
+      try {
+        return method.invoke(statement, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package projects.dao;
+
+// This is the outcome of a version-checked update
+public enum UpdateResult {
+  /** The row matched the expected version and was written */
+  UPDATED,
+
+  /** No row has the given ID */
+  NOT_FOUND,
+
+  /** The row exists but was changed since it was read */
+  CONFLICT
+}
@@ -1,6 +1,7 @@
 package projects.entity;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 // This is what represents a project in the menu, with a list of details and values
 public class Project {
@@ -10,6 +11,9 @@ public class Project {
   private BigDecimal actualHours;
   private Integer difficulty;
   private String notes;
+  private Integer version;
+  private LocalDateTime createdAt;
+  private LocalDateTime updatedAt;
 
   /**
    * Gets project ID
@@ -107,6 +111,74 @@ public class Project {
     this.notes = notes;
   }
 
+  /**
+   * Gets row version, bumped on every update
+   * @return Row version
+   */
+  public Integer getVersion() {
+    return version;
+  }
+
+  /**
+   * Sets row version
+   * @param version Row version
+   */
+  public void setVersion(Integer version) {
+    this.version = version;
+  }
+
+  /**
+   * Gets when the project was added
+   * @return Creation time, or null if the project hasn't been read back from the database
+   */
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  /**
+   * Sets when the project was added
+   * @param createdAt Creation time
+   */
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  /**
+   * Gets when the project was last added or changed
+   * @return Last change time, or null if the project hasn't been read back from the database
+   */
+  public LocalDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  /**
+   * Sets when the project was last added or changed
+   * @param updatedAt Last change time
+   */
+  public void setUpdatedAt(LocalDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  /**
+   * Makes an independent copy, so cached projects can't be changed through a caller's reference
+   * @return Copy of this project
+   */
+  public Project copy() {
+    Project project = new Project();
+
+    project.projectId = projectId;
+    project.projectName = projectName;
+    project.estimatedHours = estimatedHours;
+    project.actualHours = actualHours;
+    project.difficulty = difficulty;
+    project.notes = notes;
+    project.version = version;
+    project.createdAt = createdAt;
+    project.updatedAt = updatedAt;
+
+    return project;
+  }
+
   /**
    * Builds project overview
    * @return Formatted project details
@@ -0,0 +1,29 @@
+package projects.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the project change feed
+ * @param type SAVED for a project that was added or changed, DELETED for one that was removed
+ * @param projectId Project ID
+ * @param changedAt When the project was last saved, or when it was deleted
+ * @param project Project as it is now, or null for a delete
+ */
+public record ProjectChange(Type type, int projectId, LocalDateTime changedAt, Project project) {
+
+  /**
+   * Kind of change
+   */
+  public enum Type {
+    SAVED, DELETED
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted change
+   */
+  @Override
+  public String toString() {
+    return String.format("%s %d at %s", type, projectId, changedAt);
+  }
+}
@@ -0,0 +1,21 @@
+package projects.entity;
+
+/**
+ * One full-text search match, without the project's full notes
+ * @param projectId Project ID
+ * @param projectName Project name
+ * @param snippet Part of the notes near the first search word, or null if there are no notes
+ * @param score Relevance; higher is a better match
+ */
+public record ProjectSearchHit(int projectId, String projectName, String snippet, double score) {
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted match
+   */
+  @Override
+  public String toString() {
+    String summary = String.format("%d: %s (%.2f)", projectId, projectName, score);
+    return snippet == null ? summary : summary + " - " + snippet;
+  }
+}
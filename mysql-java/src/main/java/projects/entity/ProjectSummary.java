@@ -0,0 +1,66 @@
+package projects.entity;
+
+// This is the short form of a project used by list views. It leaves out the hours and the
+// notes, so listing a page doesn't read every notes value off the server
+public class ProjectSummary {
+  private Integer projectId;
+  private String projectName;
+  private Integer difficulty;
+
+  /**
+   * Gets project ID
+   * @return Project ID
+   */
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  /**
+   * Sets project ID
+   * @param projectId Project ID
+   */
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  /**
+   * Gets project name
+   * @return Project name
+   */
+  public String getProjectName() {
+    return projectName;
+  }
+
+  /**
+   * Sets project name
+   * @param projectName Project name
+   */
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  /**
+   * Gets difficulty level
+   * @return Difficulty level
+   */
+  public Integer getDifficulty() {
+    return difficulty;
+  }
+
+  /**
+   * Sets difficulty level
+   * @param difficulty Difficulty level
+   */
+  public void setDifficulty(Integer difficulty) {
+    this.difficulty = difficulty;
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted summary
+   */
+  @Override
+  public String toString() {
+    return projectId + ": " + projectName;
+  }
+}
@@ -0,0 +1,17 @@
+package projects.exception;
+
+/**
+ * Thrown when no pooled connection freed up within the pool's acquire timeout, which means the
+ * database is overloaded rather than broken
+ */
+public class ConnectionTimeoutException extends DbException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Builds exception with a message
+   * @param message What went wrong
+   */
+  public ConnectionTimeoutException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,28 @@
+package projects.exception;
+
+/**
+ * Thrown when a project was changed by someone else between reading and updating it
+ */
+public class ProjectConflictException extends DbException {
+  private static final long serialVersionUID = 1L;
+
+  private final Integer projectId;
+
+  /**
+   * Builds exception for a project
+   * @param projectId ID of the project that changed
+   * @param message What went wrong
+   */
+  public ProjectConflictException(Integer projectId, String message) {
+    super(message);
+    this.projectId = projectId;
+  }
+
+  /**
+   * Gets the ID of the project that changed
+   * @return Project ID
+   */
+  public Integer getProjectId() {
+    return projectId;
+  }
+}
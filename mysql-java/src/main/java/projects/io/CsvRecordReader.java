@@ -0,0 +1,137 @@
+package projects.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// This reads RFC 4180 CSV with a header row. Quoted fields may contain commas, doubled quotes
+// and line breaks
+class CsvRecordReader implements ProjectRecordReader {
+  private final BufferedReader reader;
+  private final List<String> header;
+  private final StringBuilder raw = new StringBuilder();
+  private long nextLine = 1;
+  private long lineNumber;
+
+  CsvRecordReader(BufferedReader reader) throws IOException {
+    this.reader = reader;
+
+    List<String> names = readFields();
+
+    if (names == null) {
+      throw new IOException("CSV file is empty; a header row is required");
+    }
+
+    this.header = new ArrayList<>();
+    names.forEach(name -> header.add(name.trim().toLowerCase(Locale.ROOT)));
+  }
+
+  @Override
+  public Map<String, String> next() throws IOException {
+    List<String> fields;
+
+    do {
+      fields = readFields();
+    } while (fields != null && fields.size() == 1 && fields.get(0).isEmpty());
+
+    if (fields == null) {
+      return null;
+    }
+
+    if (fields.size() != header.size()) {
+      throw new IllegalArgumentException("Expected " + header.size() + " fields but found "
+          + fields.size());
+    }
+
+    Map<String, String> record = new HashMap<>();
+
+    for (int i = 0; i < fields.size(); i++) {
+      record.put(header.get(i), fields.get(i));
+    }
+
+    return record;
+  }
+
+  @Override
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  @Override
+  public String getRawRecord() {
+    return raw.toString();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  // Reads one record's fields, or null at end of file
+  private List<String> readFields() throws IOException {
+    String line = reader.readLine();
+
+    if (line == null) {
+      return null;
+    }
+
+    lineNumber = nextLine++;
+    raw.setLength(0);
+    raw.append(line);
+
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    int i = 0;
+
+    while (true) {
+      if (i == line.length()) {
+        if (!quoted) {
+          break;
+        }
+
+        // A quoted field continues on the next line
+        line = reader.readLine();
+
+        if (line == null) {
+          throw new IllegalArgumentException("Unterminated quoted field");
+        }
+
+        nextLine++;
+        raw.append('\n').append(line);
+        field.append('\n');
+        i = 0;
+        continue;
+      }
+
+      char ch = line.charAt(i++);
+
+      if (quoted) {
+        if (ch == '"') {
+          if (i < line.length() && line.charAt(i) == '"') {
+            field.append('"');
+            i++;
+          } else {
+            quoted = false;
+          }
+        } else {
+          field.append(ch);
+        }
+      } else if (ch == '"') {
+        quoted = true;
+      } else if (ch == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(ch);
+      }
+    }
+
+    fields.add(field.toString());
+    return fields;
+  }
+}
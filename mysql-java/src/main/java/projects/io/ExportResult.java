@@ -0,0 +1,37 @@
+package projects.io;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Summary of one export run
+ * @param exported Projects written
+ * @param ranges ID ranges the table was split into
+ * @param workers Ranges read at the same time
+ * @param elapsedMillis Wall-clock time of the run
+ * @param files Files written, in ID order
+ */
+public record ExportResult(long exported, int ranges, int workers, long elapsedMillis,
+    List<Path> files) {
+
+  /**
+   * Works out export throughput
+   * @return Projects written per second
+   */
+  public double rowsPerSecond() {
+    return elapsedMillis == 0 ? exported : exported * 1000.0 / elapsedMillis;
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted result
+   */
+  @Override
+  public String toString() {
+    String target = files.size() == 1 ? files.get(0).toString()
+        : files.size() + " files starting with " + files.get(0);
+
+    return String.format("Exported %,d rows from %d ranges on %d workers in %.1fs (%,.0f rows/s) to %s",
+        exported, ranges, workers, elapsedMillis / 1000.0, rowsPerSecond(), target);
+  }
+}
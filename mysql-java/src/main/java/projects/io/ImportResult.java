@@ -0,0 +1,35 @@
+package projects.io;
+
+import java.nio.file.Path;
+
+/**
+ * Summary of one import run
+ * @param read Records read from the file
+ * @param imported Projects saved
+ * @param rejected Records written to the rejects file
+ * @param elapsedMillis Wall-clock time of the run
+ * @param rejectsFile Rejects file, or null if nothing was rejected
+ */
+public record ImportResult(long read, long imported, long rejected, long elapsedMillis,
+    Path rejectsFile) {
+
+  /**
+   * Works out import throughput
+   * @return Projects saved per second
+   */
+  public double rowsPerSecond() {
+    return elapsedMillis == 0 ? imported : imported * 1000.0 / elapsedMillis;
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted result
+   */
+  @Override
+  public String toString() {
+    String summary = String.format("Read %,d rows, imported %,d, rejected %,d in %.1fs (%,.0f rows/s)",
+        read, imported, rejected, elapsedMillis / 1000.0, rowsPerSecond());
+
+    return rejectsFile == null ? summary : summary + ". Rejects: " + rejectsFile;
+  }
+}
@@ -0,0 +1,48 @@
+package projects.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Map;
+
+// This reads one flat JSON object per line. Blank lines are skipped
+class JsonLinesRecordReader implements ProjectRecordReader {
+  private final BufferedReader reader;
+  private long lineNumber;
+  private String raw = "";
+
+  JsonLinesRecordReader(BufferedReader reader) {
+    this.reader = reader;
+  }
+
+  @Override
+  public Map<String, String> next() throws IOException {
+    String line;
+
+    do {
+      line = reader.readLine();
+      lineNumber++;
+    } while (line != null && line.isBlank());
+
+    if (line == null) {
+      return null;
+    }
+
+    raw = line;
+    return ProjectJson.parseObject(line);
+  }
+
+  @Override
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  @Override
+  public String getRawRecord() {
+    return raw;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
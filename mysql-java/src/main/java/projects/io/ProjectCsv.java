@@ -0,0 +1,63 @@
+package projects.io;
+
+import java.io.IOException;
+import java.util.Objects;
+import projects.entity.Project;
+
+// This writes projects as RFC 4180 CSV rows that CsvRecordReader can read back
+public class ProjectCsv {
+  public static final String HEADER =
+      "project_id,project_name,estimated_hours,actual_hours,difficulty,notes";
+
+  private ProjectCsv() {
+  }
+
+  /**
+   * Writes one project as a CSV row, ending with a newline
+   * @param project Project to write
+   * @param out Destination
+   * @throws IOException If writing fails
+   */
+  public static void write(Project project, Appendable out) throws IOException {
+    out.append(Objects.toString(project.getProjectId(), "")).append(',');
+    appendField(project.getProjectName(), out);
+    out.append(',').append(Objects.toString(project.getEstimatedHours(), "")).append(',');
+    out.append(Objects.toString(project.getActualHours(), "")).append(',');
+    out.append(Objects.toString(project.getDifficulty(), "")).append(',');
+    appendField(project.getNotes(), out);
+    out.append('\n');
+  }
+
+  // Quotes a field only when it contains a comma, quote or line break
+  private static void appendField(String value, Appendable out) throws IOException {
+    if (value == null) {
+      return;
+    }
+
+    boolean needsQuotes = false;
+
+    for (int i = 0; i < value.length() && !needsQuotes; i++) {
+      char ch = value.charAt(i);
+      needsQuotes = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+    }
+
+    if (!needsQuotes) {
+      out.append(value);
+      return;
+    }
+
+    out.append('"');
+
+    for (int i = 0; i < value.length(); i++) {
+      char ch = value.charAt(i);
+
+      if (ch == '"') {
+        out.append('"');
+      }
+
+      out.append(ch);
+    }
+
+    out.append('"');
+  }
+}
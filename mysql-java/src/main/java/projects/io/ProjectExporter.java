@@ -0,0 +1,244 @@
+package projects.io;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import projects.dao.DbConnection;
+import projects.dao.IdRange;
+import projects.entity.Project;
+import projects.exception.DbException;
+import projects.service.ProjectService;
+
+// This exports the project table to CSV or JSONL. The project_id key space is split into ranges
+// that worker threads stream on their own connections, each into its own part file, so memory
+// stays at one buffer per worker however big the table is. The parts are then either kept as
+// numbered files or merged into the target by channel-to-channel copies
+public class ProjectExporter {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final ProjectService projectService;
+  private int workers = Math.min(4, DbConnection.getPoolConfig().getMaxSize());
+  private int rangesPerWorker = 4;
+  private boolean merge = true;
+
+  /**
+   * Builds an exporter
+   * @param projectService Service the projects are read through
+   */
+  public ProjectExporter(ProjectService projectService) {
+    this.projectService = projectService;
+  }
+
+  /**
+   * Sets how many ranges are read at the same time; capped at the connection pool size
+   * @param workers Worker threads
+   */
+  public void setWorkers(int workers) {
+    this.workers = workers;
+  }
+
+  /**
+   * Sets how many ranges each worker gets, so a range with dense IDs doesn't hold up the rest
+   * @param rangesPerWorker Ranges per worker
+   */
+  public void setRangesPerWorker(int rangesPerWorker) {
+    this.rangesPerWorker = rangesPerWorker;
+  }
+
+  /**
+   * Sets whether the parts are merged into one file or kept as numbered files
+   * @param merge True to merge into the target file
+   */
+  public void setMerge(boolean merge) {
+    this.merge = merge;
+  }
+
+  /**
+   * Exports every project. The format comes from the target's extension, and a trailing .gz
+   * compresses the output. Unmerged parts are named like "projects.part-0001.csv.gz" and each
+   * one is a complete file with its own header
+   * @param target CSV or JSONL file, optionally gzipped
+   * @return Export summary
+   * @throws DbException If the projects can't be read or the files can't be written
+   */
+  public ExportResult exportTo(Path target) {
+    ProjectFileFormat format = ProjectFileFormat.fromPath(target);
+    boolean gzip = target.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    int threads = Math.max(1, Math.min(workers, DbConnection.getPoolConfig().getMaxSize()));
+    long start = System.nanoTime();
+
+    // An empty table still gets one file, read from a range that matches nothing
+    List<IdRange> ranges = projectService.fetchProjectIdRange()
+        .map(range -> range.split(threads * Math.max(1, rangesPerWorker)))
+        .orElse(List.of(new IdRange(0, -1)));
+
+    List<Path> parts = new ArrayList<>(ranges.size());
+
+    for (int i = 0; i < ranges.size(); i++) {
+      parts.add(partPath(target, i + 1));
+    }
+
+    long exported = 0;
+    boolean succeeded = false;
+
+    try (ExecutorService executor = Executors.newFixedThreadPool(threads,
+        Thread.ofPlatform().name("project-export-", 1).factory())) {
+      List<Future<Long>> results = new ArrayList<>(ranges.size());
+
+      for (int i = 0; i < ranges.size(); i++) {
+        IdRange range = ranges.get(i);
+        Path part = parts.get(i);
+        results.add(executor.submit(() -> writePart(range, part, format, gzip, !merge)));
+      }
+
+      try {
+        for (Future<Long> result : results) {
+          exported += result.get();
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+
+      if (merge) {
+        mergeParts(parts, target, format, gzip);
+      }
+
+      succeeded = true;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw cause instanceof DbException ? (DbException)cause
+          : new DbException("Unable to export projects to " + target, cause);
+    } catch (IOException e) {
+      throw new DbException("Unable to write " + target, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DbException("Export to " + target + " was interrupted", e);
+    } finally {
+      if (merge || !succeeded) {
+        deleteQuietly(parts);
+      }
+
+      if (merge && !succeeded) {
+        deleteQuietly(List.of(target));
+      }
+    }
+
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    return new ExportResult(exported, ranges.size(), threads, elapsedMillis,
+        merge ? List.of(target) : List.copyOf(parts));
+  }
+
+  private long writePart(IdRange range, Path part, ProjectFileFormat format, boolean gzip,
+      boolean header) throws IOException {
+    long rows = 0;
+
+    try (Writer out = openWriter(part, gzip);
+        Stream<Project> projects = projectService.streamProjectsInRange(range)) {
+      if (header) {
+        out.write(format.getHeader());
+      }
+
+      Iterator<Project> iter = projects.iterator();
+
+      while (iter.hasNext()) {
+        format.write(iter.next(), out);
+        rows++;
+      }
+    }
+
+    return rows;
+  }
+
+  // Concatenated gzip members are still one valid gzip file, so compressed parts are copied
+  // as they are and the header is written as a member of its own
+  private static void mergeParts(List<Path> parts, Path target, ProjectFileFormat format,
+      boolean gzip) throws IOException {
+    try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.wrap(encodeHeader(format, gzip));
+
+      while (header.hasRemaining()) {
+        out.write(header);
+      }
+
+      for (Path part : parts) {
+        try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+          long size = in.size();
+          long position = 0;
+
+          while (position < size) {
+            position += in.transferTo(position, size - position, out);
+          }
+        }
+
+        Files.delete(part);
+      }
+    }
+  }
+
+  private static byte[] encodeHeader(ProjectFileFormat format, boolean gzip) throws IOException {
+    byte[] header = format.getHeader().getBytes(StandardCharsets.UTF_8);
+
+    if (!gzip || header.length == 0) {
+      return header;
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(header);
+    }
+
+    return bytes.toByteArray();
+  }
+
+  private static Writer openWriter(Path path, boolean gzip) throws IOException {
+    OutputStream out = Files.newOutputStream(path);
+
+    if (gzip) {
+      out = new GZIPOutputStream(out, BUFFER_SIZE);
+    }
+
+    return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+  }
+
+  // "projects.csv.gz" becomes "projects.part-0001.csv.gz"
+  private static Path partPath(Path target, int index) {
+    String name = target.getFileName().toString();
+    String gz = name.toLowerCase(Locale.ROOT).endsWith(".gz") ? name.substring(name.length() - 3) : "";
+    String base = name.substring(0, name.length() - gz.length());
+    int dot = base.lastIndexOf('.');
+
+    return target.resolveSibling(String.format("%s.part-%04d%s%s", base.substring(0, dot), index,
+        base.substring(dot), gz));
+  }
+
+  private static void deleteQuietly(List<Path> paths) {
+    for (Path path : paths) {
+      try {
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        System.err.println("Unable to delete " + path + ": " + e);
+      }
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package projects.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import projects.entity.Project;
+
+// These are the file formats projects can be imported from and exported to
+public enum ProjectFileFormat {
+  CSV(".csv"),
+  JSONL(".jsonl");
+
+  private final String extension;
+
+  ProjectFileFormat(String extension) {
+    this.extension = extension;
+  }
+
+  /**
+   * Gets the usual file extension
+   * @return Extension including the dot
+   */
+  public String getExtension() {
+    return extension;
+  }
+
+  /**
+   * Gets the line written before the first record
+   * @return Header line with its newline, or an empty string if the format has none
+   */
+  public String getHeader() {
+    return this == CSV ? ProjectCsv.HEADER + "\n" : "";
+  }
+
+  /**
+   * Writes one project as a record in this format
+   * @param project Project to write
+   * @param out Destination
+   * @throws IOException If writing fails
+   */
+  public void write(Project project, Appendable out) throws IOException {
+    if (this == CSV) {
+      ProjectCsv.write(project, out);
+    } else {
+      ProjectJson.write(project, out);
+    }
+  }
+
+  /**
+   * Picks a format from a file name, ignoring a trailing .gz
+   * @param path File path
+   * @return Matching format
+   * @throws IllegalArgumentException If the extension isn't recognised
+   */
+  public static ProjectFileFormat fromPath(Path path) {
+    String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+
+    if (name.endsWith(".gz")) {
+      name = name.substring(0, name.length() - 3);
+    }
+
+    if (name.endsWith(".csv")) {
+      return CSV;
+    }
+
+    if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+      return JSONL;
+    }
+
+    throw new IllegalArgumentException("Unknown file type for " + path + "; use .csv or .jsonl");
+  }
+}
@@ -0,0 +1,243 @@
+package projects.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import projects.entity.Project;
+import projects.exception.DbException;
+import projects.service.ProjectService;
+import projects.service.ProjectValidator;
+
+// This streams projects from a CSV or JSONL file into the database. The calling thread parses
+// and validates records into batches while a writer thread inserts earlier batches; a bounded
+// queue between them keeps memory flat and slows parsing down if the database falls behind
+public class ProjectImporter {
+  private static final List<Project> END_OF_INPUT = new ArrayList<>();
+
+  private final ProjectService projectService;
+  private int batchSize = 1000;
+  private int queueCapacity = 4;
+  private long progressInterval = 50_000;
+
+  /**
+   * Builds an importer
+   * @param projectService Service the batches are saved through
+   */
+  public ProjectImporter(ProjectService projectService) {
+    this.projectService = projectService;
+  }
+
+  /**
+   * Sets how many projects are inserted and committed together
+   * @param batchSize Rows per batch
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Sets how many parsed batches may wait for the writer
+   * @param queueCapacity Batches
+   */
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Sets how often progress is printed
+   * @param progressInterval Rows between progress lines, 0 for none
+   */
+  public void setProgressInterval(long progressInterval) {
+    this.progressInterval = progressInterval;
+  }
+
+  /**
+   * Imports a file, writing rows that fail validation to "&lt;file&gt;.rejects.txt". Batches
+   * commit as they go, so if the database fails part way the earlier batches stay saved
+   * @param path CSV or JSONL file, optionally gzipped
+   * @return Import summary
+   * @throws DbException If the file can't be read or a batch can't be saved
+   */
+  public ImportResult importFile(Path path) {
+    ProjectFileFormat format = ProjectFileFormat.fromPath(path);
+    Path rejectsPath = path.resolveSibling(path.getFileName() + ".rejects.txt");
+    long start = System.nanoTime();
+
+    BlockingQueue<List<Project>> queue = new ArrayBlockingQueue<>(queueCapacity);
+    AtomicLong imported = new AtomicLong();
+    AtomicReference<RuntimeException> writeError = new AtomicReference<>();
+    long read = 0;
+
+    try (ProjectRecordReader records = ProjectRecordReader.open(openReader(path), format);
+        RejectsFile rejects = new RejectsFile(rejectsPath)) {
+      Thread writer = Thread.ofPlatform().name("project-import-writer")
+          .start(() -> writeBatches(queue, imported, writeError));
+      List<Project> batch = new ArrayList<>(batchSize);
+
+      try {
+        while (writeError.get() == null) {
+          Map<String, String> record;
+
+          try {
+            record = records.next();
+          } catch (IllegalArgumentException e) {
+            read++;
+            rejects.write(records, e);
+            continue;
+          }
+
+          if (record == null) {
+            break;
+          }
+
+          read++;
+
+          try {
+            batch.add(toProject(record));
+          } catch (IllegalArgumentException | DbException e) {
+            rejects.write(records, e);
+            continue;
+          }
+
+          if (batch.size() == batchSize) {
+            queue.put(batch);
+            batch = new ArrayList<>(batchSize);
+          }
+
+          if (progressInterval > 0 && read % progressInterval == 0) {
+            System.out.printf("Import progress: read %,d, imported %,d, rejected %,d, %,.0f rows/s%n",
+                read, imported.get(), rejects.count, read / seconds(start));
+          }
+        }
+
+        if (!batch.isEmpty()) {
+          queue.put(batch);
+        }
+      } finally {
+        finishWriter(queue, writer);
+      }
+
+      if (writeError.get() != null) {
+        throw new DbException("Import stopped after saving " + imported.get() + " rows",
+            writeError.get());
+      }
+
+      long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+      return new ImportResult(read, imported.get(), rejects.count, elapsedMillis,
+          rejects.count == 0 ? null : rejectsPath);
+    } catch (IOException e) {
+      throw new DbException("Unable to read " + path, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DbException("Import of " + path + " was interrupted", e);
+    }
+  }
+
+  // Applies the same rules as the menu prompts
+  private static Project toProject(Map<String, String> record) {
+    Project project = new Project();
+    String notes = record.get("notes");
+
+    project.setProjectName(ProjectValidator.requireName(record.get("project_name")));
+    project.setEstimatedHours(ProjectValidator.parseHours(record.get("estimated_hours")));
+    project.setActualHours(ProjectValidator.parseHours(record.get("actual_hours")));
+    project.setDifficulty(ProjectValidator.parseDifficulty(record.get("difficulty")));
+    project.setNotes(notes == null || notes.isBlank() ? null : notes);
+
+    return project;
+  }
+
+  // After a failure the writer keeps draining the queue so the parser never blocks on it
+  private void writeBatches(BlockingQueue<List<Project>> queue, AtomicLong imported,
+      AtomicReference<RuntimeException> writeError) {
+    try {
+      while (true) {
+        List<Project> batch = queue.take();
+
+        if (batch == END_OF_INPUT) {
+          return;
+        }
+
+        if (writeError.get() == null) {
+          try {
+            projectService.addProjects(batch, batch.size());
+            imported.addAndGet(batch.size());
+          } catch (RuntimeException e) {
+            writeError.set(e);
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void finishWriter(BlockingQueue<List<Project>> queue, Thread writer) {
+    try {
+      queue.put(END_OF_INPUT);
+      writer.join();
+    } catch (InterruptedException e) {
+      writer.interrupt();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static BufferedReader openReader(Path path) throws IOException {
+    InputStream in = Files.newInputStream(path);
+
+    if (path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+      in = new GZIPInputStream(in, 1 << 16);
+    }
+
+    return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+  }
+
+  private static double seconds(long startNanos) {
+    return Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+  }
+
+  // Rejected records with the reason, one per line. The file is only created if needed, and one
+  // left over from an earlier run is removed
+  private static class RejectsFile implements AutoCloseable {
+    private final Path path;
+    private BufferedWriter writer;
+    private long count;
+
+    RejectsFile(Path path) throws IOException {
+      this.path = path;
+      Files.deleteIfExists(path);
+    }
+
+    void write(ProjectRecordReader records, Exception reason) throws IOException {
+      if (writer == null) {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+      }
+
+      count++;
+      writer.write("line " + records.getLineNumber() + ": " + reason.getMessage() + "\t"
+          + records.getRawRecord().replace("\n", "\\n"));
+      writer.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (writer != null) {
+        writer.close();
+      }
+    }
+  }
+}
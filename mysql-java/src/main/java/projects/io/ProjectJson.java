@@ -0,0 +1,252 @@
+package projects.io;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import projects.entity.Project;
+
+// This is a small hand-written JSON codec for flat project objects. Numbers are kept as their
+// original text so hours keep their exact decimal value
+public class ProjectJson {
+  private final String text;
+  private int pos;
+
+  private ProjectJson(String text) {
+    this.text = text;
+  }
+
+  /**
+   * Writes a project as one JSON object on its own line
+   * @param project Project to write
+   * @param out Destination
+   * @throws IOException If writing fails
+   */
+  public static void write(Project project, Appendable out) throws IOException {
+    out.append("{\"project_id\":").append(Objects.toString(project.getProjectId(), "null"));
+    out.append(",\"project_name\":");
+    appendString(project.getProjectName(), out);
+    out.append(",\"estimated_hours\":").append(Objects.toString(project.getEstimatedHours(), "null"));
+    out.append(",\"actual_hours\":").append(Objects.toString(project.getActualHours(), "null"));
+    out.append(",\"difficulty\":").append(Objects.toString(project.getDifficulty(), "null"));
+    out.append(",\"notes\":");
+    appendString(project.getNotes(), out);
+    out.append("}\n");
+  }
+
+  /**
+   * Writes a JSON string literal, or null
+   * @param value Text to write
+   * @param out Destination
+   * @throws IOException If writing fails
+   */
+  public static void appendString(String value, Appendable out) throws IOException {
+    if (value == null) {
+      out.append("null");
+      return;
+    }
+
+    out.append('"');
+
+    for (int i = 0; i < value.length(); i++) {
+      char ch = value.charAt(i);
+
+      switch (ch) {
+        case '"':
+          out.append("\\\"");
+          break;
+        case '\\':
+          out.append("\\\\");
+          break;
+        case '\n':
+          out.append("\\n");
+          break;
+        case '\r':
+          out.append("\\r");
+          break;
+        case '\t':
+          out.append("\\t");
+          break;
+        default:
+          if (ch < 0x20) {
+            out.append(String.format("\\u%04x", (int)ch));
+          } else {
+            out.append(ch);
+          }
+          break;
+      }
+    }
+
+    out.append('"');
+  }
+
+  /**
+   * Parses one flat JSON object; nested objects and arrays are rejected
+   * @param text JSON text
+   * @return Values by key as text; JSON null becomes null
+   * @throws IllegalArgumentException If the text isn't a flat JSON object
+   */
+  public static Map<String, String> parseObject(String text) {
+    ProjectJson parser = new ProjectJson(text);
+    Map<String, String> values = parser.readObject();
+
+    parser.skipWhitespace();
+
+    if (parser.pos != text.length()) {
+      throw parser.error("Unexpected text after object");
+    }
+
+    return values;
+  }
+
+  private Map<String, String> readObject() {
+    Map<String, String> values = new HashMap<>();
+
+    expect('{');
+    skipWhitespace();
+
+    if (peek() == '}') {
+      pos++;
+      return values;
+    }
+
+    while (true) {
+      skipWhitespace();
+      String key = readString();
+      skipWhitespace();
+      expect(':');
+      skipWhitespace();
+      values.put(key, readValue());
+      skipWhitespace();
+
+      char ch = next();
+
+      if (ch == '}') {
+        return values;
+      }
+
+      if (ch != ',') {
+        throw error("Expected ',' or '}'");
+      }
+    }
+  }
+
+  private String readValue() {
+    char ch = peek();
+
+    if (ch == '"') {
+      return readString();
+    }
+
+    if (ch == '{' || ch == '[') {
+      throw error("Nested values are not supported");
+    }
+
+    int start = pos;
+
+    while (pos < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+      pos++;
+    }
+
+    String literal = text.substring(start, pos);
+
+    if (literal.equals("null")) {
+      return null;
+    }
+
+    if (literal.equals("true") || literal.equals("false")
+        || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+      return literal;
+    }
+
+    throw error("Invalid value '" + literal + "'");
+  }
+
+  private String readString() {
+    expect('"');
+    StringBuilder value = new StringBuilder();
+
+    while (true) {
+      char ch = next();
+
+      if (ch == '"') {
+        return value.toString();
+      }
+
+      if (ch != '\\') {
+        value.append(ch);
+        continue;
+      }
+
+      char escaped = next();
+
+      switch (escaped) {
+        case '"':
+        case '\\':
+        case '/':
+          value.append(escaped);
+          break;
+        case 'b':
+          value.append('\b');
+          break;
+        case 'f':
+          value.append('\f');
+          break;
+        case 'n':
+          value.append('\n');
+          break;
+        case 'r':
+          value.append('\r');
+          break;
+        case 't':
+          value.append('\t');
+          break;
+        case 'u':
+          if (pos + 4 > text.length()) {
+            throw error("Truncated unicode escape");
+          }
+
+          try {
+            value.append((char)Integer.parseInt(text.substring(pos, pos + 4), 16));
+          } catch (NumberFormatException e) {
+            throw error("Invalid unicode escape");
+          }
+
+          pos += 4;
+          break;
+        default:
+          throw error("Invalid escape '\\" + escaped + "'");
+      }
+    }
+  }
+
+  private void skipWhitespace() {
+    while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+      pos++;
+    }
+  }
+
+  private char peek() {
+    if (pos >= text.length()) {
+      throw error("Unexpected end of input");
+    }
+
+    return text.charAt(pos);
+  }
+
+  private char next() {
+    char ch = peek();
+    pos++;
+    return ch;
+  }
+
+  private void expect(char expected) {
+    if (next() != expected) {
+      throw error("Expected '" + expected + "'");
+    }
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException("Invalid JSON at position " + pos + ": " + message);
+  }
+}
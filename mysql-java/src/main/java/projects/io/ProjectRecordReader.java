@@ -0,0 +1,49 @@
+package projects.io;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+// This reads one record at a time from an import file as column name to text value, so files of
+// any size can be read in constant memory
+public interface ProjectRecordReader extends Closeable {
+  /**
+   * Reads the next record
+   * @return Column values by name, or null at end of file
+   * @throws IOException If reading fails
+   * @throws IllegalArgumentException If the record is malformed; the next call moves past it
+   */
+  Map<String, String> next() throws IOException;
+
+  /**
+   * Gets the line the last record started on
+   * @return Line number, starting at 1
+   */
+  long getLineNumber();
+
+  /**
+   * Gets the text of the last record, for the rejects file
+   * @return Raw record
+   */
+  String getRawRecord();
+
+  /**
+   * Opens a reader for a format
+   * @param reader Source text
+   * @param format File format
+   * @return Record reader
+   * @throws IOException If a header can't be read
+   */
+  static ProjectRecordReader open(BufferedReader reader, ProjectFileFormat format)
+      throws IOException {
+    switch (format) {
+      case CSV:
+        return new CsvRecordReader(reader);
+      case JSONL:
+        return new JsonLinesRecordReader(reader);
+      default:
+        throw new IllegalArgumentException("Unsupported format " + format);
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package projects.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// This collects latency and throughput for DAO operations, connection acquires and transactions.
+// It is readable through JMX, getReport(), or a periodic dump to stdout when
+// "projects.metrics.dumpSeconds" is set
+public class DaoMetrics implements DaoMetricsMXBean {
+  private static final DaoMetrics INSTANCE = new DaoMetrics();
+
+  static {
+    INSTANCE.register();
+  }
+
+  private final Map<String, Operation> operations = new ConcurrentSkipListMap<>();
+  private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+  private final LatencyHistogram transactions = new LatencyHistogram();
+  private volatile long slowQueryNanos =
+      TimeUnit.MILLISECONDS.toNanos(Long.getLong("projects.metrics.slowQueryMillis", 200));
+
+  /**
+   * Gets the shared metrics
+   * @return DAO metrics
+   */
+  public static DaoMetrics getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts timing a DAO call
+   * @param operation Operation name
+   * @return Timer to close when the call ends
+   */
+  public static OperationTimer start(String operation) {
+    return new OperationTimer(INSTANCE, operation);
+  }
+
+  /**
+   * Records time spent waiting for a pooled connection
+   * @param nanos Wait in nanoseconds
+   */
+  public static void recordConnectionAcquire(long nanos) {
+    INSTANCE.connectionAcquire.record(nanos);
+  }
+
+  /**
+   * Records a transaction from start to commit or rollback
+   * @param nanos Duration in nanoseconds
+   */
+  public static void recordTransaction(long nanos) {
+    INSTANCE.transactions.record(nanos);
+  }
+
+  void record(String operation, long nanos, long rows, boolean failed) {
+    Operation metrics = operations.computeIfAbsent(operation, name -> new Operation());
+
+    metrics.count.increment();
+    metrics.rows.add(rows);
+    metrics.latency.record(nanos);
+
+    if (failed) {
+      metrics.errors.increment();
+    }
+
+    if (nanos >= slowQueryNanos) {
+      SlowQueryEvent event = new SlowQueryEvent();
+
+      if (event.isEnabled()) {
+        event.operation = operation;
+        event.elapsed = nanos;
+        event.rows = rows;
+        event.failed = failed;
+        event.commit();
+      }
+    }
+  }
+
+  @Override
+  public List<OperationStats> getOperations() {
+    List<OperationStats> stats = new ArrayList<>();
+
+    operations.forEach((name, metrics) -> stats.add(new OperationStats(name, metrics.count.sum(),
+        metrics.errors.sum(), metrics.rows.sum(), metrics.latency.snapshot())));
+
+    return stats;
+  }
+
+  @Override
+  public LatencyStats getConnectionAcquire() {
+    return connectionAcquire.snapshot();
+  }
+
+  @Override
+  public LatencyStats getTransactions() {
+    return transactions.snapshot();
+  }
+
+  @Override
+  public long getSlowQueryMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(slowQueryNanos);
+  }
+
+  @Override
+  public void setSlowQueryMillis(long slowQueryMillis) {
+    slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+  }
+
+  @Override
+  public String getReport() {
+    StringBuilder report = new StringBuilder("DAO metrics:");
+
+    getOperations().forEach(stats -> report.append("\n   ").append(stats));
+    report.append("\n   connection acquire: ").append(getConnectionAcquire());
+    report.append("\n   transactions: ").append(getTransactions());
+
+    return report.toString();
+  }
+
+  @Override
+  public void reset() {
+    operations.clear();
+    connectionAcquire.reset();
+    transactions.reset();
+  }
+
+  private void register() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName("projects:type=DaoMetrics");
+
+      if (!server.isRegistered(name)) {
+        server.registerMBean(this, name);
+      }
+    } catch (JMException e) {
+      System.err.println("Unable to register DAO metrics with JMX: " + e);
+    }
+
+    long dumpSeconds = Long.getLong("projects.metrics.dumpSeconds", 0);
+
+    if (dumpSeconds > 0) {
+      ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dao-metrics-dump");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+      dumper.scheduleAtFixedRate(() -> System.out.println(getReport()), dumpSeconds, dumpSeconds,
+          TimeUnit.SECONDS);
+    }
+  }
+
+  // Counters for one operation name
+  private static class Operation {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+  }
+}
@@ -0,0 +1,47 @@
+package projects.metrics;
+
+import java.util.List;
+
+// This is the JMX view of DaoMetrics, registered as "projects:type=DaoMetrics"
+public interface DaoMetricsMXBean {
+  /**
+   * Gets per-operation statistics
+   * @return One entry per DAO operation
+   */
+  List<OperationStats> getOperations();
+
+  /**
+   * Gets time spent waiting for pooled connections
+   * @return Acquire latency
+   */
+  LatencyStats getConnectionAcquire();
+
+  /**
+   * Gets time from transaction start to commit or rollback
+   * @return Transaction duration
+   */
+  LatencyStats getTransactions();
+
+  /**
+   * Gets the threshold above which a JFR slow query event is committed
+   * @return Threshold in milliseconds
+   */
+  long getSlowQueryMillis();
+
+  /**
+   * Sets the slow query threshold
+   * @param slowQueryMillis Threshold in milliseconds
+   */
+  void setSlowQueryMillis(long slowQueryMillis);
+
+  /**
+   * Builds a multi-line text report of all metrics
+   * @return Report
+   */
+  String getReport();
+
+  /**
+   * Clears all metrics
+   */
+  void reset();
+}
@@ -0,0 +1,134 @@
+package projects.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// This is a lock-free, HDR-style latency histogram. Values are bucketed by power of two with 32
+// linear sub-buckets each, so percentiles are within about 3% at any scale from nanoseconds up
+// to several minutes, using a fixed few kilobytes per histogram
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 42; // about 73 minutes in nanoseconds
+  private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+  private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder totalCount = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * Records one value
+   * @param nanos Latency in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+
+    counts.incrementAndGet(indexOf(value));
+    totalCount.increment();
+    totalNanos.add(value);
+    maxNanos.accumulateAndGet(value, Math::max);
+  }
+
+  /**
+   * Gets the number of recorded values
+   * @return Count
+   */
+  public long getCount() {
+    return totalCount.sum();
+  }
+
+  /**
+   * Gets the mean of recorded values
+   * @return Mean in nanoseconds
+   */
+  public long getMeanNanos() {
+    long count = totalCount.sum();
+    return count == 0 ? 0 : totalNanos.sum() / count;
+  }
+
+  /**
+   * Gets the largest recorded value
+   * @return Maximum in nanoseconds
+   */
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Gets the value at a percentile, reported as the upper edge of its bucket
+   * @param percentile Percentile between 0 and 100
+   * @return Latency in nanoseconds
+   */
+  public long getValueAtPercentile(double percentile) {
+    long count = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+
+    if (count == 0) {
+      return 0;
+    }
+
+    long target = Math.max(1, (long)Math.ceil(count * Math.min(percentile, 100) / 100));
+    long seen = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+
+      if (seen >= target) {
+        return Math.min(upperBoundOf(i), maxNanos.get());
+      }
+    }
+
+    return maxNanos.get();
+  }
+
+  /**
+   * Summarises the histogram
+   * @return Latency statistics
+   */
+  public LatencyStats snapshot() {
+    return new LatencyStats(getCount(), getMeanNanos(), getValueAtPercentile(50),
+        getValueAtPercentile(95), getValueAtPercentile(99), getMaxNanos());
+  }
+
+  /**
+   * Clears all recorded values
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+
+    totalCount.reset();
+    totalNanos.reset();
+    maxNanos.set(0);
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int)value;
+    }
+
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int mantissa = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+  }
+
+  static long upperBoundOf(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long mantissa = index % SUB_BUCKETS;
+    long lower = (1L << exponent) | (mantissa << (exponent - SUB_BUCKET_BITS));
+
+    return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+}
@@ -0,0 +1,107 @@
+package projects.metrics;
+
+import java.beans.ConstructorProperties;
+
+// This is a summary of one latency histogram, in microseconds
+public class LatencyStats {
+  private final long count;
+  private final double meanMicros;
+  private final double p50Micros;
+  private final double p95Micros;
+  private final double p99Micros;
+  private final double maxMicros;
+
+  /**
+   * Builds stats from nanosecond values
+   * @param count Recorded values
+   * @param meanNanos Mean
+   * @param p50Nanos Median
+   * @param p95Nanos 95th percentile
+   * @param p99Nanos 99th percentile
+   * @param maxNanos Maximum
+   */
+  public LatencyStats(long count, long meanNanos, long p50Nanos, long p95Nanos, long p99Nanos,
+      long maxNanos) {
+    this(count, meanNanos / 1000.0, p50Nanos / 1000.0, p95Nanos / 1000.0, p99Nanos / 1000.0,
+        maxNanos / 1000.0);
+  }
+
+  /**
+   * Builds stats from microsecond values (used by JMX to rebuild the object)
+   * @param count Recorded values
+   * @param meanMicros Mean
+   * @param p50Micros Median
+   * @param p95Micros 95th percentile
+   * @param p99Micros 99th percentile
+   * @param maxMicros Maximum
+   */
+  @ConstructorProperties({"count", "meanMicros", "p50Micros", "p95Micros", "p99Micros",
+      "maxMicros"})
+  public LatencyStats(long count, double meanMicros, double p50Micros, double p95Micros,
+      double p99Micros, double maxMicros) {
+    this.count = count;
+    this.meanMicros = meanMicros;
+    this.p50Micros = p50Micros;
+    this.p95Micros = p95Micros;
+    this.p99Micros = p99Micros;
+    this.maxMicros = maxMicros;
+  }
+
+  /**
+   * Gets the number of recorded values
+   * @return Count
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the mean
+   * @return Mean in microseconds
+   */
+  public double getMeanMicros() {
+    return meanMicros;
+  }
+
+  /**
+   * Gets the median
+   * @return Median in microseconds
+   */
+  public double getP50Micros() {
+    return p50Micros;
+  }
+
+  /**
+   * Gets the 95th percentile
+   * @return 95th percentile in microseconds
+   */
+  public double getP95Micros() {
+    return p95Micros;
+  }
+
+  /**
+   * Gets the 99th percentile
+   * @return 99th percentile in microseconds
+   */
+  public double getP99Micros() {
+    return p99Micros;
+  }
+
+  /**
+   * Gets the maximum
+   * @return Maximum in microseconds
+   */
+  public double getMaxMicros() {
+    return maxMicros;
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted statistics
+   */
+  @Override
+  public String toString() {
+    return String.format("count=%d mean=%.1fus p50=%.1fus p95=%.1fus p99=%.1fus max=%.1fus",
+        count, meanMicros, p50Micros, p95Micros, p99Micros, maxMicros);
+  }
+}
@@ -0,0 +1,79 @@
+package projects.metrics;
+
+import java.beans.ConstructorProperties;
+
+// This is a summary of one DAO operation: call and error counts, rows and latency
+public class OperationStats {
+  private final String name;
+  private final long count;
+  private final long errors;
+  private final long rows;
+  private final LatencyStats latency;
+
+  /**
+   * Builds operation stats
+   * @param name Operation name
+   * @param count Calls
+   * @param errors Calls that threw
+   * @param rows Rows mapped or affected across all calls
+   * @param latency Call latency
+   */
+  @ConstructorProperties({"name", "count", "errors", "rows", "latency"})
+  public OperationStats(String name, long count, long errors, long rows, LatencyStats latency) {
+    this.name = name;
+    this.count = count;
+    this.errors = errors;
+    this.rows = rows;
+    this.latency = latency;
+  }
+
+  /**
+   * Gets the operation name
+   * @return Operation name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of calls
+   * @return Calls
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * Gets the number of calls that threw
+   * @return Errors
+   */
+  public long getErrors() {
+    return errors;
+  }
+
+  /**
+   * Gets rows mapped or affected across all calls
+   * @return Rows
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  /**
+   * Gets call latency
+   * @return Latency statistics
+   */
+  public LatencyStats getLatency() {
+    return latency;
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted statistics
+   */
+  @Override
+  public String toString() {
+    double rowsPerCall = count == 0 ? 0 : (double)rows / count;
+    return String.format("%s: errors=%d rows/call=%.1f %s", name, errors, rowsPerCall, latency);
+  }
+}
@@ -0,0 +1,33 @@
+package projects.metrics;
+
+// This times one DAO call. Open it in the same try-with-resources as the connection and call
+// succeeded() before returning; a timer closed without succeeded() counts as an error
+public class OperationTimer implements AutoCloseable {
+  private final DaoMetrics metrics;
+  private final String operation;
+  private final long startNanos = System.nanoTime();
+  private boolean succeeded;
+  private long rows;
+
+  OperationTimer(DaoMetrics metrics, String operation) {
+    this.metrics = metrics;
+    this.operation = operation;
+  }
+
+  /**
+   * Marks the call as successful
+   * @param rowCount Rows mapped or affected
+   */
+  public void succeeded(long rowCount) {
+    succeeded = true;
+    rows = rowCount;
+  }
+
+  /**
+   * Records the call
+   */
+  @Override
+  public void close() {
+    metrics.record(operation, System.nanoTime() - startNanos, rows, !succeeded);
+  }
+}
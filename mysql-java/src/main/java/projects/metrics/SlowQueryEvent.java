@@ -0,0 +1,28 @@
+package projects.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// This is the JFR event committed for DAO operations slower than the slow query threshold
+@Name("projects.SlowQuery")
+@Label("Slow Query")
+@Category({"Projects", "Database"})
+@Description("A DAO operation that took longer than projects.metrics.slowQueryMillis")
+class SlowQueryEvent extends Event {
+  @Label("Operation")
+  String operation;
+
+  @Label("Elapsed")
+  @Timespan(Timespan.NANOSECONDS)
+  long elapsed;
+
+  @Label("Rows")
+  long rows;
+
+  @Label("Failed")
+  boolean failed;
+}
@@ -0,0 +1,95 @@
+package projects.report;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Estimate accuracy for the projects at one difficulty, or for all projects. Only projects with
+ * a positive estimate and an actual value count towards the overrun figures
+ * @param difficulty Difficulty level, or null for projects without one or for the overall total
+ * @param projects Projects in the group
+ * @param estimatedCount Projects with estimated hours
+ * @param estimatedHours Total estimated hours
+ * @param actualCount Projects with actual hours
+ * @param actualHours Total actual hours
+ * @param comparedCount Projects with a positive estimate and actual hours
+ * @param comparedEstimatedHours Estimated hours of the compared projects
+ * @param comparedActualHours Actual hours of the compared projects
+ * @param overrunRatioSum Sum of each compared project's overrun ratio
+ * @param overrunCount Compared projects that took longer than estimated
+ * @param buckets Compared projects by overrun ratio, lowest ratios first
+ */
+public record DifficultySummary(Integer difficulty, long projects, long estimatedCount,
+    BigDecimal estimatedHours, long actualCount, BigDecimal actualHours, long comparedCount,
+    BigDecimal comparedEstimatedHours, BigDecimal comparedActualHours, double overrunRatioSum,
+    long overrunCount, List<OverrunBucket> buckets) {
+
+  /**
+   * Works out average estimated hours
+   * @return Average, or null if no project has an estimate
+   */
+  public BigDecimal averageEstimatedHours() {
+    return average(estimatedHours, estimatedCount);
+  }
+
+  /**
+   * Works out average actual hours
+   * @return Average, or null if no project has actual hours
+   */
+  public BigDecimal averageActualHours() {
+    return average(actualHours, actualCount);
+  }
+
+  /**
+   * Works out total actual hours over total estimated hours, so big projects weigh more
+   * @return Ratio, above 1 meaning estimates ran over, or null if nothing can be compared
+   */
+  public BigDecimal overrunRatio() {
+    if (comparedCount == 0 || comparedEstimatedHours.signum() == 0) {
+      return null;
+    }
+
+    return comparedActualHours.divide(comparedEstimatedHours, 3, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Works out the average of each project's overrun ratio, so every project weighs the same
+   * @return Mean ratio, or NaN if nothing can be compared
+   */
+  public double meanOverrunRatio() {
+    return comparedCount == 0 ? Double.NaN : overrunRatioSum / comparedCount;
+  }
+
+  /**
+   * Works out how often estimates ran over
+   * @return Percentage of compared projects that took longer than estimated
+   */
+  public double overrunPercent() {
+    return comparedCount == 0 ? 0 : overrunCount * 100.0 / comparedCount;
+  }
+
+  /**
+   * Finds the bucket holding a percentile of the overrun ratios
+   * @param percentile Percentile, 0 to 100
+   * @return Bucket, or null if nothing can be compared
+   */
+  public OverrunBucket percentileBucket(double percentile) {
+    long rank = (long)Math.ceil(comparedCount * percentile / 100.0);
+    long seen = 0;
+
+    for (OverrunBucket bucket : buckets) {
+      seen += bucket.projects();
+
+      if (seen > 0 && seen >= rank) {
+        return bucket;
+      }
+    }
+
+    return null;
+  }
+
+  private static BigDecimal average(BigDecimal total, long count) {
+    return count == 0 ? null : total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+  }
+}
@@ -0,0 +1,57 @@
+package projects.report;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Estimate accuracy grouped by difficulty, aggregated by the database
+ * @param byDifficulty One summary per difficulty level, in difficulty order
+ * @param total Summary across all projects
+ */
+public record EstimateReport(List<DifficultySummary> byDifficulty, DifficultySummary total) {
+
+  /**
+   * Builds a table with a row per difficulty, a total row and the overall ratio spread
+   * @return Formatted report
+   */
+  @Override
+  public String toString() {
+    StringBuilder report = new StringBuilder(String.format("%-10s %8s %10s %10s %8s %8s %7s %7s %6s %11s%n",
+        "Difficulty", "Projects", "Est hrs", "Act hrs", "Avg est", "Avg act", "Ratio", "Mean", "Over%",
+        "Median"));
+
+    byDifficulty.forEach(summary -> appendRow(report,
+        summary.difficulty() == null ? "none" : summary.difficulty().toString(), summary));
+    appendRow(report, "all", total);
+
+    report.append("Overrun ratio spread (actual / estimated):");
+
+    long cumulative = 0;
+
+    for (OverrunBucket bucket : total.buckets()) {
+      cumulative += bucket.projects();
+      report.append(String.format("%n  %-10s %8d  %5.1f%% cumulative", bucket.label(),
+          bucket.projects(),
+          total.comparedCount() == 0 ? 0 : cumulative * 100.0 / total.comparedCount()));
+    }
+
+    return report.toString();
+  }
+
+  private static void appendRow(StringBuilder report, String label, DifficultySummary summary) {
+    OverrunBucket median = summary.percentileBucket(50);
+
+    report.append(String.format("%-10s %8d %10s %10s %8s %8s %7s %7s %5.1f%% %11s%n", label,
+        summary.projects(), format(summary.estimatedHours()), format(summary.actualHours()),
+        format(summary.averageEstimatedHours()), format(summary.averageActualHours()),
+        format(summary.overrunRatio()),
+        Double.isNaN(summary.meanOverrunRatio()) ? "-" : String.format("%.3f", summary.meanOverrunRatio()),
+        summary.overrunPercent(),
+        median == null ? "-" : median.label()));
+  }
+
+  private static String format(BigDecimal value) {
+    return Objects.toString(value, "-");
+  }
+}
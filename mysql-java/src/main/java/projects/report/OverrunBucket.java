@@ -0,0 +1,28 @@
+package projects.report;
+
+import java.math.BigDecimal;
+
+/**
+ * Projects whose overrun ratio (actual hours / estimated hours) falls in one range
+ * @param lowerBound Lowest ratio in the bucket, or null for no lower bound
+ * @param upperBound Ratio the bucket stops below, or null for no upper bound
+ * @param projects Projects in the bucket
+ */
+public record OverrunBucket(BigDecimal lowerBound, BigDecimal upperBound, long projects) {
+
+  /**
+   * Describes the ratio range, like "0.95-1.05", "<0.50" or ">=3.00"
+   * @return Range label
+   */
+  public String label() {
+    if (lowerBound == null) {
+      return "<" + upperBound;
+    }
+
+    if (upperBound == null) {
+      return ">=" + lowerBound;
+    }
+
+    return lowerBound + "-" + upperBound;
+  }
+}
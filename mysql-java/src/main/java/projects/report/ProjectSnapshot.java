@@ -0,0 +1,439 @@
+package projects.report;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import projects.dao.ProjectFilter;
+import projects.entity.Project;
+
+// This is a read-only copy of every project's ID, name, difficulty and hours, held column by
+// column in primitive arrays rather than as Project objects. A row costs about 28 bytes plus its
+// share of the name table, and a scan is a loop over arrays with no boxing or pointer chasing.
+// Names and difficulties are dictionary encoded: each row holds the index of its value in a
+// table of distinct values, so a name prefix or difficulty set is checked once per distinct
+// value instead of once per row. Hours are whole hundredths of an hour in long columns. A
+// snapshot never changes after it is built; get a fresh one to see later writes
+public final class ProjectSnapshot {
+  // Marks a row whose hours are null
+  private static final long NO_HOURS = Long.MIN_VALUE;
+
+  // Totals kept for each difficulty during a scan
+  private static final int PROJECTS = 0;
+  private static final int ESTIMATED_COUNT = 1;
+  private static final int ESTIMATED_CENTS = 2;
+  private static final int ACTUAL_COUNT = 3;
+  private static final int ACTUAL_CENTS = 4;
+  private static final int OVER_BUDGET_COUNT = 5;
+  private static final int TOTAL_FIELDS = 6;
+
+  // Rows below this are scanned on the calling thread rather than split further
+  private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+  private final int size;
+  private final int[] projectIds;
+  private final int[] nameCodes;
+  private final String[] names;
+  private final int[] difficultyCodes;
+  private final Integer[] difficulties;
+  private final long[] estimatedCents;
+  private final long[] actualCents;
+  private final long loadedAtMillis;
+  private final long loadMillis;
+
+  private ProjectSnapshot(Builder builder, long loadMillis) {
+    this.size = builder.size;
+    this.projectIds = Arrays.copyOf(builder.projectIds, size);
+    this.nameCodes = Arrays.copyOf(builder.nameCodes, size);
+    this.names = builder.names.toArray(new String[0]);
+    this.difficultyCodes = Arrays.copyOf(builder.difficultyCodes, size);
+    this.difficulties = builder.difficulties.toArray(new Integer[0]);
+    this.estimatedCents = Arrays.copyOf(builder.estimatedCents, size);
+    this.actualCents = Arrays.copyOf(builder.actualCents, size);
+    this.loadedAtMillis = System.currentTimeMillis();
+    this.loadMillis = loadMillis;
+  }
+
+  /**
+   * Builds a snapshot in one pass over a stream of projects, such as
+   * ProjectDao.streamProjectsForSnapshot(). Notes are not kept
+   * @param projects Projects sorted by ID; the stream is not closed here
+   * @return Snapshot of the projects
+   * @throws IllegalArgumentException If the projects are not in ascending ID order
+   */
+  public static ProjectSnapshot load(Stream<Project> projects) {
+    long start = System.nanoTime();
+    Builder builder = new Builder();
+    Iterator<Project> iter = projects.iterator();
+
+    while (iter.hasNext()) {
+      builder.add(iter.next());
+    }
+
+    return new ProjectSnapshot(builder, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Gets the number of projects
+   * @return Rows in the snapshot
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets when the snapshot was built
+   * @return Epoch milliseconds
+   */
+  public long getLoadedAtMillis() {
+    return loadedAtMillis;
+  }
+
+  /**
+   * Finds the row holding a project
+   * @param projectId Project ID
+   * @return Row index, or -1 if the project isn't in the snapshot
+   */
+  public int indexOf(int projectId) {
+    int row = Arrays.binarySearch(projectIds, projectId);
+    return row < 0 ? -1 : row;
+  }
+
+  /**
+   * Gets the project ID of a row
+   * @param row Row index
+   * @return Project ID
+   */
+  public int getProjectId(int row) {
+    return projectIds[Objects.checkIndex(row, size)];
+  }
+
+  /**
+   * Gets the project name of a row
+   * @param row Row index
+   * @return Project name
+   */
+  public String getProjectName(int row) {
+    return names[nameCodes[Objects.checkIndex(row, size)]];
+  }
+
+  /**
+   * Gets the difficulty of a row
+   * @param row Row index
+   * @return Difficulty level, or null
+   */
+  public Integer getDifficulty(int row) {
+    return difficulties[difficultyCodes[Objects.checkIndex(row, size)]];
+  }
+
+  /**
+   * Gets the estimated hours of a row
+   * @param row Row index
+   * @return Estimated hours, or null
+   */
+  public BigDecimal getEstimatedHours(int row) {
+    return toHours(estimatedCents[Objects.checkIndex(row, size)]);
+  }
+
+  /**
+   * Gets the actual hours of a row
+   * @param row Row index
+   * @return Actual hours, or null
+   */
+  public BigDecimal getActualHours(int row) {
+    return toHours(actualCents[Objects.checkIndex(row, size)]);
+  }
+
+  /**
+   * Finds the projects matching a filter, checking rows in parallel. Criteria follow
+   * ProjectFilter, except that the name prefix ignores case the way the default MySQL collation
+   * does
+   * @param filter Criteria to match
+   * @return Matching project IDs, ascending
+   */
+  public int[] filterProjectIds(ProjectFilter filter) {
+    RowFilter rows = new RowFilter(filter);
+
+    return IntStream.range(0, size).parallel()
+        .filter(rows::matches)
+        .map(row -> projectIds[row])
+        .toArray();
+  }
+
+  /**
+   * Counts the projects matching a filter
+   * @param filter Criteria to match
+   * @return Matching projects
+   */
+  public long count(ProjectFilter filter) {
+    return aggregate(filter).projects();
+  }
+
+  /**
+   * Adds up the hours of the projects matching a filter. Row ranges are totalled on the
+   * fork/join common pool and the partial totals added together
+   * @param filter Criteria to match
+   * @return Totals over the matching projects
+   */
+  public SnapshotTotals aggregate(ProjectFilter filter) {
+    SnapshotTotals total = SnapshotTotals.EMPTY;
+
+    for (SnapshotTotals totals : aggregateByDifficulty(filter).values()) {
+      total = total.plus(totals);
+    }
+
+    return total;
+  }
+
+  /**
+   * Adds up the hours of the projects matching a filter, for each difficulty
+   * @param filter Criteria to match
+   * @return Totals by difficulty, lowest first and projects without a difficulty last; a
+   *     difficulty with no matching projects is left out
+   */
+  public Map<Integer, SnapshotTotals> aggregateByDifficulty(ProjectFilter filter) {
+    long[] sums = new ScanTask(new RowFilter(filter), 0, size).invoke();
+
+    Integer[] order = difficulties.clone();
+    Arrays.sort(order, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    List<Integer> codes = Arrays.asList(difficulties);
+    Map<Integer, SnapshotTotals> byDifficulty = new LinkedHashMap<>();
+
+    for (Integer difficulty : order) {
+      int base = codes.indexOf(difficulty) * TOTAL_FIELDS;
+
+      if (sums[base + PROJECTS] > 0) {
+        byDifficulty.put(difficulty, new SnapshotTotals(sums[base + PROJECTS],
+            sums[base + ESTIMATED_COUNT], sums[base + ESTIMATED_CENTS],
+            sums[base + ACTUAL_COUNT], sums[base + ACTUAL_CENTS],
+            sums[base + OVER_BUDGET_COUNT]));
+      }
+    }
+
+    return byDifficulty;
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted snapshot size and load time
+   */
+  @Override
+  public String toString() {
+    return String.format("Snapshot of %,d projects (%,d distinct names) loaded in %,d ms", size,
+        names.length, loadMillis);
+  }
+
+  private static long toCents(BigDecimal hours) {
+    return hours == null ? NO_HOURS
+        : hours.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  private static BigDecimal toHours(long cents) {
+    return cents == NO_HOURS ? null : BigDecimal.valueOf(cents, 2);
+  }
+
+  // A ProjectFilter turned into primitive bounds and per-code lookup tables
+  private final class RowFilter {
+    private final boolean[] difficultyMatches;
+    private final boolean[] nameMatches;
+    private final long minEstimated;
+    private final long maxEstimated;
+    private final boolean estimatedBounded;
+    private final long minActual;
+    private final long maxActual;
+    private final boolean actualBounded;
+    private final boolean overBudgetOnly;
+
+    RowFilter(ProjectFilter filter) {
+      if (filter.difficulties().isEmpty()) {
+        difficultyMatches = null;
+      } else {
+        difficultyMatches = new boolean[difficulties.length];
+
+        for (int code = 0; code < difficulties.length; code++) {
+          difficultyMatches[code] = difficulties[code] != null
+              && filter.difficulties().contains(difficulties[code]);
+        }
+      }
+
+      String prefix = filter.namePrefix();
+
+      if (prefix == null) {
+        nameMatches = null;
+      } else {
+        nameMatches = new boolean[names.length];
+
+        for (int code = 0; code < names.length; code++) {
+          nameMatches[code] = names[code].regionMatches(true, 0, prefix, 0, prefix.length());
+        }
+      }
+
+      minEstimated = lowerBound(filter.minEstimatedHours());
+      maxEstimated = upperBound(filter.maxEstimatedHours());
+      estimatedBounded = filter.minEstimatedHours() != null || filter.maxEstimatedHours() != null;
+      minActual = lowerBound(filter.minActualHours());
+      maxActual = upperBound(filter.maxActualHours());
+      actualBounded = filter.minActualHours() != null || filter.maxActualHours() != null;
+      overBudgetOnly = filter.overBudgetOnly();
+    }
+
+    boolean matches(int row) {
+      if (difficultyMatches != null && !difficultyMatches[difficultyCodes[row]]) {
+        return false;
+      }
+
+      if (nameMatches != null && !nameMatches[nameCodes[row]]) {
+        return false;
+      }
+
+      long estimated = estimatedCents[row];
+      long actual = actualCents[row];
+
+      // Null hours never match a bound, as in SQL
+      if (estimatedBounded && (estimated == NO_HOURS || estimated < minEstimated
+          || estimated > maxEstimated)) {
+        return false;
+      }
+
+      if (actualBounded && (actual == NO_HOURS || actual < minActual || actual > maxActual)) {
+        return false;
+      }
+
+      return !overBudgetOnly || (estimated != NO_HOURS && actual != NO_HOURS && actual > estimated);
+    }
+
+    private static long lowerBound(BigDecimal hours) {
+      return hours == null ? NO_HOURS
+          : hours.setScale(2, RoundingMode.CEILING).unscaledValue().longValueExact();
+    }
+
+    private static long upperBound(BigDecimal hours) {
+      return hours == null ? Long.MAX_VALUE
+          : hours.setScale(2, RoundingMode.FLOOR).unscaledValue().longValueExact();
+    }
+  }
+
+  // Totals a range of rows into one slot per difficulty code, halving the range until it is
+  // small enough to scan directly
+  private final class ScanTask extends RecursiveTask<long[]> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient RowFilter filter;
+    private final int from;
+    private final int to;
+
+    ScanTask(RowFilter filter, int from, int to) {
+      this.filter = filter;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected long[] compute() {
+      if (to - from <= PARALLEL_THRESHOLD) {
+        return scan();
+      }
+
+      int middle = (from + to) >>> 1;
+      ScanTask left = new ScanTask(filter, from, middle);
+      left.fork();
+
+      long[] sums = new ScanTask(filter, middle, to).compute();
+      long[] leftSums = left.join();
+
+      for (int i = 0; i < sums.length; i++) {
+        sums[i] += leftSums[i];
+      }
+
+      return sums;
+    }
+
+    private long[] scan() {
+      long[] sums = new long[difficulties.length * TOTAL_FIELDS];
+
+      for (int row = from; row < to; row++) {
+        if (!filter.matches(row)) {
+          continue;
+        }
+
+        int base = difficultyCodes[row] * TOTAL_FIELDS;
+        long estimated = estimatedCents[row];
+        long actual = actualCents[row];
+
+        sums[base + PROJECTS]++;
+
+        if (estimated != NO_HOURS) {
+          sums[base + ESTIMATED_COUNT]++;
+          sums[base + ESTIMATED_CENTS] += estimated;
+        }
+
+        if (actual != NO_HOURS) {
+          sums[base + ACTUAL_COUNT]++;
+          sums[base + ACTUAL_CENTS] += actual;
+
+          if (estimated != NO_HOURS && actual > estimated) {
+            sums[base + OVER_BUDGET_COUNT]++;
+          }
+        }
+      }
+
+      return sums;
+    }
+  }
+
+  // Growable columns and the dictionaries filled while the projects are read
+  private static final class Builder {
+    private int size;
+    private int[] projectIds = new int[1024];
+    private int[] nameCodes = new int[1024];
+    private int[] difficultyCodes = new int[1024];
+    private long[] estimatedCents = new long[1024];
+    private long[] actualCents = new long[1024];
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIndex = new HashMap<>();
+    private final List<Integer> difficulties = new ArrayList<>();
+    private final Map<Integer, Integer> difficultyIndex = new HashMap<>();
+
+    void add(Project project) {
+      int projectId = project.getProjectId();
+
+      if (size > 0 && projectId <= projectIds[size - 1]) {
+        throw new IllegalArgumentException("Projects must be in ascending ID order, but "
+            + projectId + " came after " + projectIds[size - 1]);
+      }
+
+      if (size == projectIds.length) {
+        int capacity = size * 2;
+        projectIds = Arrays.copyOf(projectIds, capacity);
+        nameCodes = Arrays.copyOf(nameCodes, capacity);
+        difficultyCodes = Arrays.copyOf(difficultyCodes, capacity);
+        estimatedCents = Arrays.copyOf(estimatedCents, capacity);
+        actualCents = Arrays.copyOf(actualCents, capacity);
+      }
+
+      projectIds[size] = projectId;
+      nameCodes[size] = nameIndex.computeIfAbsent(project.getProjectName(), name -> {
+        names.add(name);
+        return names.size() - 1;
+      });
+      difficultyCodes[size] = difficultyIndex.computeIfAbsent(project.getDifficulty(), level -> {
+        difficulties.add(level);
+        return difficulties.size() - 1;
+      });
+      estimatedCents[size] = toCents(project.getEstimatedHours());
+      actualCents[size] = toCents(project.getActualHours());
+      size++;
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package projects.report;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Totals over the projects of a {@link ProjectSnapshot} that matched a filter. Hours are kept as
+ * whole cents so partial totals add up exactly
+ * @param projects Projects matched
+ * @param estimatedCount Matched projects with estimated hours
+ * @param estimatedCents Total estimated hours, in hundredths of an hour
+ * @param actualCount Matched projects with actual hours
+ * @param actualCents Total actual hours, in hundredths of an hour
+ * @param overBudgetCount Matched projects whose actual hours exceed the estimate
+ */
+public record SnapshotTotals(long projects, long estimatedCount, long estimatedCents,
+    long actualCount, long actualCents, long overBudgetCount) {
+
+  /**
+   * Totals of nothing
+   */
+  public static final SnapshotTotals EMPTY = new SnapshotTotals(0, 0, 0, 0, 0, 0);
+
+  /**
+   * Adds two sets of totals, as when joining the results of two row ranges
+   * @param other Totals to add
+   * @return Combined totals
+   */
+  public SnapshotTotals plus(SnapshotTotals other) {
+    return new SnapshotTotals(projects + other.projects, estimatedCount + other.estimatedCount,
+        estimatedCents + other.estimatedCents, actualCount + other.actualCount,
+        actualCents + other.actualCents, overBudgetCount + other.overBudgetCount);
+  }
+
+  /**
+   * Gets total estimated hours
+   * @return Estimated hours with two decimal places
+   */
+  public BigDecimal estimatedHours() {
+    return BigDecimal.valueOf(estimatedCents, 2);
+  }
+
+  /**
+   * Gets total actual hours
+   * @return Actual hours with two decimal places
+   */
+  public BigDecimal actualHours() {
+    return BigDecimal.valueOf(actualCents, 2);
+  }
+
+  /**
+   * Works out average estimated hours
+   * @return Average, or null if no matched project has an estimate
+   */
+  public BigDecimal averageEstimatedHours() {
+    return estimatedCount == 0 ? null
+        : estimatedHours().divide(BigDecimal.valueOf(estimatedCount), 2, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Works out average actual hours
+   * @return Average, or null if no matched project has actual hours
+   */
+  public BigDecimal averageActualHours() {
+    return actualCount == 0 ? null
+        : actualHours().divide(BigDecimal.valueOf(actualCount), 2, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted totals
+   */
+  @Override
+  public String toString() {
+    return String.format("%,d projects, %s estimated hours, %s actual hours, %,d over budget",
+        projects, estimatedHours(), actualHours(), overBudgetCount);
+  }
+}
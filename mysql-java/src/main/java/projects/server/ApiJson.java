@@ -0,0 +1,67 @@
+package projects.server;
+
+import java.io.IOException;
+import java.util.Objects;
+import projects.entity.Project;
+import projects.entity.ProjectSearchHit;
+import projects.io.ProjectJson;
+
+// This writes API responses as JSON straight to the response stream, field by field, without
+// reflection or an intermediate tree. Unlike the export format, projects include their version,
+// which clients send back on updates, and their timestamps
+final class ApiJson {
+  private ApiJson() {
+  }
+
+  /**
+   * Writes a project as a JSON object
+   * @param project Project to write
+   * @param out Destination
+   * @throws IOException If writing fails
+   */
+  static void writeProject(Project project, Appendable out) throws IOException {
+    out.append("{\"project_id\":").append(Objects.toString(project.getProjectId(), "null"));
+    out.append(",\"project_name\":");
+    ProjectJson.appendString(project.getProjectName(), out);
+    out.append(",\"estimated_hours\":").append(Objects.toString(project.getEstimatedHours(), "null"));
+    out.append(",\"actual_hours\":").append(Objects.toString(project.getActualHours(), "null"));
+    out.append(",\"difficulty\":").append(Objects.toString(project.getDifficulty(), "null"));
+    out.append(",\"notes\":");
+    ProjectJson.appendString(project.getNotes(), out);
+    out.append(",\"version\":").append(Objects.toString(project.getVersion(), "null"));
+    out.append(",\"created_at\":");
+    ProjectJson.appendString(Objects.toString(project.getCreatedAt(), null), out);
+    out.append(",\"updated_at\":");
+    ProjectJson.appendString(Objects.toString(project.getUpdatedAt(), null), out);
+    out.append('}');
+  }
+
+  /**
+   * Writes a search match as a JSON object
+   * @param hit Search match
+   * @param out Destination
+   * @throws IOException If writing fails
+   */
+  static void writeSearchHit(ProjectSearchHit hit, Appendable out) throws IOException {
+    out.append("{\"project_id\":").append(String.valueOf(hit.projectId()));
+    out.append(",\"project_name\":");
+    ProjectJson.appendString(hit.projectName(), out);
+    out.append(",\"snippet\":");
+    ProjectJson.appendString(hit.snippet(), out);
+    out.append(",\"score\":").append(Double.isFinite(hit.score()) ? String.valueOf(hit.score()) : "null");
+    out.append('}');
+  }
+
+  /**
+   * Writes an error body
+   * @param status HTTP status code
+   * @param message Error message
+   * @param out Destination
+   * @throws IOException If writing fails
+   */
+  static void writeError(int status, String message, Appendable out) throws IOException {
+    out.append("{\"status\":").append(String.valueOf(status)).append(",\"error\":");
+    ProjectJson.appendString(message, out);
+    out.append('}');
+  }
+}
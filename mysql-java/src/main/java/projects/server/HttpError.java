@@ -0,0 +1,25 @@
+package projects.server;
+
+// This ends a request early with an HTTP error status and a message for the client
+@SuppressWarnings("serial")
+class HttpError extends RuntimeException {
+  private final int status;
+
+  /**
+   * Builds an error response
+   * @param status HTTP status code
+   * @param message Message sent to the client
+   */
+  HttpError(int status, String message) {
+    super(message);
+    this.status = status;
+  }
+
+  /**
+   * Gets the HTTP status code
+   * @return Status code
+   */
+  int getStatus() {
+    return status;
+  }
+}
@@ -0,0 +1,554 @@
+package projects.server;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import projects.dao.DbConnection;
+import projects.dao.ProjectFilter;
+import projects.dao.ReadSession;
+import projects.entity.Project;
+import projects.entity.ProjectSearchHit;
+import projects.exception.ConnectionTimeoutException;
+import projects.exception.DbException;
+import projects.exception.ProjectConflictException;
+import projects.io.ProjectJson;
+import projects.service.ProjectService;
+import projects.service.ProjectValidator;
+
+// This serves ProjectService over HTTP/JSON using the JDK's built-in server, with one virtual
+// thread per request so a request waiting on the database doesn't tie up a platform thread.
+// Responses are written straight to the socket as they are produced instead of being built in
+// memory first. Only as many requests as there are pooled connections run at once; the rest
+// wait briefly for a turn and then get 503, as does a request that times out waiting for a
+// connection, rather than piling up inside the pool. Streams last as long as the client takes to
+// read them, so they have their own small limit and don't use up the turns other requests need.
+//
+//   GET    /projects?after=&before=&limit=&difficulty=&namePrefix=&overBudget=   page of projects
+//   POST   /projects                                                          create a project
+//   GET    /projects/{id}                                                     one project
+//   PUT    /projects/{id}      body must include the version the project was read at
+//   DELETE /projects/{id}
+//   GET    /projects/search?q=&limit=                                         full-text search
+//   GET    /projects/stream                                  every project, one JSON per line
+//   GET    /health
+public class ProjectServer implements AutoCloseable {
+  private static final String JSON = "application/json; charset=utf-8";
+  private static final String JSON_LINES = "application/x-ndjson; charset=utf-8";
+  private static final String BUSY = "Server is busy. Try again later.";
+
+  // Carries a client's read-your-writes session from a write to its later requests
+  private static final String SESSION_HEADER = "X-Session-Token";
+
+  private final ProjectService projectService;
+  private final ServerConfig config;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final Semaphore streamPermits;
+
+  /**
+   * Builds a server bound to the configured address; call start() to take requests
+   * @param projectService Service the requests are handled by
+   * @param config Listen address and limits
+   * @throws UncheckedIOException If the address can't be bound
+   */
+  public ProjectServer(ProjectService projectService, ServerConfig config) {
+    config.validate();
+    config.applyHttpServerProperties();
+
+    this.projectService = projectService;
+    this.config = config;
+    this.permits = new Semaphore(config.getMaxConcurrentRequests() > 0
+        ? config.getMaxConcurrentRequests() : DbConnection.getPoolConfig().getMaxSize(), true);
+    this.streamPermits = new Semaphore(config.getMaxConcurrentStreams(), true);
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    try {
+      server = HttpServer.create(new InetSocketAddress(config.getHost(), config.getPort()),
+          config.getBacklog());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to listen on " + config.getHost() + ":"
+          + config.getPort(), e);
+    }
+
+    server.setExecutor(executor);
+    server.createContext("/projects", this::handle);
+    server.createContext("/health", this::handle);
+  }
+
+  /**
+   * Starts taking requests
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * Gets the address the server is listening on, which has the real port if port 0 was asked for
+   * @return Listen address
+   */
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  /**
+   * Stops taking requests, waits up to the stop delay for requests in progress and ends them
+   */
+  @Override
+  public void close() {
+    server.stop(config.getStopDelaySeconds());
+    executor.close();
+  }
+
+  /**
+   * Runs the server until the process is stopped. Settings come from "projects.server.*" system
+   * properties
+   * @param args Unused
+   */
+  public static void main(String[] args) {
+    ServerConfig config = ServerConfig.fromSystemProperties();
+    ProjectServer server = new ProjectServer(new ProjectService(), config);
+
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      server.close();
+      DbConnection.shutdown();
+    }, "project-server-shutdown"));
+
+    server.start();
+    System.out.println("Project server listening on " + server.getAddress() + " (" + config + ")");
+  }
+
+  @SuppressWarnings("try")
+  private void handle(HttpExchange exchange) throws IOException {
+    if (!config.isKeepAlive()) {
+      exchange.getResponseHeaders().set("Connection", "close");
+    }
+
+    // Health checks don't touch the database, so they answer even when every turn is taken
+    if (exchange.getRequestURI().getPath().equals("/health")) {
+      try (exchange) {
+        requireMethod(exchange.getRequestMethod(), "GET");
+        sendJson(exchange, 200, out -> out.append("{\"status\":\"UP\"}"));
+      } catch (HttpError e) {
+        sendError(exchange, e.getStatus(), e.getMessage());
+      }
+      return;
+    }
+
+    Semaphore turns =
+        exchange.getRequestURI().getPath().equals("/projects/stream") ? streamPermits : permits;
+
+    if (!awaitTurn(turns)) {
+      try (exchange) {
+        sendError(exchange, 503, BUSY);
+      }
+      return;
+    }
+
+    try (ReadSession.Scope session =
+        ReadSession.resume(exchange.getRequestHeaders().getFirst(SESSION_HEADER)).bind()) {
+      route(exchange);
+    } catch (HttpError e) {
+      sendError(exchange, e.getStatus(), e.getMessage());
+    } catch (NoSuchElementException e) {
+      sendError(exchange, 404, e.getMessage());
+    } catch (ProjectConflictException e) {
+      sendError(exchange, 409, e.getMessage());
+    } catch (ConnectionTimeoutException e) {
+      sendError(exchange, 503, BUSY);
+    } catch (IllegalArgumentException e) {
+      sendError(exchange, 400, e.getMessage());
+    } catch (IOException | UncheckedIOException e) {
+      // The client went away; there is no one to tell
+    } catch (RuntimeException e) {
+      // Database and driver messages can name hosts, schemas and SQL, so they stay in the log
+      logFailure(exchange, e);
+      sendError(exchange, 500, "Internal server error");
+    } finally {
+      exchange.close();
+      turns.release();
+    }
+  }
+
+  private boolean awaitTurn(Semaphore turns) {
+    try {
+      return turns.tryAcquire(config.getQueueWaitMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void route(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    String method = exchange.getRequestMethod();
+    String rest = path.replaceFirst("^/projects/?", "");
+
+    if (rest.isEmpty()) {
+      switch (method) {
+        case "GET" -> listProjects(exchange);
+        case "POST" -> createProject(exchange);
+        default -> throw methodNotAllowed(method);
+      }
+    } else if (rest.equals("search")) {
+      requireMethod(method, "GET");
+      searchProjects(exchange);
+    } else if (rest.equals("stream")) {
+      requireMethod(method, "GET");
+      streamProjects(exchange);
+    } else if (rest.indexOf('/') < 0) {
+      Integer projectId = parseId(rest);
+
+      switch (method) {
+        case "GET" -> {
+          Project project = projectService.fetchProjectById(projectId);
+          sendJson(exchange, 200, out -> ApiJson.writeProject(project, out));
+        }
+        case "PUT" -> updateProject(exchange, projectId);
+        case "DELETE" -> {
+          projectService.deleteProject(projectId);
+          sendHeaders(exchange, 204, -1);
+        }
+        default -> throw methodNotAllowed(method);
+      }
+    } else {
+      throw new HttpError(404, "No such resource: " + path);
+    }
+  }
+
+  private void listProjects(HttpExchange exchange) throws IOException {
+    Map<String, String> query = parseQuery(exchange);
+    Integer after = parseOptionalId(query.get("after"));
+    Integer before = parseOptionalId(query.get("before"));
+    int limit = parseLimit(query.get("limit"));
+    ProjectFilter filter = parseFilter(query);
+    List<Project> projects;
+
+    if (before != null) {
+      if (after != null || filter != ProjectFilter.ALL) {
+        throw new HttpError(400, "\"before\" can't be combined with \"after\" or a filter");
+      }
+
+      projects = projectService.fetchProjectsPageBefore(before, limit);
+    } else if (filter == ProjectFilter.ALL) {
+      projects = projectService.fetchProjectsPage(after, limit);
+    } else {
+      projects = projectService.fetchProjectsPage(filter, after, limit);
+    }
+
+    sendJson(exchange, 200, out -> {
+      out.append("{\"projects\":[");
+      writeArray(projects.iterator(), ApiJson::writeProject, out);
+      out.append("],\"next\":");
+      out.append(projects.size() < limit ? "null"
+          : String.valueOf(projects.get(projects.size() - 1).getProjectId()));
+      out.append('}');
+    });
+  }
+
+  private void createProject(HttpExchange exchange) throws IOException {
+    Project project = readProject(exchange);
+    Project saved = projectService.addProject(project);
+
+    exchange.getResponseHeaders().set("Location", "/projects/" + saved.getProjectId());
+    sendJson(exchange, 201, out -> ApiJson.writeProject(saved, out));
+  }
+
+  private void updateProject(HttpExchange exchange, Integer projectId) throws IOException {
+    Map<String, String> body = readBody(exchange);
+    Project project = toProject(body);
+    String version = body.get("version");
+
+    if (version == null) {
+      throw new HttpError(400, "\"version\" is required for an update");
+    }
+
+    project.setProjectId(projectId);
+    project.setVersion(parseInt(version, "version"));
+    projectService.updateProject(project);
+
+    // Sent as written, with the version the update left it at. Like POST, the times the database
+    // set are left for a later GET rather than read back here
+    sendJson(exchange, 200, out -> ApiJson.writeProject(project, out));
+  }
+
+  private void searchProjects(HttpExchange exchange) throws IOException {
+    Map<String, String> query = parseQuery(exchange);
+    List<ProjectSearchHit> hits =
+        projectService.searchProjects(query.get("q"), parseLimit(query.get("limit")));
+
+    sendJson(exchange, 200, out -> {
+      out.append("{\"hits\":[");
+      writeArray(hits.iterator(), ApiJson::writeSearchHit, out);
+      out.append("]}");
+    });
+  }
+
+  // Reads a page at a time by ID, so memory use doesn't grow with the table and a connection is
+  // only held while a page is read, not while a slow client takes it in. Projects added or
+  // deleted during the stream show up or drop out depending on whether their page was read yet
+  private void streamProjects(HttpExchange exchange) throws IOException {
+    int pageSize = config.getMaxPageSize();
+    List<Project> page = projectService.fetchProjectsPage(null, pageSize);
+
+    send(exchange, 200, JSON_LINES, out -> {
+      List<Project> current = page;
+
+      while (true) {
+        for (Project project : current) {
+          ApiJson.writeProject(project, out);
+          out.append('\n');
+        }
+
+        if (current.size() < pageSize) {
+          break;
+        }
+
+        // Sent rows reach the client before the next page's query runs
+        out.flush();
+        current = projectService.fetchProjectsPage(current.get(current.size() - 1).getProjectId(),
+            pageSize);
+      }
+    });
+  }
+
+  private Project readProject(HttpExchange exchange) throws IOException {
+    return toProject(readBody(exchange));
+  }
+
+  // Applies the same rules as the menu prompts and the importer
+  private static Project toProject(Map<String, String> body) {
+    Project project = new Project();
+    String notes = body.get("notes");
+
+    try {
+      project.setProjectName(ProjectValidator.requireName(body.get("project_name")));
+      project.setEstimatedHours(ProjectValidator.parseHours(body.get("estimated_hours")));
+      project.setActualHours(ProjectValidator.parseHours(body.get("actual_hours")));
+      project.setDifficulty(ProjectValidator.parseDifficulty(body.get("difficulty")));
+    } catch (DbException e) {
+      throw new HttpError(400, e.getMessage());
+    }
+
+    project.setNotes(notes == null || notes.isBlank() ? null : notes);
+    return project;
+  }
+
+  // Checks the declared length first so an oversized body is refused without reading it, then
+  // reads at most one byte past the limit in case the length wasn't declared
+  private Map<String, String> readBody(HttpExchange exchange) throws IOException {
+    int max = config.getMaxBodyBytes();
+    String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+
+    if (declared != null && parseLong(declared) > max) {
+      throw new HttpError(413, "Request body is larger than " + max + " bytes");
+    }
+
+    byte[] bytes;
+
+    try (InputStream in = exchange.getRequestBody()) {
+      bytes = in.readNBytes(max + 1);
+    }
+
+    if (bytes.length > max) {
+      throw new HttpError(413, "Request body is larger than " + max + " bytes");
+    }
+
+    try {
+      return ProjectJson.parseObject(new String(bytes, StandardCharsets.UTF_8));
+    } catch (IllegalArgumentException e) {
+      throw new HttpError(400, "Invalid JSON: " + e.getMessage());
+    }
+  }
+
+  private static Map<String, String> parseQuery(HttpExchange exchange) {
+    Map<String, String> values = new HashMap<>();
+    String query = exchange.getRequestURI().getRawQuery();
+
+    if (query == null || query.isEmpty()) {
+      return values;
+    }
+
+    for (String pair : query.split("&")) {
+      int eq = pair.indexOf('=');
+      String key = eq < 0 ? pair : pair.substring(0, eq);
+      String value = eq < 0 ? "" : pair.substring(eq + 1);
+
+      values.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+
+    return values;
+  }
+
+  private static ProjectFilter parseFilter(Map<String, String> query) {
+    ProjectFilter filter = ProjectFilter.ALL;
+    String difficulty = query.get("difficulty");
+    String namePrefix = query.get("namePrefix");
+
+    if (difficulty != null && !difficulty.isBlank()) {
+      try {
+        filter = filter.withDifficulties(Stream.of(difficulty.split(","))
+            .map(ProjectValidator::parseDifficulty)
+            .toArray(Integer[]::new));
+      } catch (DbException e) {
+        throw new HttpError(400, e.getMessage());
+      }
+    }
+
+    if (namePrefix != null && !namePrefix.isBlank()) {
+      filter = filter.withNamePrefix(namePrefix);
+    }
+
+    if (Boolean.parseBoolean(query.get("overBudget"))) {
+      filter = filter.withOverBudgetOnly();
+    }
+
+    return filter;
+  }
+
+  private int parseLimit(String input) {
+    if (input == null || input.isBlank()) {
+      return Math.min(50, config.getMaxPageSize());
+    }
+
+    int limit = parseInt(input, "limit");
+
+    if (limit < 1) {
+      throw new HttpError(400, "\"limit\" must be at least 1");
+    }
+
+    return Math.min(limit, config.getMaxPageSize());
+  }
+
+  private static Integer parseOptionalId(String input) {
+    return input == null || input.isBlank() ? null : parseInt(input, "ID");
+  }
+
+  private static Integer parseId(String input) {
+    try {
+      return Integer.valueOf(input);
+    } catch (NumberFormatException e) {
+      throw new HttpError(404, "No such project: " + input);
+    }
+  }
+
+  private static int parseInt(String input, String name) {
+    try {
+      return Integer.parseInt(input.trim());
+    } catch (NumberFormatException e) {
+      throw new HttpError(400, "\"" + name + "\" must be a whole number: " + input);
+    }
+  }
+
+  private static long parseLong(String input) {
+    try {
+      return Long.parseLong(input.trim());
+    } catch (NumberFormatException e) {
+      throw new HttpError(400, "Invalid Content-Length: " + input);
+    }
+  }
+
+  private static void requireMethod(String method, String allowed) {
+    if (!method.equals(allowed)) {
+      throw methodNotAllowed(method);
+    }
+  }
+
+  private static HttpError methodNotAllowed(String method) {
+    return new HttpError(405, method + " isn't supported here");
+  }
+
+  private static <T> void writeArray(Iterator<T> items, JsonWriter<T> writer, Writer out)
+      throws IOException {
+    while (items.hasNext()) {
+      writer.write(items.next(), out);
+
+      if (items.hasNext()) {
+        out.append(',');
+      }
+    }
+  }
+
+  private static void sendJson(HttpExchange exchange, int status, BodyWriter body)
+      throws IOException {
+    send(exchange, status, JSON, body);
+  }
+
+  // Sends the headers with no length, so the body goes out chunked as it is written
+  private static void send(HttpExchange exchange, int status, String contentType, BodyWriter body)
+      throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    sendHeaders(exchange, status, 0);
+
+    try (Writer out = new BufferedWriter(
+        new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+      body.write(out);
+    }
+  }
+
+  // Hands the client its session token once it has written something, to send back next time
+  private static void sendHeaders(HttpExchange exchange, int status, long length)
+      throws IOException {
+    ReadSession session = ReadSession.current();
+    String token = session == null ? null : session.token();
+
+    if (token != null) {
+      exchange.getResponseHeaders().set(SESSION_HEADER, token);
+    }
+
+    exchange.sendResponseHeaders(status, length);
+  }
+
+  private static void logFailure(HttpExchange exchange, RuntimeException e) {
+    System.err.println(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed:");
+    e.printStackTrace();
+  }
+
+  // Once the headers are out the status can't change, so a failure part way through a body
+  // just cuts the response short and the client sees an incomplete chunked body
+  private static void sendError(HttpExchange exchange, int status, String message)
+      throws IOException {
+    if (exchange.getResponseCode() != -1) {
+      return;
+    }
+
+    if (status == 503) {
+      exchange.getResponseHeaders().set("Retry-After", "1");
+    }
+
+    sendJson(exchange, status, out -> ApiJson.writeError(status, Objects.toString(message,
+        "Error " + status), out));
+  }
+
+  // Writes a response body
+  @FunctionalInterface
+  private interface BodyWriter {
+    void write(Writer out) throws IOException;
+  }
+
+  // Writes one value as JSON
+  @FunctionalInterface
+  private interface JsonWriter<T> {
+    void write(T value, Appendable out) throws IOException;
+  }
+}
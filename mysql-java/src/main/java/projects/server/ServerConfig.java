@@ -0,0 +1,311 @@
+package projects.server;
+
+// This holds the listen address, request limits and keep-alive settings for the HTTP server
+public class ServerConfig {
+  private String host = "localhost";
+  private int port = 8080;
+  private int backlog = 1024;
+  private int maxConcurrentRequests;
+  private int queueWaitMillis = 1000;
+  private int maxConcurrentStreams = 2;
+  private int maxBodyBytes = 64 * 1024;
+  private int maxPageSize = 500;
+  private boolean keepAlive = true;
+  private int idleTimeoutSeconds = 30;
+  private int maxIdleConnections = 200;
+  private int maxRequestSeconds = 30;
+  private int stopDelaySeconds = 2;
+
+  /**
+   * Builds a config from "projects.server.*" system properties, falling back to defaults
+   * @return Server config
+   */
+  public static ServerConfig fromSystemProperties() {
+    ServerConfig config = new ServerConfig();
+
+    config.setHost(System.getProperty("projects.server.host", config.host));
+    config.setPort(Integer.getInteger("projects.server.port", config.port));
+    config.setBacklog(Integer.getInteger("projects.server.backlog", config.backlog));
+    config.setMaxConcurrentRequests(
+        Integer.getInteger("projects.server.maxConcurrentRequests", config.maxConcurrentRequests));
+    config.setQueueWaitMillis(
+        Integer.getInteger("projects.server.queueWaitMillis", config.queueWaitMillis));
+    config.setMaxConcurrentStreams(
+        Integer.getInteger("projects.server.maxConcurrentStreams", config.maxConcurrentStreams));
+    config.setMaxBodyBytes(Integer.getInteger("projects.server.maxBodyBytes", config.maxBodyBytes));
+    config.setMaxPageSize(Integer.getInteger("projects.server.maxPageSize", config.maxPageSize));
+    config.setKeepAlive(Boolean.parseBoolean(
+        System.getProperty("projects.server.keepAlive", String.valueOf(config.keepAlive))));
+    config.setIdleTimeoutSeconds(
+        Integer.getInteger("projects.server.idleTimeoutSeconds", config.idleTimeoutSeconds));
+    config.setMaxIdleConnections(
+        Integer.getInteger("projects.server.maxIdleConnections", config.maxIdleConnections));
+    config.setMaxRequestSeconds(
+        Integer.getInteger("projects.server.maxRequestSeconds", config.maxRequestSeconds));
+    config.setStopDelaySeconds(
+        Integer.getInteger("projects.server.stopDelaySeconds", config.stopDelaySeconds));
+
+    return config;
+  }
+
+  /**
+   * Checks that the settings make sense together
+   * @throws IllegalArgumentException If a setting is out of range
+   */
+  public void validate() {
+    if (port < 0 || port > 65_535) {
+      throw new IllegalArgumentException("Server port must be between 0 and 65535");
+    }
+
+    if (maxBodyBytes < 1 || maxPageSize < 1 || maxConcurrentStreams < 1) {
+      throw new IllegalArgumentException(
+          "Server maxBodyBytes, maxPageSize and maxConcurrentStreams must be at least 1");
+    }
+
+    if (maxConcurrentRequests < 0 || queueWaitMillis < 0) {
+      throw new IllegalArgumentException(
+          "Server maxConcurrentRequests and queueWaitMillis can't be negative");
+    }
+
+    if (idleTimeoutSeconds < 1 || maxIdleConnections < 0 || stopDelaySeconds < 0) {
+      throw new IllegalArgumentException("Server keep-alive and stop settings are out of range");
+    }
+  }
+
+  /**
+   * Passes the keep-alive and request time settings to the JDK HTTP server, which reads them
+   * from "sun.net.httpserver.*" system properties once, when the first server is created.
+   * Properties already set on the command line win
+   */
+  void applyHttpServerProperties() {
+    System.getProperties().putIfAbsent("sun.net.httpserver.idleInterval",
+        String.valueOf(idleTimeoutSeconds));
+    System.getProperties().putIfAbsent("sun.net.httpserver.maxIdleConnections",
+        String.valueOf(maxIdleConnections));
+    System.getProperties().putIfAbsent("sun.net.httpserver.maxReqTime",
+        String.valueOf(maxRequestSeconds));
+  }
+
+  /**
+   * Gets the address the server listens on
+   * @return Host name or IP address; "0.0.0.0" listens on every interface
+   */
+  public String getHost() {
+    return host;
+  }
+
+  /**
+   * Sets the address the server listens on
+   * @param host Host name or IP address
+   */
+  public void setHost(String host) {
+    this.host = host;
+  }
+
+  /**
+   * Gets the listen port
+   * @return Port, or 0 for any free port
+   */
+  public int getPort() {
+    return port;
+  }
+
+  /**
+   * Sets the listen port
+   * @param port Port, or 0 for any free port
+   */
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  /**
+   * Gets how many connections may wait to be accepted
+   * @return Socket backlog
+   */
+  public int getBacklog() {
+    return backlog;
+  }
+
+  /**
+   * Sets how many connections may wait to be accepted
+   * @param backlog Socket backlog
+   */
+  public void setBacklog(int backlog) {
+    this.backlog = backlog;
+  }
+
+  /**
+   * Gets the most requests handled at the same time. Each may hold a pooled connection, so the
+   * default matches the pool; a higher limit only moves the queue into the pool
+   * @return Concurrent request limit, or 0 for the connection pool's maximum size
+   */
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  /**
+   * Sets the most requests handled at the same time
+   * @param maxConcurrentRequests Concurrent request limit, or 0 for the pool's maximum size
+   */
+  public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * Gets how long a request past the concurrency limit waits for a turn before it gets 503
+   * Service Unavailable
+   * @return Wait in milliseconds; 0 refuses it straight away
+   */
+  public int getQueueWaitMillis() {
+    return queueWaitMillis;
+  }
+
+  /**
+   * Sets how long a request past the concurrency limit waits for a turn
+   * @param queueWaitMillis Wait in milliseconds; 0 refuses it straight away
+   */
+  public void setQueueWaitMillis(int queueWaitMillis) {
+    this.queueWaitMillis = queueWaitMillis;
+  }
+
+  /**
+   * Gets the most /projects/stream responses sent at the same time. Streams don't count
+   * against the request limit, since a slow client can keep one open for a long time
+   * @return Concurrent stream limit
+   */
+  public int getMaxConcurrentStreams() {
+    return maxConcurrentStreams;
+  }
+
+  /**
+   * Sets the most /projects/stream responses sent at the same time
+   * @param maxConcurrentStreams Concurrent stream limit
+   */
+  public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+    this.maxConcurrentStreams = maxConcurrentStreams;
+  }
+
+  /**
+   * Gets the largest request body accepted; bigger ones get 413 Content Too Large
+   * @return Body limit in bytes
+   */
+  public int getMaxBodyBytes() {
+    return maxBodyBytes;
+  }
+
+  /**
+   * Sets the largest request body accepted
+   * @param maxBodyBytes Body limit in bytes
+   */
+  public void setMaxBodyBytes(int maxBodyBytes) {
+    this.maxBodyBytes = maxBodyBytes;
+  }
+
+  /**
+   * Gets the most projects or search hits one request can ask for
+   * @return Page size limit
+   */
+  public int getMaxPageSize() {
+    return maxPageSize;
+  }
+
+  /**
+   * Sets the most projects or search hits one request can ask for
+   * @param maxPageSize Page size limit
+   */
+  public void setMaxPageSize(int maxPageSize) {
+    this.maxPageSize = maxPageSize;
+  }
+
+  /**
+   * Checks whether connections stay open between requests
+   * @return True for keep-alive, false to close after every response
+   */
+  public boolean isKeepAlive() {
+    return keepAlive;
+  }
+
+  /**
+   * Sets whether connections stay open between requests
+   * @param keepAlive True for keep-alive, false to close after every response
+   */
+  public void setKeepAlive(boolean keepAlive) {
+    this.keepAlive = keepAlive;
+  }
+
+  /**
+   * Gets how long an idle keep-alive connection stays open
+   * @return Idle timeout in seconds
+   */
+  public int getIdleTimeoutSeconds() {
+    return idleTimeoutSeconds;
+  }
+
+  /**
+   * Sets how long an idle keep-alive connection stays open
+   * @param idleTimeoutSeconds Idle timeout in seconds
+   */
+  public void setIdleTimeoutSeconds(int idleTimeoutSeconds) {
+    this.idleTimeoutSeconds = idleTimeoutSeconds;
+  }
+
+  /**
+   * Gets the most idle keep-alive connections kept open
+   * @return Idle connection limit
+   */
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  /**
+   * Sets the most idle keep-alive connections kept open
+   * @param maxIdleConnections Idle connection limit
+   */
+  public void setMaxIdleConnections(int maxIdleConnections) {
+    this.maxIdleConnections = maxIdleConnections;
+  }
+
+  /**
+   * Gets how long a client has to send a whole request before the connection is closed
+   * @return Request time limit in seconds, or -1 for none
+   */
+  public int getMaxRequestSeconds() {
+    return maxRequestSeconds;
+  }
+
+  /**
+   * Sets how long a client has to send a whole request
+   * @param maxRequestSeconds Request time limit in seconds, or -1 for none
+   */
+  public void setMaxRequestSeconds(int maxRequestSeconds) {
+    this.maxRequestSeconds = maxRequestSeconds;
+  }
+
+  /**
+   * Gets how long stopping waits for requests in progress
+   * @return Stop delay in seconds
+   */
+  public int getStopDelaySeconds() {
+    return stopDelaySeconds;
+  }
+
+  /**
+   * Sets how long stopping waits for requests in progress
+   * @param stopDelaySeconds Stop delay in seconds
+   */
+  public void setStopDelaySeconds(int stopDelaySeconds) {
+    this.stopDelaySeconds = stopDelaySeconds;
+  }
+
+  /**
+   * Builds a one-line summary
+   * @return Formatted settings
+   */
+  @Override
+  public String toString() {
+    return String.format("%s:%d maxConcurrentRequests=%s queueWait=%dms maxStreams=%d "
+        + "maxBodyBytes=%d maxPageSize=%d keepAlive=%b idleTimeout=%ds", host, port,
+        maxConcurrentRequests == 0 ? "pool size" : String.valueOf(maxConcurrentRequests),
+        queueWaitMillis, maxConcurrentStreams, maxBodyBytes, maxPageSize, keepAlive, idleTimeoutSeconds);
+  }
+}
@@ -0,0 +1,189 @@
+package projects.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import projects.dao.DbConnection;
+import projects.dao.ReadSession;
+import projects.entity.Project;
+
+// This is a non-blocking facade over ProjectService for multi-user callers. Each call runs on its
+// own virtual thread, but only as many calls as there are pooled connections run at once; the
+// rest wait cheaply on a semaphore instead of queueing inside the connection pool. A call runs
+// in the ReadSession of the thread that made it, so it reads that caller's writes
+public class AsyncProjectService implements AutoCloseable {
+  private final ProjectService projectService;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final Semaphore permits;
+
+  /**
+   * Builds an async service limited to the connection pool's maximum size
+   * @param projectService Blocking service to run calls on
+   */
+  public AsyncProjectService(ProjectService projectService) {
+    this(projectService, DbConnection.getPoolConfig().getMaxSize());
+  }
+
+  /**
+   * Builds an async service
+   * @param projectService Blocking service to run calls on
+   * @param maxConcurrency Most calls allowed to run at the same time
+   */
+  public AsyncProjectService(ProjectService projectService, int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be at least 1");
+    }
+
+    this.projectService = projectService;
+    this.permits = new Semaphore(maxConcurrency, true);
+  }
+
+  /**
+   * Adds a new project
+   * @param project Project to save
+   * @return Future of the new project with its ID
+   */
+  public CompletableFuture<Project> addProject(Project project) {
+    return submit(() -> projectService.addProject(project));
+  }
+
+  /**
+   * Finds project by ID
+   * @param projectId Project ID to look up
+   * @return Future of the project; fails with NoSuchElementException if not found
+   */
+  public CompletableFuture<Project> fetchProjectById(Integer projectId) {
+    return submit(() -> projectService.fetchProjectById(projectId));
+  }
+
+  /**
+   * Looks up many projects in parallel
+   * @param projectIds Project IDs to look up
+   * @return Future of the projects found, in the order of the IDs; missing IDs are skipped
+   */
+  public CompletableFuture<List<Project>> fetchProjectsByIds(Collection<Integer> projectIds) {
+    List<CompletableFuture<Optional<Project>>> lookups = new ArrayList<>(projectIds.size());
+
+    for (Integer projectId : projectIds) {
+      lookups.add(fetchProjectById(projectId).handle((project, error) -> {
+        if (error == null) {
+          return Optional.of(project);
+        }
+
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+
+        if (cause instanceof NoSuchElementException) {
+          return Optional.empty();
+        }
+
+        throw new CompletionException(cause);
+      }));
+    }
+
+    CompletableFuture<List<Project>> result = CompletableFuture
+        .allOf(lookups.toArray(new CompletableFuture<?>[0]))
+        .thenApply(done -> {
+          List<Project> projects = new ArrayList<>(lookups.size());
+          lookups.forEach(lookup -> lookup.join().ifPresent(projects::add));
+          return projects;
+        });
+
+    // Cancelling the fan-out cancels every lookup still running
+    result.whenComplete((projects, error) -> {
+      if (result.isCancelled()) {
+        lookups.forEach(lookup -> lookup.cancel(true));
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Gets the page of projects after a given ID
+   * @param afterProjectId Last ID of the previous page, or null for the first page
+   * @param limit Maximum projects to return
+   * @return Future of the projects sorted by ID
+   */
+  public CompletableFuture<List<Project>> fetchProjectsPage(Integer afterProjectId, int limit) {
+    return submit(() -> projectService.fetchProjectsPage(afterProjectId, limit));
+  }
+
+  /**
+   * Updates project details in one version-checked statement
+   * @param project Project with new info and the version it was read at
+   * @return Future that fails with NoSuchElementException or ProjectConflictException
+   */
+  public CompletableFuture<Boolean> updateProject(Project project) {
+    return submit(() -> projectService.updateProject(project));
+  }
+
+  /**
+   * Removes project by ID
+   * @param projectId Project ID to delete
+   * @return Future that fails with NoSuchElementException if not found
+   */
+  public CompletableFuture<Boolean> deleteProject(Integer projectId) {
+    return submit(() -> projectService.deleteProject(projectId));
+  }
+
+  /**
+   * Gets the number of calls waiting for a free slot
+   * @return Queued calls
+   */
+  public int getQueuedCalls() {
+    return permits.getQueueLength();
+  }
+
+  /**
+   * Stops accepting calls and waits for running ones to finish
+   */
+  @Override
+  public void close() {
+    executor.close();
+  }
+
+  // Cancelling the returned future interrupts its virtual thread. A call still waiting for a slot
+  // is dropped; one already in the driver finishes its statement before it notices
+  @SuppressWarnings("try")
+  private <T> CompletableFuture<T> submit(Callable<T> call) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    ReadSession session = ReadSession.current();
+
+    Future<?> task = executor.submit(() -> {
+      try {
+        permits.acquire();
+      } catch (InterruptedException e) {
+        result.completeExceptionally(new CancellationException("Cancelled while queued"));
+        return;
+      }
+
+      try (ReadSession.Scope scope = session == null ? null : session.bind()) {
+        if (!result.isDone()) {
+          result.complete(call.call());
+        }
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      } finally {
+        permits.release();
+      }
+    });
+
+    result.whenComplete((value, error) -> {
+      if (result.isCancelled()) {
+        task.cancel(true);
+      }
+    });
+
+    return result;
+  }
+}
@@ -0,0 +1,20 @@
+package projects.service;
+
+/**
+ * Point-in-time view of the project cache
+ * @param hits Lookups answered from the cache
+ * @param misses Lookups that went to the database
+ * @param evictions Entries dropped for size or age
+ * @param size Entries currently cached
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+
+  /**
+   * Works out the share of lookups answered from the cache
+   * @return Hit rate between 0 and 1
+   */
+  public double hitRate() {
+    long lookups = hits + misses;
+    return lookups == 0 ? 0 : (double)hits / lookups;
+  }
+}
@@ -0,0 +1,196 @@
+package projects.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import projects.entity.Project;
+
+// This is a bounded, least-recently-used cache of projects by ID with a time-to-live. Projects
+// are copied going in and coming out because Project is mutable. A write leaves a marker with
+// the project's new version instead of its copy of the project, which lacks what the database
+// fills in, so the next lookup reads the stored row and an older read can't be cached over it.
+// A delete leaves a tombstone, so a read that started before it can't cache the deleted row
+public class ProjectCache {
+  private final int maxSize;
+  private final long ttlNanos;
+
+  // Access order, so the eldest entry is the least recently used one
+  private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Builds a cache
+   * @param maxSize Most projects kept; 0 disables caching
+   * @param ttlMillis How long a cached project stays fresh
+   */
+  public ProjectCache(int maxSize, long ttlMillis) {
+    if (maxSize < 0 || ttlMillis < 0) {
+      throw new IllegalArgumentException("Cache size and TTL can't be negative");
+    }
+
+    this.maxSize = maxSize;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+  }
+
+  /**
+   * Builds a cache from "projects.cache.maxSize" and "projects.cache.ttlMillis" system properties
+   * @return Project cache
+   */
+  public static ProjectCache fromSystemProperties() {
+    return new ProjectCache(Integer.getInteger("projects.cache.maxSize", 1000),
+        Long.getLong("projects.cache.ttlMillis", 60_000));
+  }
+
+  /**
+   * Looks up a project, dropping it if it has expired
+   * @param projectId Project ID
+   * @return Copy of the cached project, if present and fresh
+   */
+  public synchronized Optional<Project> get(Integer projectId) {
+    Entry entry = entries.get(projectId);
+
+    if (entry == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+
+    if (System.nanoTime() - entry.expiresAtNanos > 0) {
+      entries.remove(projectId);
+      evictions.increment();
+      misses.increment();
+      return Optional.empty();
+    }
+
+    if (entry.project == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+
+    hits.increment();
+    return Optional.of(entry.project.copy());
+  }
+
+  /**
+   * Caches a copy of a project, evicting the least recently used entries if full. A project
+   * older than the cached one is ignored, so a read that finishes after a later update can't
+   * put back the version the update replaced
+   * @param project Project with an ID
+   */
+  public synchronized void put(Project project) {
+    if (maxSize == 0 || project.getProjectId() == null) {
+      return;
+    }
+
+    Entry current = live(project.getProjectId());
+
+    if (current != null && (current.deleted || isOlder(project.getVersion(), current.version))) {
+      return;
+    }
+
+    store(project.getProjectId(), new Entry(project.copy(), project.getVersion(), false,
+        System.nanoTime() + ttlNanos));
+  }
+
+  /**
+   * Drops a project that has just been written and remembers its new version, so a read that
+   * started before the write can't cache the row it replaced
+   * @param projectId Project ID
+   * @param version Version the write left
+   */
+  public synchronized void markWritten(Integer projectId, Integer version) {
+    if (maxSize == 0 || projectId == null) {
+      return;
+    }
+
+    Entry current = live(projectId);
+
+    if (current != null && current.deleted) {
+      return;
+    }
+
+    if (version == null || (current != null && isOlder(version, current.version))) {
+      entries.remove(projectId);
+      return;
+    }
+
+    store(projectId, new Entry(null, version, false, System.nanoTime() + ttlNanos));
+  }
+
+  /**
+   * Drops a project that has just been deleted and leaves a tombstone until the TTL runs out,
+   * so a read that started before the delete can't cache the deleted row
+   * @param projectId Project ID
+   */
+  public synchronized void markDeleted(Integer projectId) {
+    if (maxSize == 0 || projectId == null) {
+      return;
+    }
+
+    store(projectId, new Entry(null, null, true, System.nanoTime() + ttlNanos));
+  }
+
+  // The entry for a project, or null if there is none or it has expired
+  private Entry live(Integer projectId) {
+    Entry entry = entries.get(projectId);
+    return entry == null || System.nanoTime() - entry.expiresAtNanos > 0 ? null : entry;
+  }
+
+  private void store(Integer projectId, Entry entry) {
+    entries.put(projectId, entry);
+
+    Iterator<Map.Entry<Integer, Entry>> iter = entries.entrySet().iterator();
+
+    while (entries.size() > maxSize && iter.hasNext()) {
+      iter.next();
+      iter.remove();
+      evictions.increment();
+    }
+  }
+
+  /**
+   * Tells whether the cache keeps anything
+   * @return False if the cache was built with a size of 0
+   */
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /**
+   * Drops one project
+   * @param projectId Project ID
+   */
+  public synchronized void invalidate(Integer projectId) {
+    entries.remove(projectId);
+  }
+
+  /**
+   * Drops every project
+   */
+  public synchronized void invalidateAll() {
+    entries.clear();
+  }
+
+  /**
+   * Takes a statistics snapshot
+   * @return Cache statistics
+   */
+  public synchronized CacheStats getStats() {
+    return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+  }
+
+  // Versions only go up, so a lower one was read before the cached one was written
+  private static boolean isOlder(Integer version, Integer cachedVersion) {
+    return version != null && cachedVersion != null && version < cachedVersion;
+  }
+
+  // A cached project, or null for a write marker or tombstone, its version, whether the project
+  // was deleted and when the entry goes stale
+  private record Entry(Project project, Integer version, boolean deleted, long expiresAtNanos) {
+  }
+}
@@ -1,13 +1,49 @@
 package projects.service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import projects.dao.ChangeCursor;
+import projects.dao.ChangePage;
+import projects.dao.IdRange;
 import projects.dao.ProjectDao;
+import projects.dao.ProjectFilter;
+import projects.dao.QueryPlanRow;
+import projects.dao.ReadSession;
+import projects.dao.UpdateResult;
 import projects.entity.Project;
+import projects.entity.ProjectSearchHit;
+import projects.entity.ProjectSummary;
+import projects.exception.ProjectConflictException;
+import projects.report.EstimateReport;
+import projects.report.ProjectSnapshot;
 
-// This file serves to manage project CRUD tasks
+// This file serves to manage project CRUD tasks. Lookups by ID go through a small in-process
+// cache of rows read from the database, which this service's own updates and deletes drop. In
+// write-behind mode, adds and updates are queued and committed in groups
 public class ProjectService {
+  // Characters with a meaning in a MySQL boolean mode full-text search
+  private static final String BOOLEAN_OPERATORS = "+-<>()~*\"";
+
   private ProjectDao projectDao = new ProjectDao();
+  private ProjectCache projectCache = ProjectCache.fromSystemProperties();
+
+  // Readers take whatever snapshot is current without locking; the lock only keeps two
+  // refreshes from reading the whole table at the same time
+  private final AtomicReference<ProjectSnapshot> projectSnapshot = new AtomicReference<>();
+  private final Object snapshotLock = new Object();
+
+  // Set while write-behind mode is on
+  private volatile ProjectWriteBuffer writeBuffer;
 
   /**
    * Adds a new project
@@ -15,9 +51,32 @@ public class ProjectService {
    * @return New project with its ID
    */
   public Project addProject(Project project) {
+    if (writeBuffer != null) {
+      return await(queueAddProject(project));
+    }
+
     return projectDao.insertProject(project);
   }
 
+  /**
+   * Adds many projects with batched inserts
+   * @param projects Projects to save
+   * @return New projects with their IDs
+   */
+  public List<Project> addProjects(Collection<Project> projects) {
+    return projectDao.insertProjects(projects);
+  }
+
+  /**
+   * Adds many projects with batched inserts, committing every chunkSize rows
+   * @param projects Projects to save
+   * @param chunkSize Rows per batch and commit
+   * @return New projects with their IDs
+   */
+  public List<Project> addProjects(Collection<Project> projects, int chunkSize) {
+    return projectDao.insertProjects(projects, chunkSize);
+  }
+
   /**
    * Gathers all projects
    * @return List of all projects
@@ -26,6 +85,169 @@ public class ProjectService {
     return projectDao.fetchAllProjects();
   }
 
+  /**
+   * Streams all projects without loading them all into memory
+   * @return Stream of projects; close it to release its connection
+   */
+  public Stream<Project> streamAllProjects() {
+    return projectDao.streamAllProjects();
+  }
+
+  /**
+   * Gets the in-memory snapshot of all projects for analytics, loading it on first use. It
+   * doesn't follow later writes; call {@link #refreshProjectSnapshot()} to catch up
+   * @return Current snapshot
+   */
+  public ProjectSnapshot getProjectSnapshot() {
+    ProjectSnapshot snapshot = projectSnapshot.get();
+
+    if (snapshot == null) {
+      synchronized (snapshotLock) {
+        snapshot = projectSnapshot.get();
+
+        if (snapshot == null) {
+          snapshot = loadProjectSnapshot();
+        }
+      }
+    }
+
+    return snapshot;
+  }
+
+  /**
+   * Reads all projects into a new snapshot and swaps it in. Callers holding the old snapshot
+   * keep a consistent view until they ask again
+   * @return New snapshot
+   */
+  public ProjectSnapshot refreshProjectSnapshot() {
+    synchronized (snapshotLock) {
+      return loadProjectSnapshot();
+    }
+  }
+
+  private ProjectSnapshot loadProjectSnapshot() {
+    try (Stream<Project> projects = projectDao.streamProjectsForSnapshot()) {
+      ProjectSnapshot snapshot = ProjectSnapshot.load(projects);
+      projectSnapshot.set(snapshot);
+      return snapshot;
+    }
+  }
+
+  /**
+   * Streams the projects in an ID range without loading them all into memory
+   * @param range IDs to read, inclusive
+   * @return Stream of projects; close it to release its connection
+   */
+  public Stream<Project> streamProjectsInRange(IdRange range) {
+    return projectDao.streamProjectsInRange(range);
+  }
+
+  /**
+   * Finds the lowest and highest project IDs
+   * @return ID range, or empty if there are no projects
+   */
+  public Optional<IdRange> fetchProjectIdRange() {
+    return projectDao.fetchProjectIdRange();
+  }
+
+  /**
+   * Passes each project to a callback as it is read
+   * @param action Callback for each project
+   */
+  public void forEachProject(Consumer<Project> action) {
+    projectDao.forEachProject(action);
+  }
+
+  /**
+   * Gets the page of projects after a given ID
+   * @param afterProjectId Last ID of the previous page, or null for the first page
+   * @param limit Maximum projects to return
+   * @return Projects sorted by ID
+   */
+  public List<Project> fetchProjectsPage(Integer afterProjectId, int limit) {
+    return projectDao.fetchProjectsPage(afterProjectId, limit);
+  }
+
+  /**
+   * Gets the page of projects before a given ID
+   * @param beforeProjectId First ID of the next page, or null for the last page
+   * @param limit Maximum projects to return
+   * @return Projects sorted by ID
+   */
+  public List<Project> fetchProjectsPageBefore(Integer beforeProjectId, int limit) {
+    return projectDao.fetchProjectsPageBefore(beforeProjectId, limit);
+  }
+
+  /**
+   * Gets the page of project summaries after a given ID, without hours or notes
+   * @param afterProjectId Last ID of the previous page, or null for the first page
+   * @param limit Maximum summaries to return
+   * @return Summaries sorted by ID
+   */
+  public List<ProjectSummary> fetchProjectSummariesPage(Integer afterProjectId, int limit) {
+    return projectDao.fetchProjectSummariesPage(afterProjectId, limit);
+  }
+
+  /**
+   * Gets the page of project summaries before a given ID, without hours or notes
+   * @param beforeProjectId First ID of the next page, or null for the last page
+   * @param limit Maximum summaries to return
+   * @return Summaries sorted by ID
+   */
+  public List<ProjectSummary> fetchProjectSummariesPageBefore(Integer beforeProjectId, int limit) {
+    return projectDao.fetchProjectSummariesPageBefore(beforeProjectId, limit);
+  }
+
+  /**
+   * Gets a page of projects matching a filter
+   * @param filter Criteria to match
+   * @param afterProjectId Last ID of the previous page, or null for the first page
+   * @param limit Maximum projects to return
+   * @return Matching projects sorted by ID
+   */
+  public List<Project> fetchProjectsPage(ProjectFilter filter, Integer afterProjectId, int limit) {
+    return projectDao.fetchProjectsPage(filter, afterProjectId, limit);
+  }
+
+  /**
+   * Shows how the database would run a filtered page query
+   * @param filter Criteria to match
+   * @return Query plan; a row with a full scan means the filter isn't using an index
+   */
+  public List<QueryPlanRow> explainProjectsPage(ProjectFilter filter) {
+    return projectDao.explainProjectsPage(filter, null, 20);
+  }
+
+  /**
+   * Searches project names and notes, best matches first. A query using any of the boolean
+   * operators + - &lt; &gt; ( ) ~ * " runs as a boolean search; anything else is ranked in
+   * natural language mode
+   * @param query Search text
+   * @param limit Maximum matches to return
+   * @return Matches with a short snippet of the notes
+   * @throws IllegalArgumentException If the query is blank or the limit isn't positive
+   */
+  public List<ProjectSearchHit> searchProjects(String query, int limit) {
+    if (query == null || query.isBlank()) {
+      throw new IllegalArgumentException("Search text is required");
+    }
+
+    if (limit < 1) {
+      throw new IllegalArgumentException("Limit must be at least 1");
+    }
+
+    boolean booleanMode = query.chars().anyMatch(ch -> BOOLEAN_OPERATORS.indexOf(ch) >= 0);
+    return projectDao.searchProjects(query.strip(), limit, booleanMode);
+  }
+
+  /**
+   * Reports estimated vs actual hours by difficulty, aggregated by the database
+   * @return Estimate accuracy report
+   */
+  public EstimateReport fetchEstimateReport() {
+    return projectDao.fetchEstimateReport();
+  }
+
   /**
    * Finds project by ID
    * @param projectId Project ID to look up
@@ -33,21 +255,221 @@ public class ProjectService {
    * @throws NoSuchElementException If project not found
    */
   public Project fetchProjectById(Integer projectId) {
-    return projectDao.fetchProjectById(projectId).orElseThrow(() -> new NoSuchElementException(
-        "Project with ID= " + projectId + " does not exist."));
+    Optional<Project> cached = projectCache.get(projectId);
+
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+
+    // A replica may be behind, and a stale row would be served from the cache for its whole
+    // TTL, so only rows read from the primary are cached
+    if (!projectCache.isEnabled()) {
+      return projectDao.fetchProjectById(projectId).orElseThrow(() -> new NoSuchElementException(
+          "Project with ID= " + projectId + " does not exist."));
+    }
+
+    Project project = projectDao.fetchProjectByIdFromPrimary(projectId).orElseThrow(
+        () -> new NoSuchElementException("Project with ID= " + projectId + " does not exist."));
+    projectCache.put(project);
+    return project;
   }
 
   /**
-   * Updates project details
-   * @param project Project with new info
+   * Updates project details in one version-checked statement
+   * @param project Project with new info and the version it was read at
    * @return True if update worked
    * @throws NoSuchElementException If project not found
+   * @throws ProjectConflictException If the project changed since it was read
    */
   public boolean updateProject(Project project) {
-    if (fetchProjectById(project.getProjectId()) == null) {
-      throw new NoSuchElementException("Project with ID=" + project.getProjectId() + " does not exist.");
+    if (writeBuffer != null) {
+      return await(queueUpdateProject(project));
+    }
+
+    UpdateResult result = projectDao.updateProject(project);
+
+    if (result == UpdateResult.UPDATED) {
+      projectCache.markWritten(project.getProjectId(), project.getVersion());
+      return true;
+    }
+
+    projectCache.invalidate(project.getProjectId());
+    throw updateFailure(result, project.getProjectId());
+  }
+
+  private static RuntimeException updateFailure(UpdateResult result, Integer projectId) {
+    if (result == UpdateResult.NOT_FOUND) {
+      return new NoSuchElementException("Project with ID=" + projectId + " does not exist.");
+    }
+
+    return new ProjectConflictException(projectId, "Project with ID=" + projectId
+        + " was changed by someone else. Reload it and try again.");
+  }
+
+  /**
+   * Turns on write-behind mode, with settings from "projects.writeBehind.*" system properties.
+   * Adds and updates are then queued and committed in groups, and the blocking addProject and
+   * updateProject calls wait for their group, so concurrent callers share commits
+   */
+  public synchronized void startWriteBehind() {
+    if (writeBuffer == null) {
+      writeBuffer = ProjectWriteBuffer.fromSystemProperties(projectDao);
+    }
+  }
+
+  /**
+   * Writes everything still queued and turns write-behind mode off
+   */
+  public synchronized void stopWriteBehind() {
+    if (writeBuffer != null) {
+      writeBuffer.close();
+      writeBuffer = null;
+    }
+  }
+
+  /**
+   * Queues a new project in write-behind mode; otherwise saves it now
+   * @param project Project to save
+   * @return Future of the new project with its ID, completed once it has committed
+   */
+  public CompletableFuture<Project> queueAddProject(Project project) {
+    ProjectWriteBuffer buffer = writeBuffer;
+
+    if (buffer == null) {
+      return CompletableFuture.completedFuture(addProject(project));
+    }
+
+    return inSession(() -> buffer.insert(project));
+  }
+
+  /**
+   * Queues a version-checked update in write-behind mode; otherwise updates now. Updates to one
+   * project are written in the order they were queued, with the same outcome as running them in
+   * turn, so of two updates read at the same version only the first can succeed
+   * @param project Project with new info and the version it was read at
+   * @return Future that fails with NoSuchElementException or ProjectConflictException
+   */
+  public CompletableFuture<Boolean> queueUpdateProject(Project project) {
+    ProjectWriteBuffer buffer = writeBuffer;
+
+    if (buffer == null) {
+      try {
+        return CompletableFuture.completedFuture(updateProject(project));
+      } catch (RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+
+    Integer projectId = project.getProjectId();
+
+    // The buffer sets the caller's new version before completing the future
+    return inSession(() -> buffer.update(project))
+        .whenComplete((result, error) -> {
+          if (result == UpdateResult.UPDATED) {
+            projectCache.markWritten(projectId, project.getVersion());
+          } else {
+            projectCache.invalidate(projectId);
+          }
+        })
+        .thenApply(result -> {
+          if (result != UpdateResult.UPDATED) {
+            throw updateFailure(result, projectId);
+          }
+
+          return true;
+        });
+  }
+
+  /**
+   * Writes everything queued so far without waiting for the group delay
+   * @return Future completed once the queued writes have committed or failed
+   */
+  public CompletableFuture<Void> flushWrites() {
+    ProjectWriteBuffer buffer = writeBuffer;
+    return buffer == null ? CompletableFuture.completedFuture(null) : buffer.flush();
+  }
+
+  /**
+   * Gets write-behind group and coalescing counts
+   * @return Buffer statistics, or empty if write-behind mode is off
+   */
+  public Optional<WriteBufferStats> getWriteBufferStats() {
+    ProjectWriteBuffer buffer = writeBuffer;
+    return buffer == null ? Optional.empty() : Optional.of(buffer.getStats());
+  }
+
+  // A queued write runs on the buffer's thread, so the caller's session is told about it here.
+  // Its reads go to the primary until the write is done
+  private static <T> CompletableFuture<T> inSession(Supplier<CompletableFuture<T>> write) {
+    ReadSession session = ReadSession.current();
+
+    if (session == null) {
+      return write.get();
+    }
+
+    session.writeStarted();
+
+    try {
+      return write.get().whenComplete((value, error) -> session.writeFinished());
+    } catch (RuntimeException e) {
+      session.writeFinished();
+      throw e;
+    }
+  }
+
+  // Waits for a queued write, rethrowing its failure as the blocking call would have
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+
+      throw e;
+    }
+  }
+
+  /**
+   * Updates a project by applying changes to its latest state, retrying on conflicts
+   * @param projectId Project ID to update
+   * @param merge Applies the changes to a copy of the latest project and returns it
+   * @param maxRetries Extra attempts after a conflict
+   * @return Updated project
+   * @throws NoSuchElementException If project not found
+   * @throws ProjectConflictException If every attempt conflicted
+   */
+  public Project updateProject(Integer projectId, UnaryOperator<Project> merge, int maxRetries) {
+    Project current = fetchProjectById(projectId);
+
+    for (int attempt = 0; ; attempt++) {
+      Integer version = current.getVersion();
+      Project changed = merge.apply(current);
+      changed.setProjectId(projectId);
+      changed.setVersion(version);
+
+      UpdateResult result = projectDao.updateProject(changed);
+
+      if (result == UpdateResult.UPDATED) {
+        projectCache.markWritten(projectId, changed.getVersion());
+        return changed;
+      }
+
+      projectCache.invalidate(projectId);
+
+      if (result == UpdateResult.NOT_FOUND) {
+        throw new NoSuchElementException("Project with ID=" + projectId + " does not exist.");
+      }
+
+      if (attempt >= maxRetries) {
+        throw new ProjectConflictException(projectId, "Project with ID=" + projectId
+            + " kept changing; gave up after " + (attempt + 1) + " attempts.");
+      }
+
+      // Skip the cache and the replicas so the retry merges onto what is actually stored
+      current = projectDao.fetchProjectByIdFromPrimary(projectId).orElseThrow(() -> new NoSuchElementException(
+          "Project with ID= " + projectId + " does not exist."));
     }
-    return projectDao.updateProject(project);
   }
 
   /**
@@ -57,9 +479,84 @@ public class ProjectService {
    * @throws NoSuchElementException If project not found
    */
   public boolean deleteProject(Integer projectId) {
-    if (fetchProjectById(projectId) == null) {
+    boolean deleted;
+
+    try {
+      deleted = projectDao.deleteProject(projectId);
+    } finally {
+      projectCache.markDeleted(projectId);
+    }
+
+    if (!deleted) {
       throw new NoSuchElementException("Project with ID=" + projectId + " does not exist.");
     }
-    return projectDao.deleteProject(projectId);
+
+    return true;
+  }
+
+  /**
+   * Removes many projects in one transaction; IDs that don't exist are skipped
+   * @param projectIds Project IDs to delete
+   * @return Number of projects deleted
+   */
+  public int deleteProjects(Collection<Integer> projectIds) {
+    try {
+      return projectDao.deleteProjects(projectIds);
+    } finally {
+      projectIds.forEach(projectCache::markDeleted);
+    }
+  }
+
+  /**
+   * Removes every project with one of the given difficulties, in one transaction
+   * @param difficulties Difficulty levels to delete
+   * @return IDs of the deleted projects
+   */
+  public List<Integer> deleteProjectsByDifficulty(Collection<Integer> difficulties) {
+    List<Integer> deletedIds = projectDao.deleteProjectsByDifficulty(difficulties);
+    deletedIds.forEach(projectCache::markDeleted);
+    return deletedIds;
+  }
+
+  /**
+   * Gets the projects saved and deleted after a cursor, oldest first
+   * @param since Cursor from the previous page, or ChangeCursor.START
+   * @param limit Maximum changes to return
+   * @return Changes and the cursor to continue from
+   */
+  public ChangePage fetchChangedSince(ChangeCursor since, int limit) {
+    return projectDao.fetchChangedSince(since, limit);
+  }
+
+  /**
+   * Maintenance: forgets deletes older than a cutoff
+   * @param before Tombstones of deletes before this time are dropped
+   * @return Number of tombstones dropped
+   */
+  public int purgeTombstones(LocalDateTime before) {
+    return projectDao.purgeTombstones(before);
+  }
+
+  /**
+   * Maintenance: restarts project ID numbering at 1 if there are no projects
+   * @return True if the numbering was reset
+   */
+  public boolean resetProjectIdsIfEmpty() {
+    boolean reset = projectDao.resetAutoIncrementIfEmpty();
+
+    // Deleted projects' IDs are about to be handed out again, so their tombstones have to go
+    if (reset) {
+      projectCache.invalidateAll();
+    }
+
+    return reset;
+  }
+
+  /**
+   * Gets project cache hit, miss and eviction counts
+   * @return Cache statistics
+   */
+  public CacheStats getCacheStats() {
+    return projectCache.getStats();
   }
 }
\ No newline at end of file
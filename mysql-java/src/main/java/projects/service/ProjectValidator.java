@@ -0,0 +1,96 @@
+package projects.service;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import projects.exception.DbException;
+
+// These are the input rules for project fields, shared by the menu prompts and file imports
+public class ProjectValidator {
+  public static final int MIN_DIFFICULTY = 1;
+  public static final int MAX_DIFFICULTY = 5;
+  public static final int MAX_NAME_LENGTH = 128;
+
+  // DECIMAL(7, 2) in projects-schema.sql
+  private static final int HOURS_PRECISION = 7;
+  private static final int HOURS_SCALE = 2;
+
+  private ProjectValidator() {
+  }
+
+  /**
+   * Checks a project name
+   * @param name Name, possibly null or blank
+   * @return Trimmed name
+   * @throws DbException If the name is missing or too long
+   */
+  public static String requireName(String name) {
+    if (Objects.isNull(name) || name.isBlank()) {
+      throw new DbException("Project name is required.");
+    }
+
+    String trimmed = name.trim();
+
+    if (trimmed.length() > MAX_NAME_LENGTH) {
+      throw new DbException("Project name can't be longer than " + MAX_NAME_LENGTH + " characters.");
+    }
+
+    return trimmed;
+  }
+
+  /**
+   * Parses hours as a scale-2 decimal
+   * @param input Text to parse, possibly null or blank
+   * @return Hours, or null if input is blank
+   * @throws DbException If the input isn't a number that fits the hours columns
+   */
+  public static BigDecimal parseHours(String input) {
+    if (Objects.isNull(input) || input.isBlank()) {
+      return null;
+    }
+
+    try {
+      BigDecimal hours = new BigDecimal(input.trim()).setScale(HOURS_SCALE);
+
+      if (hours.precision() > HOURS_PRECISION) {
+        throw new DbException(input + " is too large for hours");
+      }
+
+      return hours;
+    } catch (NumberFormatException | ArithmeticException e) {
+      throw new DbException(input + " invalid number");
+    }
+  }
+
+  /**
+   * Checks a difficulty level
+   * @param difficulty Difficulty, possibly null
+   * @return True if it is between MIN_DIFFICULTY and MAX_DIFFICULTY
+   */
+  public static boolean isValidDifficulty(Integer difficulty) {
+    return Objects.nonNull(difficulty) && difficulty >= MIN_DIFFICULTY
+        && difficulty <= MAX_DIFFICULTY;
+  }
+
+  /**
+   * Parses and checks a difficulty level
+   * @param input Text to parse
+   * @return Difficulty
+   * @throws DbException If the input isn't a whole number between 1 and 5
+   */
+  public static Integer parseDifficulty(String input) {
+    Integer difficulty;
+
+    try {
+      difficulty = Objects.isNull(input) ? null : Integer.valueOf(input.trim());
+    } catch (NumberFormatException e) {
+      throw new DbException(input + " invalid number");
+    }
+
+    if (!isValidDifficulty(difficulty)) {
+      throw new DbException("Difficulty must be between " + MIN_DIFFICULTY + " and "
+          + MAX_DIFFICULTY + ".");
+    }
+
+    return difficulty;
+  }
+}
@@ -0,0 +1,501 @@
+package projects.service;
+
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import projects.dao.ProjectDao;
+import projects.dao.UpdateResult;
+import projects.entity.Project;
+import projects.exception.DbException;
+
+// This queues project inserts and updates in memory and writes them in groups, one transaction
+// per group, so many writes share one commit instead of each paying for its own. A group is
+// written once maxBatchSize writes are waiting or the oldest one has waited maxDelayMillis.
+// Updates are written in the order they were queued, so two updates to one project are each
+// checked against the version the other left. An update read at the same version as the last
+// update waiting for its project isn't written at all: whatever happens to the waiting one
+// decides it, just as if the two had run in turn. Callers block while the buffer is full.
+// When a group fails on a bad row, its writes are retried one at a time so only the bad ones
+// fail; when it fails for any other reason, such as a timeout, the whole group fails at once.
+// Futures are completed on the writer thread, so anything chained onto them should be quick
+public class ProjectWriteBuffer implements AutoCloseable {
+  private final ProjectDao projectDao;
+  private final int capacity;
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+  private final Thread writer;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notFull = lock.newCondition();
+  private final Condition writesWaiting = lock.newCondition();
+
+  // Everything below is guarded by lock
+  private final List<PendingInsert> inserts = new ArrayList<>();
+  private final ArrayDeque<PendingUpdate> updates = new ArrayDeque<>();
+  private final Map<Integer, PendingUpdate> lastUpdates = new HashMap<>();
+  private List<CompletableFuture<?>> inFlight = List.of();
+  private long oldestNanos;
+  private boolean flushRequested;
+  private boolean closed;
+
+  private final LongAdder groups = new LongAdder();
+  private final LongAdder writes = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder failedGroups = new LongAdder();
+
+  /**
+   * Builds a buffer and starts its writer thread
+   * @param projectDao DAO the groups are written through
+   * @param capacity Most writes waiting before callers block
+   * @param maxBatchSize Most writes in one transaction; a full batch is written at once
+   * @param maxDelayMillis Longest a write waits for others to join its group
+   */
+  public ProjectWriteBuffer(ProjectDao projectDao, int capacity, int maxBatchSize,
+      long maxDelayMillis) {
+    if (capacity < 1 || maxBatchSize < 1) {
+      throw new IllegalArgumentException("Capacity and batch size must be at least 1");
+    }
+
+    if (maxDelayMillis < 0) {
+      throw new IllegalArgumentException("Delay can't be negative");
+    }
+
+    this.projectDao = projectDao;
+    this.capacity = capacity;
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+    this.writer = Thread.ofPlatform().name("project-write-behind").daemon(true)
+        .start(this::writeLoop);
+  }
+
+  /**
+   * Builds a buffer from "projects.writeBehind.capacity", "projects.writeBehind.maxBatchSize"
+   * and "projects.writeBehind.maxDelayMillis" system properties
+   * @param projectDao DAO the groups are written through
+   * @return Write buffer
+   */
+  public static ProjectWriteBuffer fromSystemProperties(ProjectDao projectDao) {
+    return new ProjectWriteBuffer(projectDao,
+        Integer.getInteger("projects.writeBehind.capacity", 10_000),
+        Integer.getInteger("projects.writeBehind.maxBatchSize", 500),
+        Long.getLong("projects.writeBehind.maxDelayMillis", 5));
+  }
+
+  /**
+   * Queues a new project, blocking while the buffer is full. A copy is queued, so later changes
+   * to the project don't leak into the write
+   * @param project Project to save
+   * @return Future of the same project with its ID, completed once the insert has committed
+   */
+  public CompletableFuture<Project> insert(Project project) {
+    CompletableFuture<Project> result = new CompletableFuture<>();
+
+    lock.lock();
+    try {
+      if (awaitRoom(result)) {
+        inserts.add(new PendingInsert(project.copy(), project, result));
+        added();
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    return result;
+  }
+
+  /**
+   * Queues a version-checked update, blocking while the buffer is full. If the last update
+   * waiting for the same project was read at the same version, this one takes no room and
+   * isn't written: it gets CONFLICT if that update is written, otherwise the same result
+   * @param project Project with updates and the version it was read at
+   * @return Future of UPDATED, NOT_FOUND or CONFLICT, completed once the group has committed
+   * @throws DbException If the project has no ID or version
+   */
+  public CompletableFuture<UpdateResult> update(Project project) {
+    if (Objects.isNull(project.getProjectId()) || Objects.isNull(project.getVersion())) {
+      throw new DbException("Project ID and version are required for an update");
+    }
+
+    CompletableFuture<UpdateResult> result = new CompletableFuture<>();
+    Integer projectId = project.getProjectId();
+
+    lock.lock();
+    try {
+      PendingUpdate last = lastUpdates.get(projectId);
+
+      if (!sameVersion(last, project)) {
+        if (!awaitRoom(result)) {
+          return result;
+        }
+
+        // Another update may have been queued while this one waited
+        last = lastUpdates.get(projectId);
+      }
+
+      if (sameVersion(last, project)) {
+        last.followers.add(result);
+        coalesced.increment();
+      } else {
+        PendingUpdate pending = new PendingUpdate(project.copy(), project, result);
+        updates.add(pending);
+        lastUpdates.put(projectId, pending);
+        added();
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    return result;
+  }
+
+  /**
+   * Writes everything queued so far without waiting for the delay
+   * @return Future completed once every write queued before the call has committed or failed
+   */
+  public CompletableFuture<Void> flush() {
+    List<CompletableFuture<?>> waitFor = new ArrayList<>();
+
+    lock.lock();
+    try {
+      waitFor.addAll(inFlight);
+      inserts.forEach(pending -> waitFor.add(pending.result));
+      updates.forEach(pending -> pending.addFutures(waitFor));
+
+      flushRequested = true;
+      writesWaiting.signal();
+    } finally {
+      lock.unlock();
+    }
+
+    return CompletableFuture.allOf(waitFor.stream()
+        .map(future -> future.handle((value, error) -> null))
+        .toArray(CompletableFuture<?>[]::new));
+  }
+
+  /**
+   * Gets group, write and coalescing counts
+   * @return Buffer statistics
+   */
+  public WriteBufferStats getStats() {
+    lock.lock();
+    try {
+      return new WriteBufferStats(groups.sum(), writes.sum(), coalesced.sum(), failedGroups.sum(),
+          pendingCount());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stops taking writes, writes everything still queued and stops the writer thread
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      writesWaiting.signal();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Waits while the buffer is full. Fails the future and returns false if the buffer closes or
+  // the caller is interrupted while waiting
+  private boolean awaitRoom(CompletableFuture<?> result) {
+    try {
+      while (!closed && pendingCount() >= capacity) {
+        notFull.await();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      result.completeExceptionally(
+          new CancellationException("Interrupted while the write buffer was full"));
+      return false;
+    }
+
+    if (closed) {
+      result.completeExceptionally(new IllegalStateException("Write buffer is closed"));
+      return false;
+    }
+
+    return true;
+  }
+
+  // True if an update waiting for the project was read at the same version as this one
+  private static boolean sameVersion(PendingUpdate last, Project project) {
+    return last != null && last.row.getVersion().equals(project.getVersion());
+  }
+
+  private void added() {
+    if (pendingCount() == 1) {
+      oldestNanos = System.nanoTime();
+    }
+
+    writesWaiting.signal();
+  }
+
+  private int pendingCount() {
+    return inserts.size() + updates.size();
+  }
+
+  private void writeLoop() {
+    while (true) {
+      List<PendingInsert> insertGroup = new ArrayList<>();
+      List<PendingUpdate> updateGroup = new ArrayList<>();
+
+      try {
+        if (!takeNextGroup(insertGroup, updateGroup)) {
+          return;
+        }
+
+        writeGroup(insertGroup, updateGroup);
+      } catch (RuntimeException | Error e) {
+        // The writer must keep going, or every write queued after this one would wait forever
+        System.err.println("Write-behind group failed unexpectedly: " + e);
+        failedGroups.increment();
+        failAll(insertGroup, updateGroup, e);
+      } finally {
+        lock.lock();
+        try {
+          inFlight = List.of();
+        } finally {
+          lock.unlock();
+        }
+      }
+    }
+  }
+
+  // Waits for the next group to be due and takes it. Returns false once the buffer is closed
+  // and everything queued has been written
+  private boolean takeNextGroup(List<PendingInsert> insertGroup,
+      List<PendingUpdate> updateGroup) {
+    lock.lock();
+    try {
+      while (!closed && pendingCount() == 0) {
+        writesWaiting.awaitUninterruptibly();
+      }
+
+      if (closed && pendingCount() == 0) {
+        return false;
+      }
+
+      // Give other writes until the oldest one's deadline to join the group
+      long deadline = oldestNanos + maxDelayNanos;
+      long remaining;
+
+      while (!closed && !flushRequested && pendingCount() < maxBatchSize
+          && (remaining = deadline - System.nanoTime()) > 0) {
+        try {
+          writesWaiting.awaitNanos(remaining);
+        } catch (InterruptedException e) {
+          // Only close() stops the writer, so that nothing queued is dropped
+        }
+      }
+
+      takeGroup(insertGroup, updateGroup);
+
+      // Whatever is left over is already due, so it goes out in the next group straight away
+      if (pendingCount() == 0) {
+        flushRequested = false;
+      }
+
+      List<CompletableFuture<?>> group = new ArrayList<>();
+      insertGroup.forEach(pending -> group.add(pending.result));
+      updateGroup.forEach(pending -> pending.addFutures(group));
+      inFlight = group;
+      notFull.signalAll();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void takeGroup(List<PendingInsert> insertGroup, List<PendingUpdate> updateGroup) {
+    Iterator<PendingInsert> insertIter = inserts.iterator();
+
+    while (insertIter.hasNext() && insertGroup.size() < maxBatchSize) {
+      insertGroup.add(insertIter.next());
+      insertIter.remove();
+    }
+
+    // Taken in queue order, so a project's updates are written in the order they were made
+    while (!updates.isEmpty() && insertGroup.size() + updateGroup.size() < maxBatchSize) {
+      PendingUpdate pending = updates.poll();
+      updateGroup.add(pending);
+      lastUpdates.remove(pending.row.getProjectId(), pending);
+    }
+  }
+
+  private void writeGroup(List<PendingInsert> insertGroup, List<PendingUpdate> updateGroup) {
+    RuntimeException failure = tryWrite(insertGroup, updateGroup);
+
+    if (failure == null) {
+      return;
+    }
+
+    if (insertGroup.size() + updateGroup.size() == 1 || !isRowError(failure)) {
+      failAll(insertGroup, updateGroup, failure);
+      return;
+    }
+
+    // One bad row shouldn't fail everyone else's write, so the group is retried a write at a
+    // time. If a retry fails for some other reason, the rest would too, so they fail with it
+    for (int i = 0; i < insertGroup.size(); i++) {
+      failure = tryWrite(List.of(insertGroup.get(i)), List.of());
+
+      if (failure != null && !isRowError(failure)) {
+        failAll(insertGroup.subList(i, insertGroup.size()), updateGroup, failure);
+        return;
+      }
+
+      if (failure != null) {
+        insertGroup.get(i).result.completeExceptionally(failure);
+      }
+    }
+
+    for (int i = 0; i < updateGroup.size(); i++) {
+      failure = tryWrite(List.of(), List.of(updateGroup.get(i)));
+
+      if (failure != null && !isRowError(failure)) {
+        failAll(List.of(), updateGroup.subList(i, updateGroup.size()), failure);
+        return;
+      }
+
+      if (failure != null) {
+        updateGroup.get(i).fail(failure);
+      }
+    }
+  }
+
+  // Writes a group in one transaction and completes its futures. Returns the failure instead
+  // of completing them if the transaction fails
+  private RuntimeException tryWrite(List<PendingInsert> insertGroup,
+      List<PendingUpdate> updateGroup) {
+    List<Project> insertRows = insertGroup.stream().map(pending -> pending.row).toList();
+    List<Project> updateRows = updateGroup.stream().map(pending -> pending.row).toList();
+    List<UpdateResult> results;
+
+    try {
+      results = projectDao.writeProjects(insertRows, updateRows);
+    } catch (RuntimeException e) {
+      failedGroups.increment();
+      return e;
+    }
+
+    groups.increment();
+    writes.add(insertRows.size() + updateRows.size());
+
+    for (PendingInsert pending : insertGroup) {
+      pending.caller.setProjectId(pending.row.getProjectId());
+      pending.caller.setVersion(pending.row.getVersion());
+      pending.result.complete(pending.caller);
+    }
+
+    for (int i = 0; i < updateGroup.size(); i++) {
+      updateGroup.get(i).complete(results.get(i));
+    }
+
+    return null;
+  }
+
+  private static void failAll(List<PendingInsert> insertGroup, List<PendingUpdate> updateGroup,
+      Throwable error) {
+    insertGroup.forEach(pending -> pending.result.completeExceptionally(error));
+    updateGroup.forEach(pending -> pending.fail(error));
+  }
+
+  // Constraint violations and bad values (SQLSTATE classes 23 and 22) come from particular
+  // rows, so the rest of the group can still be written. Anything else, such as a connection
+  // timeout or a database that is down, would fail every retry as well
+  private static boolean isRowError(Throwable error) {
+    for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+      if (!(cause instanceof SQLException sqlError)) {
+        continue;
+      }
+
+      for (SQLException e = sqlError; e != null; e = e.getNextException()) {
+        String state = Objects.toString(e.getSQLState(), "");
+
+        if (e instanceof SQLIntegrityConstraintViolationException
+            || e instanceof SQLDataException || state.startsWith("22")
+            || state.startsWith("23")) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  // A queued insert: the copy that is written and the caller's project that gets the new ID
+  private static class PendingInsert {
+    private final Project row;
+    private final Project caller;
+    private final CompletableFuture<Project> result;
+
+    PendingInsert(Project row, Project caller, CompletableFuture<Project> result) {
+      this.row = row;
+      this.caller = caller;
+      this.result = result;
+    }
+  }
+
+  // A queued update, and the updates read at the same version that its result decides
+  private static class PendingUpdate {
+    private final Project row;
+    private final Project caller;
+    private final CompletableFuture<UpdateResult> result;
+    private final List<CompletableFuture<UpdateResult>> followers = new ArrayList<>(0);
+
+    PendingUpdate(Project row, Project caller, CompletableFuture<UpdateResult> result) {
+      this.row = row;
+      this.caller = caller;
+      this.result = result;
+    }
+
+    void addFutures(List<CompletableFuture<?>> futures) {
+      futures.add(result);
+      futures.addAll(followers);
+    }
+
+    // Once this update is written the row has moved past the version the followers were read
+    // at, so they conflict. Otherwise they fail the same way it did
+    void complete(UpdateResult written) {
+      if (written == UpdateResult.UPDATED) {
+        caller.setVersion(row.getVersion());
+      }
+
+      result.complete(written);
+
+      UpdateResult followerResult =
+          written == UpdateResult.UPDATED ? UpdateResult.CONFLICT : written;
+      followers.forEach(follower -> follower.complete(followerResult));
+    }
+
+    void fail(Throwable error) {
+      result.completeExceptionally(error);
+      followers.forEach(follower -> follower.completeExceptionally(error));
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package projects.service;
+
+/**
+ * Point-in-time view of the write-behind buffer
+ * @param groups Groups committed
+ * @param writes Inserts and updates committed in those groups
+ * @param coalesced Updates settled by an update of the same project read at the same version,
+ *        without being written
+ * @param failedGroups Groups rolled back because of an error
+ * @param pending Writes waiting to be written
+ */
+public record WriteBufferStats(long groups, long writes, long coalesced, long failedGroups,
+    int pending) {
+
+  /**
+   * Works out how many writes shared each commit
+   * @return Average writes per committed group
+   */
+  public double averageGroupSize() {
+    return groups == 0 ? 0 : (double)writes / groups;
+  }
+}
@@ -0,0 +1,184 @@
+package provided.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import provided.util.DaoBase.DaoException;
+
+// Everything reflection works out about an entity class, built once per class and reused by
+// every RowMapper for it
+final class ClassMapping<T> {
+  private static final ClassValue<ClassMapping<?>> MAPPINGS = new ClassValue<>() {
+    @Override
+    protected ClassMapping<?> computeValue(Class<?> classType) {
+      return new ClassMapping<>(classType);
+    }
+  };
+
+  private final Class<T> classType;
+  private final MethodHandle constructor;
+  private final FieldMapping[] fields;
+
+  /**
+   * Gets the cached mapping for a class, building it on first use
+   * @param <T> Entity type
+   * @param classType Entity class
+   * @return Class mapping
+   */
+  @SuppressWarnings("unchecked")
+  static <T> ClassMapping<T> of(Class<T> classType) {
+    return (ClassMapping<T>)MAPPINGS.get(classType);
+  }
+
+  private ClassMapping(Class<T> classType) {
+    this.classType = classType;
+
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+      this.constructor = lookup.unreflectConstructor(classType.getConstructor())
+          .asType(MethodType.methodType(Object.class));
+
+      List<FieldMapping> mappings = new ArrayList<>();
+
+      for (Field field : classType.getDeclaredFields()) {
+        if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+          continue;
+        }
+
+        field.setAccessible(true);
+
+        MethodHandle setter = lookup.unreflectSetter(field)
+            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+        mappings.add(new FieldMapping(camelCaseToSnakeCase(field.getName()),
+            readerFor(field.getType()), setter));
+      }
+
+      this.fields = mappings.toArray(new FieldMapping[0]);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      throw new DaoException("Unable to map type " + classType.getName(), e);
+    }
+  }
+
+  /**
+   * Gets the entity class
+   * @return Entity class
+   */
+  Class<T> getClassType() {
+    return classType;
+  }
+
+  /**
+   * Gets the mapped fields in declaration order
+   * @return Field mappings
+   */
+  FieldMapping[] getFields() {
+    return fields;
+  }
+
+  /**
+   * Creates an empty instance through the no-arg constructor
+   * @return New instance
+   * @throws Throwable If the constructor fails
+   */
+  Object newInstance() throws Throwable {
+    return (Object)constructor.invokeExact();
+  }
+
+  /**
+   * Converts a Java identifier to its column name, e.g. projectId to project_id
+   * @param identifier Field name
+   * @return Column name
+   */
+  static String camelCaseToSnakeCase(String identifier) {
+    StringBuilder nameBuilder = new StringBuilder();
+
+    for (char ch : identifier.toCharArray()) {
+      if (Character.isUpperCase(ch)) {
+        nameBuilder.append('_').append(Character.toLowerCase(ch));
+      }
+      else {
+        nameBuilder.append(ch);
+      }
+    }
+
+    return nameBuilder.toString();
+  }
+
+  // Picks a typed getter so values come out of the driver already in the field's type
+  private static ColumnReader readerFor(Class<?> fieldType) {
+    if (Integer.class.equals(fieldType) || int.class.equals(fieldType)) {
+      return (rs, col) -> {
+        int value = rs.getInt(col);
+        return rs.wasNull() ? null : value;
+      };
+    }
+
+    if (Long.class.equals(fieldType) || long.class.equals(fieldType)) {
+      return (rs, col) -> {
+        long value = rs.getLong(col);
+        return rs.wasNull() ? null : value;
+      };
+    }
+
+    if (Double.class.equals(fieldType) || double.class.equals(fieldType)) {
+      return (rs, col) -> {
+        double value = rs.getDouble(col);
+        return rs.wasNull() ? null : value;
+      };
+    }
+
+    if (Boolean.class.equals(fieldType) || boolean.class.equals(fieldType)) {
+      return (rs, col) -> {
+        boolean value = rs.getBoolean(col);
+        return rs.wasNull() ? null : value;
+      };
+    }
+
+    if (String.class.equals(fieldType)) {
+      return ResultSet::getString;
+    }
+
+    if (BigDecimal.class.equals(fieldType)) {
+      return ResultSet::getBigDecimal;
+    }
+
+    if (LocalDateTime.class.equals(fieldType)) {
+      return (rs, col) -> {
+        Timestamp value = rs.getTimestamp(col);
+        return value == null ? null : value.toLocalDateTime();
+      };
+    }
+
+    if (LocalTime.class.equals(fieldType)) {
+      return (rs, col) -> {
+        Time value = rs.getTime(col);
+        return value == null ? null : value.toLocalTime();
+      };
+    }
+
+    return ResultSet::getObject;
+  }
+
+  // Reads one column with a typed getter, returning null for SQL NULL
+  @FunctionalInterface
+  interface ColumnReader {
+    Object read(ResultSet rs, int columnIndex) throws SQLException;
+  }
+
+  // Column name, typed getter and field setter for one entity field
+  record FieldMapping(String columnName, ColumnReader reader, MethodHandle setter) {
+  }
+}
@@ -1,22 +1,34 @@
 package provided.util;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 // Helpful utilities for DAO operations can be found here
 public abstract class DaoBase {
+  // Binders are worked out once per parameter class instead of on every bind
+  private static final ClassValue<ParameterBinder> BINDERS = new ClassValue<>() {
+    @Override
+    protected ParameterBinder computeValue(Class<?> classType) {
+      return createBinder(classType);
+    }
+  };
+
   /**
    * Starts a transaction, letting me decide when to commit
    * @param conn Database connection
@@ -54,63 +66,42 @@ public abstract class DaoBase {
    */
   protected void setParameter(PreparedStatement stmt, int parameterIndex, Object value,
       Class<?> classType) throws SQLException {
-    int sqlType = convertJavaClassToSqlType(classType);
-
-    if(Objects.isNull(value)) {
-      stmt.setNull(parameterIndex, sqlType);
-    }
-    else {
-      switch(sqlType) {
-        case Types.DECIMAL:
-          stmt.setBigDecimal(parameterIndex, (BigDecimal)value);
-          break;
-
-        case Types.DOUBLE:
-          stmt.setDouble(parameterIndex, (Double)value);
-          break;
-
-        case Types.INTEGER:
-          stmt.setInt(parameterIndex, (Integer)value);
-          break;
-
-        case Types.OTHER:
-          stmt.setObject(parameterIndex, value);
-          break;
-
-        case Types.VARCHAR:
-          stmt.setString(parameterIndex, (String)value);
-          break;
-
-        default:
-          throw new DaoException("Unknown parameter type: " + classType);
-      }
-    }
+    BINDERS.get(classType).bind(stmt, parameterIndex, value);
   }
 
   /**
-   * Maps Java class to SQL type
+   * Maps Java class to a binder that knows its SQL type and setter
    * @param classType Java class to convert
-   * @return Corresponding java.sql.Types value
+   * @return Binder for that class
    */
-  private int convertJavaClassToSqlType(Class<?> classType) {
+  private static ParameterBinder createBinder(Class<?> classType) {
     if(Integer.class.equals(classType)) {
-      return Types.INTEGER;
+      return new ParameterBinder(Types.INTEGER,
+          (stmt, index, value) -> stmt.setInt(index, (Integer)value));
     }
 
     if(String.class.equals(classType)) {
-      return Types.VARCHAR;
+      return new ParameterBinder(Types.VARCHAR,
+          (stmt, index, value) -> stmt.setString(index, (String)value));
     }
 
     if(Double.class.equals(classType)) {
-      return Types.DOUBLE;
+      return new ParameterBinder(Types.DOUBLE,
+          (stmt, index, value) -> stmt.setDouble(index, (Double)value));
     }
 
     if(BigDecimal.class.equals(classType)) {
-      return Types.DECIMAL;
+      return new ParameterBinder(Types.DECIMAL,
+          (stmt, index, value) -> stmt.setBigDecimal(index, (BigDecimal)value));
+    }
+
+    if(LocalDateTime.class.equals(classType)) {
+      return new ParameterBinder(Types.TIMESTAMP,
+          (stmt, index, value) -> stmt.setTimestamp(index, Timestamp.valueOf((LocalDateTime)value)));
     }
 
     if(LocalTime.class.equals(classType)) {
-      return Types.OTHER;
+      return new ParameterBinder(Types.OTHER, PreparedStatement::setObject);
     }
 
     throw new DaoException("Unsupported class type: " + classType.getName());
@@ -143,14 +134,14 @@ public abstract class DaoBase {
   }
 
   /**
-   * Fetches last inserted row’s primary key
+   * Fetches last inserted row’s primary key. Prefer getGeneratedKeys(), which needs no extra query
    * @param conn Database connection
-   * @param table Table to query
+   * @param table Table the row was inserted into (unused; LAST_INSERT_ID() is per connection)
    * @return Last inserted ID
    * @throws SQLException If retrieval fails
    */
   protected Integer getLastInsertId(Connection conn, String table) throws SQLException {
-    String sql = String.format("SELECT LAST_INSERT_ID() FROM %s", table);
+    String sql = "SELECT LAST_INSERT_ID()";
 
     try(Statement stmt = conn.createStatement()) {
       try(ResultSet rs = stmt.executeQuery(sql)) {
@@ -164,64 +155,152 @@ public abstract class DaoBase {
   }
 
   /**
-   * Builds an object from result set using reflection
+   * Reads integer keys generated by the last execute, in insert order
+   * @param stmt Statement prepared with Statement.RETURN_GENERATED_KEYS
+   * @param expected Number of rows inserted
+   * @return Generated keys
+   * @throws SQLException If the driver returns fewer keys than rows
+   */
+  protected List<Integer> getGeneratedKeys(PreparedStatement stmt, int expected)
+      throws SQLException {
+    List<Integer> keys = new ArrayList<>(expected);
+
+    try(ResultSet rs = stmt.getGeneratedKeys()) {
+      while(rs.next()) {
+        keys.add(rs.getInt(1));
+      }
+    }
+
+    if(keys.size() < expected) {
+      throw new SQLException("Expected " + expected + " generated keys but got " + keys.size());
+    }
+
+    return keys;
+  }
+
+  /**
+   * Builds an object from result set. Use rowMapper() instead when reading more than one row,
+   * since this resolves the column positions on every call
    * @param <T> Object type to create
    * @param rs Result set (on correct row)
    * @param classType Class to instantiate
    * @return Populated object
    */
   protected <T> T extract(ResultSet rs, Class<T> classType) {
-    try {
-      Constructor<T> con = classType.getConstructor();
-      T obj = con.newInstance();
+    return rowMapper(rs, classType).map(rs);
+  }
 
-      for(Field field : classType.getDeclaredFields()) {
-        String colName = camelCaseToSnakeCase(field.getName());
-        Class<?> fieldType = field.getType();
+  /**
+   * Builds a row mapper for a result set, resolving column positions once per query
+   * @param <T> Object type to create
+   * @param rs Result set to map
+   * @param classType Class to instantiate
+   * @return Row mapper
+   */
+  protected <T> RowMapper<T> rowMapper(ResultSet rs, Class<T> classType) {
+    try {
+      return RowMapper.bind(rs, classType);
+    }
+    catch(SQLException e) {
+      throw new DaoException("Unable to read columns for type " + classType.getName(), e);
+    }
+  }
 
-        field.setAccessible(true);
-        Object fieldValue = null;
+  /**
+   * Runs a query and maps its rows lazily as the stream is consumed. The stream owns the
+   * connection: closing it closes the result set and statement, ends the transaction and
+   * closes the connection, so callers must use try-with-resources
+   * @param <T> Object type to create
+   * @param conn Connection, already in a transaction
+   * @param stmt Prepared query with parameters set
+   * @param classType Class to instantiate
+   * @return Lazily populated stream of rows
+   */
+  protected <T> Stream<T> streamResults(Connection conn, PreparedStatement stmt,
+      Class<T> classType) {
+    ResultSet rs;
 
-        try {
-          fieldValue = rs.getObject(colName);
-        }
-        catch(SQLException e) {
-          // Field not in result set; leave as is
-        }
+    try {
+      rs = stmt.executeQuery();
+    }
+    catch(SQLException e) {
+      DaoException failure =
+          new DaoException("Unable to run query for type " + classType.getName(), e);
+      abandonStreamResources(conn, stmt, null, failure);
+      throw failure;
+    }
 
-        if(Objects.nonNull(fieldValue)) {
-          if(fieldValue instanceof Time && fieldType.equals(LocalTime.class)) {
-            fieldValue = ((Time)fieldValue).toLocalTime();
+    try {
+      RowMapper<T> mapper = rowMapper(rs, classType);
+
+      Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+          Spliterator.ORDERED | Spliterator.NONNULL) {
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+          try {
+            if(!rs.next()) {
+              return false;
+            }
           }
-          else if(fieldValue instanceof Timestamp && fieldType.equals(LocalDateTime.class)) {
-            fieldValue = ((Timestamp)fieldValue).toLocalDateTime();
+          catch(SQLException e) {
+            throw new DaoException("Unable to read next row", e);
           }
 
-          field.set(obj, fieldValue);
+          action.accept(mapper.map(rs));
+          return true;
         }
-      }
+      };
 
-      return obj;
+      return StreamSupport.stream(rows, false)
+          .onClose(() -> closeStreamResources(conn, stmt, rs));
+    }
+    catch(RuntimeException | Error e) {
+      abandonStreamResources(conn, stmt, rs, e);
+      throw e;
+    }
+  }
 
+  // Nobody will close a stream that was never returned, so its resources are closed here. The
+  // transaction is rolled back and any failure while closing is attached to the original one
+  private void abandonStreamResources(Connection conn, Statement stmt, ResultSet rs,
+      Throwable failure) {
+    try(conn; stmt; rs) {
+      rollbackTransaction(conn);
     }
-    catch(Exception e) {
-      throw new DaoException("Unable to create object of type " + classType.getName(), e);
+    catch(SQLException e) {
+      failure.addSuppressed(e);
     }
   }
 
-  private String camelCaseToSnakeCase(String identifier) {
-    StringBuilder nameBuilder = new StringBuilder();
+  private void closeStreamResources(Connection conn, Statement stmt, ResultSet rs) {
+    try(conn; stmt; rs) {
+      if(Objects.nonNull(rs)) {
+        rs.close();
+      }
 
-    for(char ch : identifier.toCharArray()) {
-      if(Character.isUpperCase(ch)) {
-        nameBuilder.append('_').append(Character.toLowerCase(ch));
+      commitTransaction(conn);
+    }
+    catch(SQLException e) {
+      throw new DaoException("Unable to close streamed query", e);
+    }
+  }
+
+  // Sets a non-null value with the setter that matches its type
+  @FunctionalInterface
+  interface ValueSetter {
+    void set(PreparedStatement stmt, int parameterIndex, Object value) throws SQLException;
+  }
+
+  // Precomputed SQL type and setter for one Java class
+  record ParameterBinder(int sqlType, ValueSetter setter) {
+    void bind(PreparedStatement stmt, int parameterIndex, Object value) throws SQLException {
+      if(Objects.isNull(value)) {
+        stmt.setNull(parameterIndex, sqlType);
       }
       else {
-        nameBuilder.append(ch);
+        setter.set(stmt, parameterIndex, value);
       }
     }
-
-    return nameBuilder.toString();
   }
 
   static class DaoException extends RuntimeException {
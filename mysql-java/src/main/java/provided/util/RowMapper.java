@@ -0,0 +1,96 @@
+package provided.util;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import provided.util.ClassMapping.FieldMapping;
+import provided.util.DaoBase.DaoException;
+
+/**
+ * Maps rows of one result set to objects. Column positions are resolved from the result set
+ * metadata once, so mapping a row is just typed getters and field setters
+ * @param <T> Entity type
+ */
+public final class RowMapper<T> {
+  private final ClassMapping<T> mapping;
+  private final FieldMapping[] fields;
+  private final int[] columnIndexes;
+
+  /**
+   * Resolves a class mapping against the columns of a result set
+   * @param <T> Entity type
+   * @param rs Result set to map
+   * @param classType Class to instantiate
+   * @return Row mapper for this result set
+   * @throws SQLException If the metadata can't be read
+   */
+  static <T> RowMapper<T> bind(ResultSet rs, Class<T> classType) throws SQLException {
+    ClassMapping<T> mapping = ClassMapping.of(classType);
+    ResultSetMetaData metaData = rs.getMetaData();
+    Map<String, Integer> columns = new HashMap<>();
+
+    for (int col = metaData.getColumnCount(); col >= 1; col--) {
+      columns.put(metaData.getColumnLabel(col).toLowerCase(Locale.ROOT), col);
+    }
+
+    FieldMapping[] allFields = mapping.getFields();
+    FieldMapping[] fields = new FieldMapping[allFields.length];
+    int[] columnIndexes = new int[allFields.length];
+    int count = 0;
+
+    for (FieldMapping field : allFields) {
+      Integer col = columns.get(field.columnName());
+
+      // Fields without a column are left as the constructor set them
+      if (Objects.nonNull(col)) {
+        fields[count] = field;
+        columnIndexes[count] = col;
+        count++;
+      }
+    }
+
+    return new RowMapper<>(mapping, Arrays.copyOf(fields, count),
+        Arrays.copyOf(columnIndexes, count));
+  }
+
+  private RowMapper(ClassMapping<T> mapping, FieldMapping[] fields, int[] columnIndexes) {
+    this.mapping = mapping;
+    this.fields = fields;
+    this.columnIndexes = columnIndexes;
+  }
+
+  /**
+   * Builds an object from the current row
+   * @param rs Result set (on correct row)
+   * @return Populated object
+   */
+  @SuppressWarnings("unchecked")
+  public T map(ResultSet rs) {
+    try {
+      Object obj = mapping.newInstance();
+
+      for (int i = 0; i < fields.length; i++) {
+        Object fieldValue = fields[i].reader().read(rs, columnIndexes[i]);
+
+        if (fieldValue != null) {
+          fields[i].setter().invokeExact(obj, fieldValue);
+        }
+      }
+
+      return (T)obj;
+    }
+    catch (Error e) {
+      throw e;
+    }
+    // The setters are method handles, which declare Throwable
+    catch (Throwable e) {
+      throw new DaoException("Unable to create object of type "
+          + mapping.getClassType().getName(), e);
+    }
+  }
+}
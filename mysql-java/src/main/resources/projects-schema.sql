@@ -1,7 +1,10 @@
+-- Lines of "-- mysql-only" mark statements the embedded H2 database skips
+
 DROP TABLE IF EXISTS project_category;
 DROP TABLE IF EXISTS material;
 DROP TABLE IF EXISTS step;
 DROP TABLE IF EXISTS category;
+DROP TABLE IF EXISTS project_tombstone;
 DROP TABLE IF EXISTS project;
 
 CREATE TABLE project (
@@ -9,11 +12,55 @@ CREATE TABLE project (
   project_name VARCHAR(128) NOT NULL,
   estimated_hours DECIMAL(7, 2),
   actual_hours DECIMAL(7, 2),
+  -- Hours over the estimate, kept as a column so the over-budget filter can use an index
+  overrun_hours DECIMAL(8, 2) GENERATED ALWAYS AS (actual_hours - estimated_hours),
   difficulty INT,
   notes TEXT,
+  version INT NOT NULL DEFAULT 0,
+  created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+  updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
   PRIMARY KEY (project_id)
 );
 
+-- Change feed order; see ProjectDao.fetchChangedSince
+CREATE INDEX idx_project_updated ON project (updated_at, project_id);
+
+-- One row per deleted project, so the change feed can report deletes
+CREATE TABLE project_tombstone (
+  tombstone_id BIGINT AUTO_INCREMENT NOT NULL,
+  project_id INT NOT NULL,
+  deleted_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+  PRIMARY KEY (tombstone_id)
+);
+
+CREATE INDEX idx_project_tombstone_deleted ON project_tombstone (deleted_at, project_id);
+
+-- Each index below serves a query that runs in normal use, named after the ProjectDao method
+
+-- fetchEstimateReport: both aggregates group by difficulty and read only the hours, so they scan
+-- this index instead of the full rows
+CREATE INDEX idx_project_estimates ON project (difficulty, estimated_hours, actual_hours);
+
+-- fetchProjectsPage with difficulties (the server's ?difficulty=): each level is read in ID
+-- order, so the keyset page needs no sort. deleteProjectsByDifficulty finds its rows here too
+CREATE INDEX idx_project_difficulty ON project (difficulty, project_id);
+
+-- fetchProjectsPage with a name prefix (the server's ?namePrefix=): LIKE 'prefix%' is a range
+-- scan of this index
+CREATE INDEX idx_project_name ON project (project_name);
+
+-- fetchProjectsPage with an hour range: a narrow range reads only its rows here and sorts them
+-- by ID, where reading in ID order would pass over every project outside it
+CREATE INDEX idx_project_estimated_hours ON project (estimated_hours);
+CREATE INDEX idx_project_actual_hours ON project (actual_hours);
+
+-- fetchProjectsPage over budget only (the server's ?overBudget=true): overrun_hours > 0
+CREATE INDEX idx_project_overrun ON project (overrun_hours);
+
+-- Full-text search over names and notes
+-- mysql-only
+CREATE FULLTEXT INDEX idx_project_search ON project (project_name, notes);
+
 CREATE TABLE category (
   category_id INT AUTO_INCREMENT NOT NULL,
   category_name VARCHAR(128) NOT NULL,
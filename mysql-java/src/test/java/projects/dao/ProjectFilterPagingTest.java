@@ -0,0 +1,120 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projects.entity.Project;
+
+// Checks that filtered keyset pages return every match once in ID order, and that each filter
+// shape reads its own index rather than scanning the table. The seeded hours are far from any
+// other test's, so the hour filters match only these projects
+class ProjectFilterPagingTest {
+  private static final int PROJECTS = 30;
+  private static final BigDecimal FIRST_ESTIMATE = new BigDecimal("5000.00");
+
+  private final ProjectDao dao = new ProjectDao();
+  private final List<Project> projects = new ArrayList<>();
+
+  @BeforeEach
+  void addProjects() {
+    List<Project> added = new ArrayList<>();
+
+    for (int i = 0; i < PROJECTS; i++) {
+      BigDecimal estimate = FIRST_ESTIMATE.add(BigDecimal.valueOf(i));
+      Project project = new Project();
+      project.setProjectName("Paging check " + i);
+      project.setDifficulty(i % 5 + 1);
+      project.setEstimatedHours(estimate);
+      // Every third project is over budget
+      project.setActualHours(estimate.add(BigDecimal.valueOf(i % 3 == 0 ? 1 : -1)));
+      added.add(project);
+    }
+
+    projects.addAll(dao.insertProjects(added));
+  }
+
+  @AfterEach
+  void cleanUp() {
+    dao.deleteProjects(projects.stream().map(Project::getProjectId).toList());
+  }
+
+  @Test
+  void pagesReturnEveryMatchOnceInIdOrder() {
+    ProjectFilter filter = ProjectFilter.ALL
+        .withEstimatedHours(FIRST_ESTIMATE, FIRST_ESTIMATE.add(BigDecimal.valueOf(PROJECTS)))
+        .withOverBudgetOnly();
+    List<Integer> expected = new ArrayList<>();
+
+    for (int i = 0; i < PROJECTS; i += 3) {
+      expected.add(projects.get(i).getProjectId());
+    }
+
+    assertEquals(expected, readAllPages(filter, 4));
+  }
+
+  @Test
+  void filtersCombine() {
+    ProjectFilter filter = ProjectFilter.ALL.withDifficulties(2, 4)
+        .withActualHours(FIRST_ESTIMATE, null)
+        .withNamePrefix("Paging check 1");
+    List<Integer> expected = new ArrayList<>();
+
+    for (int i = 0; i < PROJECTS; i++) {
+      Project project = projects.get(i);
+
+      if (project.getProjectName().startsWith("Paging check 1")
+          && (project.getDifficulty() == 2 || project.getDifficulty() == 4)
+          && project.getActualHours().compareTo(FIRST_ESTIMATE) >= 0) {
+        expected.add(project.getProjectId());
+      }
+    }
+
+    assertFalse(expected.isEmpty());
+    assertEquals(expected, readAllPages(filter, 2));
+  }
+
+  @Test
+  void namePrefixWildcardsAreLiteral() {
+    assertTrue(dao.fetchProjectsPage(ProjectFilter.ALL.withNamePrefix("Paging_check"), null, 10)
+        .isEmpty());
+    assertTrue(dao.fetchProjectsPage(ProjectFilter.ALL.withNamePrefix("Paging%"), null, 10)
+        .isEmpty());
+  }
+
+  @Test
+  void eachFilterShapeReadsItsIndex() {
+    assertIndex("idx_project_difficulty", ProjectFilter.ALL.withDifficulties(3));
+    assertIndex("idx_project_name", ProjectFilter.ALL.withNamePrefix("Paging"));
+    assertIndex("idx_project_estimated_hours", ProjectFilter.ALL.withEstimatedHours(FIRST_ESTIMATE, null));
+    assertIndex("idx_project_actual_hours", ProjectFilter.ALL.withActualHours(null, FIRST_ESTIMATE));
+    assertIndex("idx_project_overrun", ProjectFilter.ALL.withOverBudgetOnly());
+  }
+
+  private void assertIndex(String index, ProjectFilter filter) {
+    List<QueryPlanRow> plan = dao.explainProjectsPage(filter, null, 10);
+
+    assertEquals(1, plan.size(), plan::toString);
+    assertFalse(plan.get(0).isFullScan(), plan::toString);
+    assertEquals(index, plan.get(0).key(), plan::toString);
+  }
+
+  private List<Integer> readAllPages(ProjectFilter filter, int limit) {
+    List<Integer> projectIds = new ArrayList<>();
+    Integer after = null;
+    List<Project> page;
+
+    do {
+      page = dao.fetchProjectsPage(filter, after, limit);
+      page.forEach(project -> projectIds.add(project.getProjectId()));
+      after = page.isEmpty() ? after : page.get(page.size() - 1).getProjectId();
+    } while (page.size() == limit);
+
+    return projectIds;
+  }
+}
@@ -0,0 +1,116 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import projects.entity.Project;
+import projects.service.ProjectService;
+
+// Checks where reads go with the embedded database standing in as a replica. A replica reports
+// its lag in whole seconds, so reads in a session that wrote less than a second ago, or has a
+// write still queued, must go to the primary
+class ReadSessionTest {
+  private final ProjectDao dao = new ProjectDao();
+  private final List<Integer> added = new ArrayList<>();
+
+  @AfterEach
+  void cleanUp() {
+    dao.deleteProjects(added);
+  }
+
+  @Test
+  void readsWithoutASessionGoToTheReplica() {
+    add(dao.insertProject(newProject()));
+
+    assertEquals(new Routing(1, 0), routingOf(() -> dao.fetchProjectsPage(null, 1)));
+  }
+
+  @Test
+  @SuppressWarnings("try")
+  void sessionReadsItsWriteFromThePrimaryUntilTheReplicaCatchesUp()
+      throws InterruptedException {
+    ReadSession session = ReadSession.start();
+    assertNull(session.token());
+
+    try (var ignored = session.bind()) {
+      Integer projectId = add(dao.insertProject(newProject()));
+
+      assertEquals(new Routing(0, 1), routingOf(() -> dao.fetchProjectById(projectId)));
+      assertNotNull(session.token());
+
+      Thread.sleep(1_100);
+      assertEquals(new Routing(1, 0), routingOf(() -> dao.fetchProjectById(projectId)));
+    }
+  }
+
+  @Test
+  @SuppressWarnings("try")
+  void tokenCarriesTheWriteToALaterRequest() {
+    ReadSession writer = ReadSession.start();
+
+    try (var ignored = writer.bind()) {
+      add(dao.insertProject(newProject()));
+    }
+
+    try (var ignored = ReadSession.resume(writer.token()).bind()) {
+      assertEquals(new Routing(0, 1), routingOf(() -> dao.fetchProjectsPage(null, 1)));
+    }
+
+    assertEquals(new Routing(1, 0), routingOf(() -> dao.fetchProjectsPage(null, 1)));
+  }
+
+  @Test
+  @SuppressWarnings("try")
+  void queuedWriteKeepsTheSessionOnThePrimary() {
+    ProjectService service = new ProjectService();
+    System.setProperty("projects.writeBehind.maxDelayMillis", "500");
+    service.startWriteBehind();
+
+    try (var ignored = ReadSession.start().bind()) {
+      CompletableFuture<Project> write = service.queueAddProject(newProject());
+
+      assertEquals(new Routing(0, 1), routingOf(() -> dao.fetchProjectsPage(null, 1)));
+      add(write.join());
+    } finally {
+      service.stopWriteBehind();
+      System.clearProperty("projects.writeBehind.maxDelayMillis");
+    }
+  }
+
+  @Test
+  void rejectsMalformedTokens() {
+    assertThrows(IllegalArgumentException.class, () -> ReadSession.resume("not a token"));
+    assertThrows(IllegalArgumentException.class, () -> ReadSession.resume("-5"));
+  }
+
+  private Integer add(Project project) {
+    added.add(project.getProjectId());
+    return project.getProjectId();
+  }
+
+  private static Project newProject() {
+    Project project = new Project();
+    project.setProjectName("Read session check");
+    project.setDifficulty(1);
+    return project;
+  }
+
+  // Where the reads made by one action went
+  private static Routing routingOf(Runnable reads) {
+    ReadRoutingStats before = DbConnection.getReadRoutingStats().orElseThrow();
+    reads.run();
+    ReadRoutingStats after = DbConnection.getReadRoutingStats().orElseThrow();
+
+    return new Routing(after.replicaReads() - before.replicaReads(),
+        after.primaryReads() - before.primaryReads());
+  }
+
+  private record Routing(long replicaReads, long primaryReads) {
+  }
+}
@@ -0,0 +1,68 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+// Checks that a replica whose pool is busy is passed over without waiting and stays in rotation,
+// while one that can't be reached is marked down
+class ReplicaRouterTest {
+  private static final String REPLICA = System.getProperty("projects.db.replicas");
+  private static final long CHECK_MILLIS = 20;
+
+  @BeforeAll
+  static void openPrimary() {
+    // The embedded replica is the primary's database, so the primary has to exist first
+    DbConnection.getPoolStats();
+  }
+
+  @Test
+  void busyReplicaIsSkippedButStaysAvailable() throws InterruptedException, SQLException {
+    // Short enough that a check waiting on the busy pool would time out during the test
+    System.setProperty("projects.pool.acquireTimeoutMillis", "50");
+
+    try (ReplicaRouter router = new ReplicaRouter(List.of(REPLICA), List.of("busy"),
+        DbBackend.H2, ReplicaBalancing.ROUND_ROBIN, 5, CHECK_MILLIS)) {
+      List<Connection> held = new ArrayList<>();
+      Connection conn;
+
+      while ((conn = router.getConnection(Long.MAX_VALUE)) != null) {
+        held.add(conn);
+      }
+
+      long start = System.nanoTime();
+      assertNull(router.getConnection(Long.MAX_VALUE));
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+
+      // Several checks run while every connection is taken
+      Thread.sleep(CHECK_MILLIS * 10);
+
+      ReplicaStats stats = router.getStats().replicas().get(0);
+      assertTrue(stats.available());
+      assertEquals(0, stats.failures());
+
+      for (Connection borrowed : held) {
+        borrowed.close();
+      }
+    } finally {
+      System.clearProperty("projects.pool.acquireTimeoutMillis");
+    }
+  }
+
+  @Test
+  void unreachableReplicaIsMarkedDown() {
+    try (ReplicaRouter router = new ReplicaRouter(List.of("jdbc:h2:tcp://localhost:1/nowhere"),
+        List.of("unreachable"), DbBackend.H2, ReplicaBalancing.ROUND_ROBIN, 5, CHECK_MILLIS)) {
+      assertNull(router.getConnection(Long.MAX_VALUE));
+      assertFalse(router.getStats().replicas().get(0).available());
+    }
+  }
+}
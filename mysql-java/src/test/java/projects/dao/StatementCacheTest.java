@@ -0,0 +1,144 @@
+package projects.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Checks that a statement comes back from the cache the way prepareStatement would have returned
+// it, that statements left with state the next borrower wouldn't expect are closed instead of
+// cached, and that the least recently used statement is evicted once the cache is full
+class StatementCacheTest {
+  private static final Method PREPARE = prepareMethod(String.class);
+  private static final Method PREPARE_WITH_KEYS = prepareMethod(String.class, int.class);
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private Connection physical;
+
+  @BeforeEach
+  void connect() throws SQLException {
+    physical = DriverManager.getConnection("jdbc:h2:mem:statementCache");
+  }
+
+  @AfterEach
+  void disconnect() throws SQLException {
+    physical.close();
+  }
+
+  @Test
+  void reusedStatementHasNoParametersOrOpenResults() throws SQLException {
+    StatementCache cache = newCache(4);
+    ResultSet left;
+
+    try (PreparedStatement stmt = prepare(cache, "SELECT ?")) {
+      stmt.setInt(1, 5);
+      left = stmt.executeQuery();
+      assertSame(physical, stmt.getConnection());
+    }
+
+    assertTrue(left.isClosed());
+
+    try (PreparedStatement stmt = prepare(cache, "SELECT ?")) {
+      assertThrows(SQLException.class, stmt::executeQuery);
+    }
+
+    assertEquals(1, hits.sum());
+    assertEquals(1, misses.sum());
+  }
+
+  @Test
+  void prepareOptionsArePartOfTheKey() throws SQLException {
+    StatementCache cache = newCache(4);
+
+    prepare(cache, "SELECT 1").close();
+    cache.prepare(PREPARE_WITH_KEYS, new Object[] {"SELECT 1", Statement.RETURN_GENERATED_KEYS})
+        .close();
+
+    assertEquals(0, hits.sum());
+    assertEquals(2, misses.sum());
+  }
+
+  @Test
+  void statementWithChangedSettingsIsNotCached() throws SQLException {
+    StatementCache cache = newCache(4);
+
+    try (PreparedStatement stmt = prepare(cache, "SELECT 1")) {
+      stmt.setFetchSize(10);
+    }
+
+    prepare(cache, "SELECT 1").close();
+
+    assertEquals(0, hits.sum());
+    assertEquals(2, misses.sum());
+  }
+
+  @Test
+  void evictsTheLeastRecentlyUsed() throws SQLException {
+    StatementCache cache = newCache(2);
+
+    prepare(cache, "SELECT 1").close();
+    prepare(cache, "SELECT 2").close();
+    // Makes "SELECT 2" the least recently used
+    prepare(cache, "SELECT 1").close();
+    prepare(cache, "SELECT 3").close();
+    assertEquals(1, evictions.sum());
+
+    prepare(cache, "SELECT 1").close();
+    assertEquals(2, hits.sum());
+    prepare(cache, "SELECT 2").close();
+    assertEquals(2, hits.sum());
+  }
+
+  @Test
+  void statementsStillInUseAreClosedWithTheBorrow() throws SQLException {
+    StatementCache cache = newCache(4);
+    PreparedStatement stmt = prepare(cache, "SELECT 1");
+
+    cache.closeInUse();
+
+    assertTrue(stmt.isClosed());
+    assertThrows(SQLException.class, stmt::executeQuery);
+    stmt.close();
+
+    prepare(cache, "SELECT 1").close();
+    assertEquals(0, hits.sum());
+  }
+
+  @Test
+  void onlyPlainAndFlagVariantsAreCacheable() {
+    assertTrue(StatementCache.isCacheable(new Object[] {"SELECT 1"}));
+    assertTrue(StatementCache.isCacheable(new Object[] {"SELECT 1", 1}));
+    assertFalse(StatementCache.isCacheable(new Object[] {"SELECT 1", new int[] {1}}));
+    assertFalse(StatementCache.isCacheable(new Object[] {"SELECT 1", new String[] {"id"}}));
+  }
+
+  private StatementCache newCache(int maxSize) {
+    return new StatementCache(physical, physical, maxSize, hits, misses, evictions);
+  }
+
+  private static PreparedStatement prepare(StatementCache cache, String sql) throws SQLException {
+    return cache.prepare(PREPARE, new Object[] {sql});
+  }
+
+  private static Method prepareMethod(Class<?>... parameterTypes) {
+    try {
+      return Connection.class.getMethod("prepareStatement", parameterTypes);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
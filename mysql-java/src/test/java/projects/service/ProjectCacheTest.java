@@ -0,0 +1,127 @@
+package projects.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+import projects.entity.Project;
+
+// Checks that write markers and delete tombstones keep older reads out of the cache, and that
+// lookups after a write through ProjectService get the stored row rather than the caller's copy
+class ProjectCacheTest {
+
+  @Test
+  void cachesCopies() {
+    ProjectCache cache = new ProjectCache(10, 60_000);
+    Project project = project(1, 0);
+
+    cache.put(project);
+    project.setNotes("changed after caching");
+
+    Project cached = cache.get(1).orElseThrow();
+    assertNotSame(project, cached);
+    assertNull(cached.getNotes());
+  }
+
+  @Test
+  void markerIsAMissAndKeepsOlderReadsOut() {
+    ProjectCache cache = new ProjectCache(10, 60_000);
+
+    cache.put(project(1, 0));
+    cache.markWritten(1, 1);
+    assertTrue(cache.get(1).isEmpty());
+
+    // A read that started before the write finishes after it
+    cache.put(project(1, 0));
+    assertTrue(cache.get(1).isEmpty());
+
+    cache.put(project(1, 1));
+    assertEquals(1, cache.get(1).orElseThrow().getVersion());
+  }
+
+  @Test
+  void olderMarkerDropsTheEntry() {
+    ProjectCache cache = new ProjectCache(10, 60_000);
+
+    cache.put(project(1, 2));
+    cache.markWritten(1, 1);
+    assertTrue(cache.get(1).isEmpty());
+
+    cache.put(project(1, 1));
+    assertEquals(1, cache.get(1).orElseThrow().getVersion());
+  }
+
+  @Test
+  void tombstoneKeepsADeletedProjectOut() {
+    ProjectCache cache = new ProjectCache(10, 60_000);
+
+    cache.put(project(1, 0));
+    cache.markDeleted(1);
+    assertTrue(cache.get(1).isEmpty());
+
+    // A read that started before the delete finishes after it
+    cache.put(project(1, 0));
+    cache.put(project(1, 5));
+    cache.markWritten(1, 6);
+    assertTrue(cache.get(1).isEmpty());
+  }
+
+  @Test
+  void tombstoneExpires() throws InterruptedException {
+    ProjectCache cache = new ProjectCache(10, 200);
+
+    cache.markDeleted(1);
+    Thread.sleep(300);
+
+    cache.put(project(1, 0));
+    assertTrue(cache.get(1).isPresent());
+  }
+
+  @Test
+  void fetchAfterDeleteFindsNothing() {
+    ProjectService service = new ProjectService();
+    Project added = service.addProject(newProject("Delete check"));
+
+    service.fetchProjectById(added.getProjectId());
+    service.deleteProject(added.getProjectId());
+
+    assertThrows(NoSuchElementException.class,
+        () -> service.fetchProjectById(added.getProjectId()));
+  }
+
+  @Test
+  void fetchAfterUpdateReturnsStoredRow() {
+    ProjectService service = new ProjectService();
+    Project added = service.addProject(newProject("Cache check"));
+    Project read = service.fetchProjectById(added.getProjectId()).copy();
+
+    read.setNotes("updated");
+    service.updateProject(read);
+
+    Project reread = service.fetchProjectById(added.getProjectId());
+    assertEquals("updated", reread.getNotes());
+    assertEquals(read.getVersion(), reread.getVersion());
+    assertNotNull(reread.getCreatedAt());
+    assertNotNull(reread.getUpdatedAt());
+
+    service.deleteProject(added.getProjectId());
+  }
+
+  private static Project project(Integer projectId, Integer version) {
+    Project project = newProject("Project " + projectId);
+    project.setProjectId(projectId);
+    project.setVersion(version);
+    return project;
+  }
+
+  private static Project newProject(String name) {
+    Project project = new Project();
+    project.setProjectName(name);
+    project.setDifficulty(2);
+    return project;
+  }
+}
@@ -0,0 +1,80 @@
+package projects.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import projects.dao.ChangeCursor;
+import projects.dao.ChangePage;
+import projects.entity.Project;
+import projects.entity.ProjectChange;
+
+// Checks that a reader paging through the change feed, saving and restoring its cursor between
+// pages, sees every change once: each project at its latest state and deletes as tombstones
+class ProjectChangeFeedTest {
+  private static final int PAGE_SIZE = 2;
+
+  private final ProjectService service = new ProjectService();
+
+  @Test
+  void savedCursorResumesWithoutGapsOrRepeats() throws InterruptedException {
+    ChangeCursor cursor = readToEnd(ChangeCursor.START, new ArrayList<>());
+    List<Project> projects = new ArrayList<>();
+
+    for (int i = 0; i < 5; i++) {
+      Project project = new Project();
+      project.setProjectName("Feed check " + i);
+      project.setDifficulty(1);
+      projects.add(project);
+    }
+
+    List<Integer> projectIds =
+        service.addProjects(projects).stream().map(Project::getProjectId).toList();
+
+    Project updated = service.fetchProjectById(projectIds.get(1)).copy();
+    updated.setNotes("updated");
+    service.updateProject(updated);
+    service.deleteProject(projectIds.get(3));
+
+    // Past the settle window set for the tests, so every change above is readable
+    Thread.sleep(500);
+
+    List<ProjectChange> changes = new ArrayList<>();
+    ChangeCursor end = readToEnd(cursor, changes);
+    Map<Integer, ProjectChange> byId = new HashMap<>();
+
+    for (ProjectChange change : changes) {
+      assertNull(byId.put(change.projectId(), change), "Repeated " + change);
+    }
+
+    // Other tests' changes that were still settling at the start may be read here too
+    assertTrue(byId.keySet().containsAll(projectIds));
+    assertEquals("updated", byId.get(projectIds.get(1)).project().getNotes());
+    assertEquals(ProjectChange.Type.DELETED, byId.get(projectIds.get(3)).type());
+
+    ChangePage after = service.fetchChangedSince(end, PAGE_SIZE);
+    assertTrue(after.changes().isEmpty());
+    assertFalse(after.hasMore());
+
+    service.deleteProjects(projectIds);
+  }
+
+  // Saves and restores the cursor between pages, the way a reader that stops would
+  private ChangeCursor readToEnd(ChangeCursor from, List<ProjectChange> changes) {
+    ChangeCursor cursor = from;
+    ChangePage page;
+
+    do {
+      page = service.fetchChangedSince(cursor, PAGE_SIZE);
+      changes.addAll(page.changes());
+      cursor = ChangeCursor.parse(page.next().toString());
+    } while (page.hasMore());
+
+    return cursor;
+  }
+}
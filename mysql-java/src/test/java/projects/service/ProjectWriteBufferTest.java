@@ -0,0 +1,201 @@
+package projects.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import projects.dao.ProjectDao;
+import projects.dao.UpdateResult;
+import projects.entity.Project;
+import projects.exception.ConnectionTimeoutException;
+import projects.exception.ProjectConflictException;
+
+// Checks that write-behind updates come out the same as running them one at a time: of two
+// updates read at the same version only the first wins, and missing or changed projects are
+// reported the same way as by the blocking calls. A bad row fails on its own, while a failure
+// that isn't about any one row fails the whole group without retrying it write by write
+class ProjectWriteBufferTest {
+  private final ProjectService service = new ProjectService();
+  private final ProjectDao dao = new ProjectDao();
+  private Project project;
+
+  @BeforeEach
+  void addProject() {
+    Project added = new Project();
+    added.setProjectName("Write-behind check");
+    added.setDifficulty(3);
+    project = service.addProject(added);
+  }
+
+  @AfterEach
+  void cleanUp() {
+    service.stopWriteBehind();
+    System.clearProperty("projects.writeBehind.maxDelayMillis");
+    dao.deleteProjects(List.of(project.getProjectId()));
+  }
+
+  @Test
+  void updatesReadAtTheSameVersionAreCoalesced() {
+    // Long enough that all three updates are pending together
+    System.setProperty("projects.writeBehind.maxDelayMillis", "200");
+    service.startWriteBehind();
+
+    Project first = service.fetchProjectById(project.getProjectId()).copy();
+    Project second = first.copy();
+    Project third = first.copy();
+    first.setNotes("first");
+    second.setNotes("second");
+    third.setNotes("third");
+    third.setVersion(first.getVersion() + 1);
+
+    CompletableFuture<Boolean> firstResult = service.queueUpdateProject(first);
+    CompletableFuture<Boolean> secondResult = service.queueUpdateProject(second);
+    CompletableFuture<Boolean> thirdResult = service.queueUpdateProject(third);
+    service.flushWrites().join();
+
+    assertTrue(firstResult.join());
+    assertInstanceOf(ProjectConflictException.class, failure(secondResult));
+    assertTrue(thirdResult.join());
+
+    Project stored = dao.fetchProjectById(project.getProjectId()).orElseThrow();
+    assertEquals("third", stored.getNotes());
+    assertEquals(project.getVersion() + 2, stored.getVersion());
+    assertEquals(1, service.getWriteBufferStats().orElseThrow().coalesced());
+  }
+
+  @Test
+  void queuedUpdatesReportConflictsAndMissingProjects() {
+    service.startWriteBehind();
+
+    Project stale = service.fetchProjectById(project.getProjectId()).copy();
+    Project current = stale.copy();
+    current.setNotes("current");
+    assertTrue(service.queueUpdateProject(current).join());
+
+    stale.setNotes("stale");
+    assertInstanceOf(ProjectConflictException.class,
+        failure(service.queueUpdateProject(stale)));
+
+    Project missing = current.copy();
+    missing.setProjectId(Integer.MAX_VALUE);
+    assertInstanceOf(NoSuchElementException.class,
+        failure(service.queueUpdateProject(missing)));
+  }
+
+  @Test
+  void blockingUpdatesReportConflictsAndMissingProjects() {
+    Project stale = service.fetchProjectById(project.getProjectId()).copy();
+    Project current = stale.copy();
+    current.setNotes("current");
+    assertTrue(service.updateProject(current));
+
+    stale.setNotes("stale");
+    assertThrows(ProjectConflictException.class, () -> service.updateProject(stale));
+
+    Project missing = current.copy();
+    missing.setProjectId(Integer.MAX_VALUE);
+    assertThrows(NoSuchElementException.class, () -> service.updateProject(missing));
+  }
+
+  @Test
+  void badRowFailsAloneAndTheRestOfItsGroupIsWritten() {
+    List<CompletableFuture<Project>> results = new ArrayList<>();
+
+    try (ProjectWriteBuffer buffer = new ProjectWriteBuffer(dao, 100, 100, 200)) {
+      results.add(buffer.insert(newProject("Good before")));
+      results.add(buffer.insert(newProject("x".repeat(200))));
+      results.add(buffer.insert(newProject("Good after")));
+      buffer.flush().join();
+
+      Project before = results.get(0).join();
+      Project after = results.get(2).join();
+      dao.deleteProjects(List.of(before.getProjectId(), after.getProjectId()));
+
+      assertNotNull(before.getProjectId());
+      assertNotNull(after.getProjectId());
+      failure(results.get(1));
+
+      // The group, then the bad row on its own
+      assertEquals(2, buffer.getStats().failedGroups());
+    }
+  }
+
+  @Test
+  void connectionFailureFailsTheWholeGroupAtOnce() {
+    ConnectionTimeoutException timeout = new ConnectionTimeoutException("Timed out");
+    FailingDao failing = new FailingDao(timeout);
+    List<CompletableFuture<?>> results = new ArrayList<>();
+
+    try (ProjectWriteBuffer buffer = new ProjectWriteBuffer(failing, 100, 100, 200)) {
+      results.add(buffer.insert(newProject("First")));
+      results.add(buffer.insert(newProject("Second")));
+      results.add(buffer.update(project.copy()));
+      buffer.flush().join();
+
+      results.forEach(result -> assertSame(timeout, failure(result)));
+      assertEquals(1, failing.calls.get());
+    }
+  }
+
+  @Test
+  void writerKeepsGoingAfterAnUnexpectedError() {
+    FailingDao failing = new FailingDao(new AssertionError("Unexpected"));
+
+    try (ProjectWriteBuffer buffer = new ProjectWriteBuffer(failing, 100, 100, 0)) {
+      CompletableFuture<Project> lost = buffer.insert(newProject("Lost"));
+      assertInstanceOf(AssertionError.class, failure(lost));
+
+      Project written = buffer.insert(newProject("Written")).join();
+      dao.deleteProjects(List.of(written.getProjectId()));
+    }
+  }
+
+  private static Project newProject(String name) {
+    Project newProject = new Project();
+    newProject.setProjectName(name);
+    newProject.setDifficulty(1);
+    return newProject;
+  }
+
+  private static Throwable failure(CompletableFuture<?> future) {
+    return assertThrows(CompletionException.class, future::join).getCause();
+  }
+
+  // Fails its first writes with the given errors, then writes normally
+  private static class FailingDao extends ProjectDao {
+    private final ArrayDeque<Throwable> failures = new ArrayDeque<>();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    FailingDao(Throwable... failures) {
+      this.failures.addAll(List.of(failures));
+    }
+
+    @Override
+    public List<UpdateResult> writeProjects(List<Project> inserts, List<Project> updates) {
+      calls.incrementAndGet();
+      Throwable failure = failures.poll();
+
+      if (failure instanceof RuntimeException e) {
+        throw e;
+      }
+
+      if (failure instanceof Error e) {
+        throw e;
+      }
+
+      return super.writeProjects(inserts, updates);
+    }
+  }
+}
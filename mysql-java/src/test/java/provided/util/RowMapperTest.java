@@ -0,0 +1,99 @@
+package provided.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import projects.dao.DbConnection;
+import provided.util.DaoBase.DaoException;
+
+// Checks that columns are matched to fields by label whatever the label's case or the default
+// locale, that NULLs and missing columns leave fields as the constructor set them, and that a
+// failing constructor is wrapped unless it throws an Error
+class RowMapperTest {
+  private static final String ROW_SQL = "SELECT 7 AS \"ITEM_ID\", 'Shelf' AS item_name,"
+      + " CAST(1.50 AS DECIMAL(7, 2)) AS \"HOURS\", CAST(NULL AS INT) AS priority,"
+      + " TIMESTAMP '2024-05-01 10:30:00' AS created_at, 'extra' AS unused";
+
+  @Test
+  void mapsColumnsByLabel() throws SQLException {
+    Item item = mapRow(Item.class);
+
+    assertEquals(7, item.itemId);
+    assertEquals("Shelf", item.itemName);
+    assertEquals(new BigDecimal("1.50"), item.hours);
+    assertEquals(3, item.priority);
+    assertEquals(LocalDateTime.of(2024, 5, 1, 10, 30), item.createdAt);
+    assertEquals("default", item.note);
+  }
+
+  @Test
+  void matchesLabelsWhateverTheDefaultLocale() throws SQLException {
+    Locale locale = Locale.getDefault();
+    // Lower-cases "ITEM_ID" to "ıtem_ıd" with a dotless i
+    Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+
+    try {
+      assertEquals(7, mapRow(Item.class).itemId);
+    } finally {
+      Locale.setDefault(locale);
+    }
+  }
+
+  @Test
+  void wrapsConstructorExceptions() {
+    DaoException e = assertThrows(DaoException.class, () -> mapRow(FailingItem.class));
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+  }
+
+  @Test
+  void rethrowsConstructorErrors() {
+    FailingItem.error = true;
+
+    try {
+      assertThrows(AssertionError.class, () -> mapRow(FailingItem.class));
+    } finally {
+      FailingItem.error = false;
+    }
+  }
+
+  private static <T> T mapRow(Class<T> type) throws SQLException {
+    try (Connection conn = DbConnection.getConnection();
+        Statement stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery(ROW_SQL)) {
+      assertTrue(rs.next());
+      return RowMapper.bind(rs, type).map(rs);
+    }
+  }
+
+  public static class Item {
+    private Integer itemId;
+    private String itemName;
+    private BigDecimal hours;
+    private Integer priority = 3;
+    private LocalDateTime createdAt;
+    private String note = "default";
+  }
+
+  public static class FailingItem {
+    private static boolean error;
+
+    private Integer itemId;
+
+    public FailingItem() {
+      if (error) {
+        throw new AssertionError("Constructor error");
+      }
+
+      throw new IllegalStateException("Constructor failure");
+    }
+  }
+}